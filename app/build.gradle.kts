@@ -40,6 +40,7 @@ android {
     }
     buildFeatures {
         compose = true
+        buildConfig = true
     }
 }
 
@@ -49,6 +50,7 @@ dependencies {
     implementation(project(":feature:chatbot"))
     implementation(project(":feature:results"))
     implementation(project(":core:data"))
+    implementation(project(":core:common"))
     implementation(project(":core:ui"))
     implementation(project(":domain"))
 
@@ -65,6 +67,8 @@ dependencies {
     implementation(libs.androidx.lifecycle.viewmodel.compose)
     implementation(libs.androidx.lifecycle.runtime.compose)
     implementation(libs.hilt.android)
+    implementation(libs.androidx.work.runtime.ktx)
+    implementation(libs.androidx.hilt.work)
 
     testImplementation(libs.junit)
     testImplementation(libs.kotlinx.coroutines.test)
@@ -1,7 +1,32 @@
 package com.kaaneneskpc.f1setupinstructor
 
 import android.app.Application
+import android.os.Looper
+import androidx.hilt.work.HiltWorkerFactory
+import androidx.work.Configuration
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StartupTimer
+import com.kaaneneskpc.f1setupinstructor.core.data.prefetch.SetupPrefetchScheduler
 import dagger.hilt.android.HiltAndroidApp
+import javax.inject.Inject
 
 @HiltAndroidApp
-class F1SetupFinderApp : Application()
+class F1SetupFinderApp : Application(), Configuration.Provider {
+
+    @Inject
+    lateinit var workerFactory: HiltWorkerFactory
+
+    override val workManagerConfiguration: Configuration
+        get() = Configuration.Builder()
+            .setWorkerFactory(workerFactory)
+            .build()
+
+    override fun onCreate() {
+        super.onCreate()
+        // Initializing WorkManager is not needed for the first frame, so it waits until the main thread is idle
+        Looper.myQueue().addIdleHandler {
+            SetupPrefetchScheduler.schedule(this)
+            false
+        }
+        StartupTimer.markApplicationCreated()
+    }
+}
@@ -4,6 +4,7 @@ import android.os.Bundle
 import androidx.activity.ComponentActivity
 import androidx.activity.compose.setContent
 import androidx.activity.enableEdgeToEdge
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StartupTimer
 import com.kaaneneskpc.f1setupinstructor.navigation.AppNavigation
 import com.kaaneneskpc.f1setupinstructor.ui.theme.F1SetupInstructorTheme
 import dagger.hilt.android.AndroidEntryPoint
@@ -12,6 +13,7 @@ import dagger.hilt.android.AndroidEntryPoint
 class MainActivity : ComponentActivity() {
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
+        StartupTimer.trackFirstFrame(this)
         enableEdgeToEdge()
         setContent {
             F1SetupInstructorTheme {
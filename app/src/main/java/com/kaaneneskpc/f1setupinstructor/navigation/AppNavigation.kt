@@ -24,6 +24,8 @@ import androidx.navigation.compose.rememberNavController
 import com.kaaneneskpc.f1setupinstructor.core.ui.components.GradientBackground
 import com.kaaneneskpc.f1setupinstructor.feature.chatbot.ChatRoute
 import com.kaaneneskpc.f1setupinstructor.feature.home.HomeScreen
+import com.kaaneneskpc.f1setupinstructor.BuildConfig
+import com.kaaneneskpc.f1setupinstructor.feature.home.debug.PipelineTraceRoute
 import com.kaaneneskpc.f1setupinstructor.feature.home.profile.ProfileRoute
 import com.kaaneneskpc.f1setupinstructor.feature.history.HistoryRoute
 import com.kaaneneskpc.f1setupinstructor.feature.results.setupdetails.SetupDetailsRoute
@@ -34,6 +36,7 @@ sealed class Screen(val route: String, val icon: ImageVector? = null, val iconRe
     object Chatbot : Screen("chatbot", null, com.kaaneneskpc.f1setupinstructor.core.ui.R.drawable.ic_chat, "Asistan")
     object SetupDetails : Screen("setup_details/{trackName}")
     object Profile : Screen("profile")
+    object PipelineTrace : Screen("pipeline_trace")
 }
 
 @Composable
@@ -51,7 +54,8 @@ fun AppNavigation() {
         
         val showBottomBar = currentRoute != null &&
                            !currentRoute.startsWith("setup_details") &&
-                           currentRoute != "profile"
+                           currentRoute != "profile" &&
+                           currentRoute != "pipeline_trace"
         
         Scaffold(
             bottomBar = {
@@ -149,9 +153,23 @@ fun AppNavigation() {
                 
                 composable(Screen.Profile.route) {
                     ProfileRoute(
-                        onBack = { navController.popBackStack() }
+                        onBack = { navController.popBackStack() },
+                        onOpenPipelineTrace = if (BuildConfig.DEBUG) {
+                            { navController.navigate(Screen.PipelineTrace.route) }
+                        } else {
+                            null
+                        }
                     )
                 }
+
+                // Developer tooling; not part of release builds
+                if (BuildConfig.DEBUG) {
+                    composable(Screen.PipelineTrace.route) {
+                        PipelineTraceRoute(
+                            onBack = { navController.popBackStack() }
+                        )
+                    }
+                }
             }
         }
     }
@@ -0,0 +1,150 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+import android.util.Log
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import org.json.JSONArray
+import org.json.JSONObject
+import java.util.concurrent.atomic.AtomicLong
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.random.Random
+
+/**
+ * Lightweight in-memory tracing for the setup pipeline
+ * Every stage feeds a per-stage histogram; finished traces are kept in a small ring buffer
+ * and response bodies are only logged for a sample of requests.
+ */
+@Singleton
+class PipelineTracer @Inject constructor() {
+
+    companion object {
+        private const val TAG = "PipelineTracer"
+        private const val MAX_RECENT_TRACES = 50
+        private const val RESPONSE_SAMPLE_PERCENT = 10
+        private const val RESPONSE_PREVIEW_CHARS = 200
+
+        /**
+         * Trace of the calling coroutine, if the request was started by a traced entry point
+         */
+        suspend fun current(): RequestTrace? = currentCoroutineContext()[RequestTrace]
+    }
+
+    private val nextId = AtomicLong()
+
+    private val _histograms = MutableStateFlow<Map<String, StageHistogram>>(emptyMap())
+    val histograms: StateFlow<Map<String, StageHistogram>> = _histograms.asStateFlow()
+
+    private val _recentTraces = MutableStateFlow<List<TraceRecord>>(emptyList())
+    val recentTraces: StateFlow<List<TraceRecord>> = _recentTraces.asStateFlow()
+
+    fun start(name: String): RequestTrace {
+        return RequestTrace(nextId.incrementAndGet(), name, System.currentTimeMillis(), System.nanoTime())
+    }
+
+    /**
+     * Times [block] as [stage]; the histogram is updated even when no trace is attached
+     */
+    inline fun <T> span(trace: RequestTrace?, stage: String, block: () -> T): T {
+        val startNanos = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            record(trace, stage, startNanos)
+        }
+    }
+
+    fun record(trace: RequestTrace?, stage: String, startNanos: Long, endNanos: Long = System.nanoTime()) {
+        val durationMillis = (endNanos - startNanos) / 1_000_000
+        _histograms.update { histograms ->
+            histograms + (stage to (histograms[stage] ?: StageHistogram()).plus(durationMillis))
+        }
+        trace?.add(StageSpan(stage, (startNanos - trace.startedAtNanos) / 1_000_000, durationMillis))
+    }
+
+    /**
+     * Records a stage whose duration was measured elsewhere, e.g. the scheduler queue wait
+     */
+    fun recordDuration(trace: RequestTrace?, stage: String, durationMillis: Long) {
+        val endNanos = System.nanoTime()
+        record(trace, stage, endNanos - durationMillis * 1_000_000, endNanos)
+    }
+
+    /**
+     * Notes the response size on the trace and logs a short preview for a sample of responses
+     */
+    fun sampleResponse(trace: RequestTrace?, kind: String, text: String) {
+        trace?.responseChars = text.length
+        if (Random.nextInt(100) >= RESPONSE_SAMPLE_PERCENT) return
+        val preview = text.take(RESPONSE_PREVIEW_CHARS).replace('\n', ' ')
+        Log.d(TAG, "sample trace=${trace?.id} kind=$kind chars=${text.length} head=\"$preview\"")
+    }
+
+    fun finish(trace: RequestTrace, success: Boolean) {
+        val record = TraceRecord(
+            id = trace.id,
+            name = trace.name,
+            startedAtMillis = trace.startedAtMillis,
+            totalMillis = (System.nanoTime() - trace.startedAtNanos) / 1_000_000,
+            success = success,
+            responseChars = trace.responseChars,
+            spans = trace.spans
+        )
+        _recentTraces.update { (listOf(record) + it).take(MAX_RECENT_TRACES) }
+        Log.d(
+            TAG,
+            "trace=${record.id} name=${record.name} ok=$success total=${record.totalMillis}ms " +
+                record.spans.joinToString(" ") { "${it.stage}=${it.durationMillis}ms" }
+        )
+    }
+
+    fun reset() {
+        _histograms.value = emptyMap()
+        _recentTraces.value = emptyList()
+    }
+
+    fun exportJson(): String {
+        val stages = JSONObject()
+        _histograms.value.toSortedMap().forEach { (stage, histogram) ->
+            stages.put(stage, JSONObject().apply {
+                put("count", histogram.count)
+                put("avgMs", histogram.averageMillis)
+                put("p50Ms", histogram.p50Millis)
+                put("p95Ms", histogram.p95Millis)
+                put("maxMs", histogram.maxMillis)
+                put("bucketBoundsMs", JSONArray(StageHistogram.BUCKET_BOUNDS_MILLIS.toList()))
+                put("bucketCounts", JSONArray(histogram.counts))
+            })
+        }
+
+        val traces = JSONArray()
+        _recentTraces.value.forEach { record ->
+            traces.put(JSONObject().apply {
+                put("id", record.id)
+                put("name", record.name)
+                put("startedAt", record.startedAtMillis)
+                put("totalMs", record.totalMillis)
+                put("success", record.success)
+                put("responseChars", record.responseChars)
+                put("spans", JSONArray().apply {
+                    record.spans.forEach { span ->
+                        put(JSONObject().apply {
+                            put("stage", span.stage)
+                            put("offsetMs", span.startOffsetMillis)
+                            put("durationMs", span.durationMillis)
+                        })
+                    }
+                })
+            })
+        }
+
+        return JSONObject()
+            .put("exportedAt", System.currentTimeMillis())
+            .put("stages", stages)
+            .put("traces", traces)
+            .toString(2)
+    }
+}
@@ -0,0 +1,68 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+import java.util.concurrent.CopyOnWriteArrayList
+import kotlin.coroutines.AbstractCoroutineContextElement
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * One traced request, carried in the coroutine context so every layer can add its stage spans
+ */
+class RequestTrace(
+    val id: Long,
+    val name: String,
+    val startedAtMillis: Long,
+    internal val startedAtNanos: Long
+) : AbstractCoroutineContextElement(Key) {
+
+    companion object Key : CoroutineContext.Key<RequestTrace>
+
+    private val _spans = CopyOnWriteArrayList<StageSpan>()
+    val spans: List<StageSpan>
+        get() = _spans.toList()
+
+    @Volatile
+    var responseChars: Int = 0
+        internal set
+
+    internal fun add(span: StageSpan) {
+        _spans.add(span)
+    }
+}
+
+/**
+ * A single stage of a request, offset relative to the start of its trace
+ */
+data class StageSpan(
+    val stage: String,
+    val startOffsetMillis: Long,
+    val durationMillis: Long
+)
+
+/**
+ * Finished trace as kept in the recent-traces ring buffer
+ */
+data class TraceRecord(
+    val id: Long,
+    val name: String,
+    val startedAtMillis: Long,
+    val totalMillis: Long,
+    val success: Boolean,
+    val responseChars: Int,
+    val spans: List<StageSpan>
+)
+
+/**
+ * Stage names shared by the setup pipeline
+ */
+object PipelineStage {
+    const val CACHE_LOOKUP = "cache_lookup"
+    const val PROMPT_BUILD = "prompt_build"
+    const val QUEUE_WAIT = "queue_wait"
+    const val FIRST_TOKEN = "first_token"
+    const val MODEL_CALL = "model_call"
+    const val JSON_EXTRACT = "json_extract"
+    const val JSON_PARSE = "json_parse"
+    const val POSITIONAL_DECODE = "positional_decode"
+    const val VALIDATE_REPAIR = "validate_repair"
+    const val CACHE_STORE = "cache_store"
+}
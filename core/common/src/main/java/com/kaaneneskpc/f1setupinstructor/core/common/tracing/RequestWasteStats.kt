@@ -0,0 +1,57 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import javax.inject.Inject
+import javax.inject.Singleton
+
+data class RequestWasteSnapshot(
+    /** Requests cancelled because the user asked for a different setup */
+    val superseded: Long = 0,
+    /** Repeated clicks for a setup that was already in flight */
+    val duplicatesIgnored: Long = 0,
+    /** Requests cancelled because the screen that owned them went away */
+    val ownerCancelled: Long = 0,
+    /** AI calls cancelled mid-flight once nobody was waiting for them */
+    val abandonedCalls: Long = 0,
+    /** Cache and history writes dropped because their owner was cancelled */
+    val abandonedWrites: Long = 0,
+    /** Background refreshes skipped because one was already running for the same setup */
+    val refreshesSkipped: Long = 0
+)
+
+/**
+ * Counts work that was cancelled or skipped instead of finishing for nobody
+ */
+@Singleton
+class RequestWasteStats @Inject constructor() {
+
+    private val _snapshot = MutableStateFlow(RequestWasteSnapshot())
+    val snapshot: StateFlow<RequestWasteSnapshot> = _snapshot.asStateFlow()
+
+    fun recordSuperseded() {
+        _snapshot.update { it.copy(superseded = it.superseded + 1) }
+    }
+
+    fun recordDuplicateIgnored() {
+        _snapshot.update { it.copy(duplicatesIgnored = it.duplicatesIgnored + 1) }
+    }
+
+    fun recordOwnerCancelled() {
+        _snapshot.update { it.copy(ownerCancelled = it.ownerCancelled + 1) }
+    }
+
+    fun recordAbandonedCall() {
+        _snapshot.update { it.copy(abandonedCalls = it.abandonedCalls + 1) }
+    }
+
+    fun recordAbandonedWrite() {
+        _snapshot.update { it.copy(abandonedWrites = it.abandonedWrites + 1) }
+    }
+
+    fun recordRefreshSkipped() {
+        _snapshot.update { it.copy(refreshesSkipped = it.refreshesSkipped + 1) }
+    }
+}
@@ -0,0 +1,57 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import javax.inject.Inject
+import javax.inject.Singleton
+
+data class SpeculationSnapshot(
+    /** Speculative requests that reached the AI stack; fresh cache entries never get this far */
+    val started: Long = 0,
+    /** Cancelled because the form changed before the request finished */
+    val cancelled: Long = 0,
+    /** The user asked for the setup while the speculative request was still running */
+    val promoted: Long = 0,
+    /** The user asked for the setup after the speculative request had cached it */
+    val consumed: Long = 0,
+    /** Wait the user did not have to sit through: the head start of promoted and the whole fetch of consumed ones */
+    val savedMillis: Long = 0
+) {
+    val used: Long
+        get() = promoted + consumed
+
+    /** Share of speculative requests nobody asked for; cancelled ones still waiting for a permit cost no quota */
+    val wastedRatio: Double
+        get() = if (started == 0L) 0.0 else (started - used).coerceAtLeast(0).toDouble() / started
+
+    val averageSavedMillis: Long
+        get() = if (used == 0L) 0 else savedMillis / used
+}
+
+/**
+ * Outcome of the speculative setup requests started while the Home form is being filled in
+ */
+@Singleton
+class SpeculationStats @Inject constructor() {
+
+    private val _snapshot = MutableStateFlow(SpeculationSnapshot())
+    val snapshot: StateFlow<SpeculationSnapshot> = _snapshot.asStateFlow()
+
+    fun recordStarted() {
+        _snapshot.update { it.copy(started = it.started + 1) }
+    }
+
+    fun recordCancelled() {
+        _snapshot.update { it.copy(cancelled = it.cancelled + 1) }
+    }
+
+    fun recordPromoted(headStartMillis: Long) {
+        _snapshot.update { it.copy(promoted = it.promoted + 1, savedMillis = it.savedMillis + headStartMillis) }
+    }
+
+    fun recordConsumed(fetchMillis: Long) {
+        _snapshot.update { it.copy(consumed = it.consumed + 1, savedMillis = it.savedMillis + fetchMillis) }
+    }
+}
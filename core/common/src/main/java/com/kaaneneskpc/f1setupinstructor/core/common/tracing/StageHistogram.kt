@@ -0,0 +1,56 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+/**
+ * Fixed-bucket latency histogram for one pipeline stage
+ * Buckets are roughly logarithmic so both 2ms parses and 40s model calls stay readable.
+ */
+data class StageHistogram(
+    val counts: List<Long> = List(BUCKET_BOUNDS_MILLIS.size + 1) { 0L },
+    val count: Long = 0,
+    val totalMillis: Long = 0,
+    val maxMillis: Long = 0
+) {
+
+    companion object {
+        /** Upper bounds in ms, the last bucket collects everything above them */
+        val BUCKET_BOUNDS_MILLIS = longArrayOf(
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 20_000, 60_000
+        )
+    }
+
+    val averageMillis: Long
+        get() = if (count == 0L) 0 else totalMillis / count
+
+    val p50Millis: Long
+        get() = percentile(0.50)
+
+    val p95Millis: Long
+        get() = percentile(0.95)
+
+    fun plus(durationMillis: Long): StageHistogram {
+        var bucket = BUCKET_BOUNDS_MILLIS.indexOfFirst { durationMillis <= it }
+        if (bucket < 0) bucket = BUCKET_BOUNDS_MILLIS.size
+        return copy(
+            counts = counts.toMutableList().also { it[bucket] = it[bucket] + 1 },
+            count = count + 1,
+            totalMillis = totalMillis + durationMillis,
+            maxMillis = maxOf(maxMillis, durationMillis)
+        )
+    }
+
+    /**
+     * Upper bound of the bucket holding the requested quantile, capped at the observed maximum
+     */
+    fun percentile(quantile: Double): Long {
+        if (count == 0L) return 0
+        val target = quantile * count
+        var seen = 0L
+        counts.forEachIndexed { bucket, bucketCount ->
+            seen += bucketCount
+            if (seen >= target && bucketCount > 0) {
+                return minOf(BUCKET_BOUNDS_MILLIS.getOrElse(bucket) { maxMillis }, maxMillis)
+            }
+        }
+        return maxMillis
+    }
+}
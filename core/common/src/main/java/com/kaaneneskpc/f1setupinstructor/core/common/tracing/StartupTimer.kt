@@ -0,0 +1,76 @@
+package com.kaaneneskpc.f1setupinstructor.core.common.tracing
+
+import android.app.Activity
+import android.os.Handler
+import android.os.Looper
+import android.os.Process
+import android.os.SystemClock
+import android.util.Log
+import android.view.ViewTreeObserver
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+data class StartupSnapshot(
+    /** Process start to the end of Application.onCreate */
+    val applicationCreatedMillis: Long = 0,
+    /** Process start to the first frame drawn by the launch activity */
+    val firstFrameMillis: Long = 0,
+    /** False when the process was started in the background (e.g. by WorkManager) before the activity */
+    val isColdStart: Boolean = false
+)
+
+/**
+ * Measures cold start from process creation to the first drawn frame
+ * Builds are compared with the "Cold start" log line; `adb shell am start -W` gives the system's view
+ */
+object StartupTimer {
+
+    private const val TAG = "StartupTimer"
+
+    /** An activity created later than this after process start was not what started the process */
+    private const val COLD_START_WINDOW_MILLIS = 10_000L
+
+    private val _snapshot = MutableStateFlow(StartupSnapshot())
+    val snapshot: StateFlow<StartupSnapshot> = _snapshot.asStateFlow()
+
+    @Volatile
+    private var firstFrameTracked = false
+
+    fun markApplicationCreated() {
+        val elapsed = sinceProcessStart()
+        _snapshot.update { it.copy(applicationCreatedMillis = elapsed) }
+        Log.d(TAG, "Application created ${elapsed}ms after process start")
+    }
+
+    /**
+     * Records the first frame drawn by [activity]; only the first activity of the process is measured
+     */
+    fun trackFirstFrame(activity: Activity) {
+        if (firstFrameTracked) return
+        firstFrameTracked = true
+        val isColdStart = sinceProcessStart() < COLD_START_WINDOW_MILLIS
+
+        val decorView = activity.window.decorView
+        decorView.viewTreeObserver.addOnDrawListener(object : ViewTreeObserver.OnDrawListener {
+            private var drawn = false
+
+            override fun onDraw() {
+                if (drawn) return
+                drawn = true
+                // Listeners cannot be removed while onDraw is being dispatched
+                decorView.post { decorView.viewTreeObserver.removeOnDrawListener(this) }
+                // The frame is on screen once the current draw pass has been handed to the render thread
+                Handler(Looper.getMainLooper()).postAtFrontOfQueue {
+                    val elapsed = sinceProcessStart()
+                    _snapshot.update { it.copy(firstFrameMillis = elapsed, isColdStart = isColdStart) }
+                    val kind = if (isColdStart) "Cold start" else "Start in background process"
+                    Log.d(TAG, "$kind: first frame ${elapsed}ms after process start")
+                }
+            }
+        })
+    }
+
+    private fun sinceProcessStart(): Long = SystemClock.uptimeMillis() - Process.getStartUptimeMillis()
+}
@@ -0,0 +1,14 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.cache
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Freshness rules for cached AI setup responses
+ *
+ * @param freshForMillis entries younger than this are served without a refresh
+ * @param maxAgeMillis entries older than this are discarded and treated as a miss
+ */
+data class SetupCacheConfig(
+    val freshForMillis: Long = TimeUnit.HOURS.toMillis(6),
+    val maxAgeMillis: Long = TimeUnit.DAYS.toMillis(14)
+)
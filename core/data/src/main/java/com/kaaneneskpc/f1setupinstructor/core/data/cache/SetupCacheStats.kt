@@ -0,0 +1,74 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.cache
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Hit/miss/stale counters for the AI setup cache
+ * Fetch latency is measured on misses so every hit can be credited with the time it saved
+ */
+@Singleton
+class SetupCacheStats @Inject constructor() {
+
+    private val _snapshot = MutableStateFlow(SetupCacheSnapshot())
+    val snapshot: StateFlow<SetupCacheSnapshot> = _snapshot.asStateFlow()
+
+    fun recordHit() {
+        _snapshot.update {
+            it.copy(hits = it.hits + 1, estimatedSavedMillis = it.estimatedSavedMillis + it.averageFetchMillis)
+        }
+    }
+
+    fun recordStaleHit() {
+        _snapshot.update {
+            it.copy(staleHits = it.staleHits + 1, estimatedSavedMillis = it.estimatedSavedMillis + it.averageFetchMillis)
+        }
+    }
+
+    fun recordMiss() {
+        _snapshot.update { it.copy(misses = it.misses + 1) }
+    }
+
+    fun recordFetch(durationMillis: Long) {
+        _snapshot.update {
+            it.copy(fetches = it.fetches + 1, totalFetchMillis = it.totalFetchMillis + durationMillis)
+        }
+    }
+
+    fun recordRefresh(success: Boolean) {
+        _snapshot.update {
+            if (success) it.copy(refreshes = it.refreshes + 1)
+            else it.copy(refreshFailures = it.refreshFailures + 1)
+        }
+    }
+}
+
+data class SetupCacheSnapshot(
+    val hits: Long = 0,
+    val staleHits: Long = 0,
+    val misses: Long = 0,
+    val refreshes: Long = 0,
+    val refreshFailures: Long = 0,
+    val fetches: Long = 0,
+    val totalFetchMillis: Long = 0,
+    val estimatedSavedMillis: Long = 0
+) {
+    val averageFetchMillis: Long
+        get() = if (fetches == 0L) 0 else totalFetchMillis / fetches
+
+    /**
+     * Fresh hits never reach the model, so each one is a saved API call
+     */
+    val savedApiCalls: Long
+        get() = hits
+
+    val hitRatio: Double
+        get() {
+            val lookups = hits + staleHits + misses
+            return if (lookups == 0L) 0.0 else (hits + staleHits).toDouble() / lookups
+        }
+}
@@ -0,0 +1,98 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.cache
+
+import android.util.Log
+import com.kaaneneskpc.f1setupinstructor.core.database.dao.SetupCacheDao
+import com.kaaneneskpc.f1setupinstructor.core.database.entity.SetupCacheEntity
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import java.time.Instant
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Disk-backed cache for AI setup responses
+ * Entries inside the freshness window are fresh, older ones are stale until they pass the max age
+ */
+@Singleton
+class SetupResponseCache @Inject constructor(
+    private val setupCacheDao: SetupCacheDao,
+    private val config: SetupCacheConfig,
+    private val stats: SetupCacheStats
+) {
+
+    companion object {
+        private const val TAG = "SetupResponseCache"
+    }
+
+    suspend fun lookup(request: SetupRequest): CachedSetup? {
+        val entry = setupCacheDao.getByKey(request.cacheKey)
+        if (entry == null) {
+            stats.recordMiss()
+            return null
+        }
+
+        val ageMillis = System.currentTimeMillis() - entry.fetchedAt.toEpochMilli()
+        return when {
+            ageMillis > config.maxAgeMillis -> {
+                Log.d(TAG, "Expired entry for ${request.cacheKey} (age=${ageMillis}ms)")
+                setupCacheDao.deleteByKey(request.cacheKey)
+                stats.recordMiss()
+                null
+            }
+            ageMillis > config.freshForMillis -> {
+                Log.d(TAG, "Stale hit for ${request.cacheKey} (age=${ageMillis}ms)")
+                stats.recordStaleHit()
+                CachedSetup(entry.setup, isStale = true)
+            }
+            else -> {
+                Log.d(TAG, "Hit for ${request.cacheKey} (age=${ageMillis}ms)")
+                stats.recordHit()
+                CachedSetup(entry.setup, isStale = false)
+            }
+        }
+    }
+
+    /**
+     * Whether a fresh entry exists, without touching the hit/miss counters
+     */
+    suspend fun isFresh(request: SetupRequest): Boolean {
+        val entry = setupCacheDao.getByKey(request.cacheKey) ?: return false
+        return System.currentTimeMillis() - entry.fetchedAt.toEpochMilli() <= config.freshForMillis
+    }
+
+    /**
+     * Most recent cached setup for the same track regardless of freshness, session or weather
+     * Only used when the AI is unavailable and any answer is better than none
+     */
+    suspend fun fallbackFor(request: SetupRequest): SetupData? {
+        val entry = setupCacheDao.getLatestByTrack(request.track) ?: return null
+        Log.d(TAG, "Serving fallback ${entry.cacheKey} for ${request.cacheKey}")
+        return entry.setup
+    }
+
+    /**
+     * Stores the setup and prunes entries past the max age, so the table does not grow with every
+     * track, session and weather ever requested
+     */
+    suspend fun store(request: SetupRequest, setupData: SetupData) {
+        val now = Instant.now()
+        setupCacheDao.upsert(
+            SetupCacheEntity(
+                cacheKey = request.cacheKey,
+                track = request.track,
+                sessionType = request.sessionType,
+                qualyWeather = request.qualyWeather,
+                raceWeather = request.raceWeather,
+                gameVersion = request.gameVersion,
+                fetchedAt = now,
+                setup = setupData
+            )
+        )
+        setupCacheDao.deleteOlderThan(now.toEpochMilli() - config.maxAgeMillis)
+    }
+}
+
+data class CachedSetup(
+    val setupData: SetupData,
+    val isStale: Boolean
+)
@@ -0,0 +1,20 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.di
+
+import com.kaaneneskpc.f1setupinstructor.core.data.cache.SetupCacheConfig
+import dagger.Module
+import dagger.Provides
+import dagger.hilt.InstallIn
+import dagger.hilt.components.SingletonComponent
+import javax.inject.Singleton
+
+@Module
+@InstallIn(SingletonComponent::class)
+object CacheModule {
+
+    /**
+     * Provides freshness rules for the AI setup cache
+     */
+    @Provides
+    @Singleton
+    fun provideSetupCacheConfig(): SetupCacheConfig = SetupCacheConfig()
+}
@@ -0,0 +1,20 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.prefetch
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+
+/**
+ * Session/weather combinations that are warmed for every favorite track
+ * Matches the Home screen defaults plus a full wet race weekend
+ */
+object SetupPrefetchPlan {
+
+    private val combinations = listOf(
+        Triple("Qualifying", "Dry", "Dry"),
+        Triple("Race", "Dry", "Dry"),
+        Triple("Race", "Wet", "Wet")
+    )
+
+    fun combinationsFor(track: String): List<SetupRequest> = combinations.map { (sessionType, qualyWeather, raceWeather) ->
+        SetupRequest(track, sessionType, qualyWeather, raceWeather)
+    }
+}
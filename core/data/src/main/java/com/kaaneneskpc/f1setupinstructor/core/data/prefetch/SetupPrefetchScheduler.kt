@@ -0,0 +1,38 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.prefetch
+
+import android.content.Context
+import androidx.work.Constraints
+import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.PeriodicWorkRequestBuilder
+import androidx.work.WorkManager
+import java.util.concurrent.TimeUnit
+
+/**
+ * Schedules the favorite-track prefetch while the device is idle, online and not low on battery
+ * Idle jobs cannot use backoff, so failed entries are simply retried on the next period;
+ * the interval matches the cache freshness window.
+ */
+object SetupPrefetchScheduler {
+
+    private const val WORK_NAME = "favorite_setup_prefetch"
+    private const val REPEAT_INTERVAL_HOURS = 6L
+
+    fun schedule(context: Context) {
+        val constraints = Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .setRequiresBatteryNotLow(true)
+            .setRequiresDeviceIdle(true)
+            .build()
+
+        val request = PeriodicWorkRequestBuilder<SetupPrefetchWorker>(REPEAT_INTERVAL_HOURS, TimeUnit.HOURS)
+            .setConstraints(constraints)
+            .build()
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+            WORK_NAME,
+            ExistingPeriodicWorkPolicy.KEEP,
+            request
+        )
+    }
+}
@@ -0,0 +1,51 @@
+package com.kaaneneskpc.f1setupinstructor.core.data.prefetch
+
+import android.content.Context
+import android.util.Log
+import androidx.hilt.work.HiltWorker
+import androidx.work.CoroutineWorker
+import androidx.work.WorkerParameters
+import com.kaaneneskpc.f1setupinstructor.domain.repository.ProfileRepository
+import com.kaaneneskpc.f1setupinstructor.domain.repository.SetupRepository
+import dagger.assisted.Assisted
+import dagger.assisted.AssistedInject
+
+/**
+ * Warms the setup cache for the profile's favorite tracks
+ * Requests run one after another in the PREFETCH lane, so the shared rate limiter always serves
+ * user requests first and the batch never bursts past the quota.
+ */
+@HiltWorker
+class SetupPrefetchWorker @AssistedInject constructor(
+    @Assisted context: Context,
+    @Assisted params: WorkerParameters,
+    private val profileRepository: ProfileRepository,
+    private val setupRepository: SetupRepository
+) : CoroutineWorker(context, params) {
+
+    companion object {
+        private const val TAG = "SetupPrefetchWorker"
+    }
+
+    override suspend fun doWork(): Result {
+        val tracks = profileRepository.getUserProfile().favoriteTracks
+        if (tracks.isEmpty()) return Result.success()
+
+        var failures = 0
+        val requests = tracks.flatMap { track -> SetupPrefetchPlan.combinationsFor(track) }
+        for (request in requests) {
+            setupRepository.prefetchSetup(
+                track = request.track,
+                sessionType = request.sessionType,
+                qualyWeather = request.qualyWeather,
+                raceWeather = request.raceWeather
+            ).onFailure { e ->
+                failures++
+                Log.w(TAG, "Prefetch failed for ${request.cacheKey}: ${e.message}")
+            }
+        }
+
+        Log.d(TAG, "Prefetched ${requests.size - failures}/${requests.size} setups for $tracks")
+        return Result.success()
+    }
+}
@@ -1,71 +1,362 @@
 package com.kaaneneskpc.f1setupinstructor.core.data.repository
 
+import android.util.Log
 import androidx.paging.Pager
 import androidx.paging.PagingConfig
 import androidx.paging.PagingData
 import androidx.paging.map
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineStage
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestTrace
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteStats
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.SpeculationStats
+import com.kaaneneskpc.f1setupinstructor.core.data.cache.SetupCacheStats
+import com.kaaneneskpc.f1setupinstructor.core.data.cache.SetupResponseCache
 import com.kaaneneskpc.f1setupinstructor.core.data.mapper.toDomainModel
 import com.kaaneneskpc.f1setupinstructor.core.data.mapper.toDomainSetup
 import com.kaaneneskpc.f1setupinstructor.core.data.mapper.toEntity
 import com.kaaneneskpc.f1setupinstructor.core.database.dao.SetupDao
+import com.kaaneneskpc.f1setupinstructor.core.network.BatchIncompleteException
 import com.kaaneneskpc.f1setupinstructor.core.network.ResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.CircuitOpenException
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
 import com.kaaneneskpc.f1setupinstructor.domain.model.Setup
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStyle
 import com.kaaneneskpc.f1setupinstructor.domain.repository.SetupRepository
+import dagger.Lazy
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import java.util.concurrent.ConcurrentHashMap
 import javax.inject.Inject
 
 class SetupRepositoryImpl @Inject constructor(
     private val setupDao: SetupDao,
-    private val researchService: ResearchService,
+    private val lazyResearchService: Lazy<ResearchService>,
+    private val setupResponseCache: SetupResponseCache,
+    private val setupCacheStats: SetupCacheStats,
+    private val tracer: PipelineTracer,
+    private val wasteStats: RequestWasteStats,
+    private val speculationStats: SpeculationStats,
     private val externalScope: CoroutineScope
 ) : SetupRepository {
 
+    companion object {
+        private const val TAG = "SetupRepositoryImpl"
+    }
+
+    private class Speculation(val startedAt: Long) {
+        @Volatile
+        var joined = false
+    }
+
+    private val refreshJobs = ConcurrentHashMap<String, Job>()
+
+    /** Speculative requests still running, by setup key */
+    private val speculations = ConcurrentHashMap<String, Speculation>()
+
+    /** Fetch time of speculatively cached setups nobody has opened yet, by setup key */
+    private val speculated = ConcurrentHashMap<String, Long>()
+
+    /**
+     * The AI stack is built on the first request, so screens that only read the database never create it
+     */
+    private val researchService: ResearchService
+        get() = lazyResearchService.get()
+
     override fun getSetups(
         circuit: String,
         qualiWeather: String,
         raceWeather: String,
         style: SetupStyle?
-    ): Flow<PagingData<Setup>> {
-        externalScope.launch {
+    ): Flow<PagingData<Setup>> = channelFlow {
+        // The AI fetch belongs to the collector: it is cancelled together with the screen collecting the pages
+        launch {
             try {
-                val result = researchService.getSetupFromAi(circuit, "Race", qualiWeather, raceWeather)
+                val result = researchService.getSetupFromAi(circuit, "Race", qualiWeather, raceWeather, RequestPriority.PREFETCH)
                 result.onSuccess { setupData ->
                     val setup = setupData.toDomainSetup()
                     setupDao.insert(setup.toEntity())
                 }
+            } catch (e: CancellationException) {
+                wasteStats.recordAbandonedWrite()
+                throw e
             } catch (e: Exception) {
                 e.printStackTrace()
             }
         }
 
-        return Pager(
+        Pager(
             config = PagingConfig(pageSize = 20),
             pagingSourceFactory = { setupDao.getSetups(circuit, qualiWeather, raceWeather) }
         ).flow.map {
             it.map { setupEntity ->
                 setupEntity.toDomainModel()
             }
-        }
+        }.collect { send(it) }
     }
 
     override suspend fun getSetupDetail(sourceUrl: String): Setup {
         return setupDao.getSetupBySourceUrl(sourceUrl)!!.toDomainModel()
     }
 
+    /**
+     * Serves cached setups immediately (stale-while-revalidate)
+     * Stale entries are returned as-is and refreshed in the background
+     */
     override suspend fun getBestSetup(
         track: String,
         sessionType: String,
         qualyWeather: String,
         raceWeather: String
-    ): Result<com.kaaneneskpc.f1setupinstructor.domain.model.SetupData> {
-        return researchService.getSetupFromAi(track, sessionType, qualyWeather, raceWeather)
+    ): Result<SetupData> = traced("best_setup") { trace ->
+        val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+
+        val cached = tracer.span(trace, PipelineStage.CACHE_LOOKUP) { setupResponseCache.lookup(request) }
+        if (cached != null) {
+            if (cached.isStale) refreshInBackground(request)
+            return@traced Result.success(cached.setupData)
+        }
+
+        val result = fetchAndCache(request, RequestPriority.USER_SETUP, trace)
+        val error = result.exceptionOrNull()
+        if (error is CircuitOpenException) {
+            setupResponseCache.fallbackFor(request)?.let { return@traced Result.success(it) }
+        }
+        result
+    }
+
+    /**
+     * Cached tracks are served from disk; the rest are requested together in one batch
+     * Setups that succeeded in an incomplete batch are still cached.
+     */
+    override suspend fun getBestSetups(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Result<List<SetupData>> = traced("best_setups") { trace ->
+        val requests = tracks.map { SetupRequest(it, sessionType, qualyWeather, raceWeather) }
+        val setups = mutableMapOf<String, SetupData>()
+        requests.forEach { request ->
+            tracer.span(trace, PipelineStage.CACHE_LOOKUP) { setupResponseCache.lookup(request) }?.let { cached ->
+                if (cached.isStale) refreshInBackground(request)
+                setups[request.track] = cached.setupData
+            }
+        }
+
+        val missing = requests.filterNot { it.track in setups }
+        if (missing.isNotEmpty()) {
+            val startedAt = System.currentTimeMillis()
+            val result = researchService.getSetupsFromAiBatch(
+                missing.map { it.track },
+                sessionType,
+                qualyWeather,
+                raceWeather
+            )
+            val fetched = result.getOrNull()?.let { list -> missing.map { it.track }.zip(list).toMap() }
+                ?: (result.exceptionOrNull() as? BatchIncompleteException)?.completed
+                ?: emptyMap()
+            missing.forEach { request ->
+                val setupData = fetched[request.track] ?: return@forEach
+                storeFetched(request, setupData, startedAt, trace)
+                setups[request.track] = setupData
+            }
+            result.exceptionOrNull()?.let { return@traced Result.failure(it) }
+        }
+
+        Result.success(tracks.map { setups.getValue(it) })
+    }
+
+    /**
+     * Cache hits complete immediately; misses stream field groups from the AI as they are parsed
+     * A speculative request already running for the same setup is joined and promoted instead of starting another.
+     */
+    override fun streamBestSetup(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = flow {
+        val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+        val trace = tracer.start("stream_setup")
+        var success = false
+
+        try {
+            val cached = tracer.span(trace, PipelineStage.CACHE_LOOKUP) { setupResponseCache.lookup(request) }
+            if (cached != null) {
+                if (cached.isStale) refreshInBackground(request)
+                speculated.remove(request.cacheKey)?.let { speculationStats.recordConsumed(it) }
+                success = true
+                emit(SetupStreamEvent.Completed(cached.setupData))
+                return@flow
+            }
+
+            val speculation = speculations[request.cacheKey]
+            if (speculation != null) {
+                speculation.joined = true
+                val headStart = System.currentTimeMillis() - speculation.startedAt
+                speculationStats.recordPromoted(headStart)
+                Log.d(TAG, "Joining speculative request for ${request.cacheKey}, ${headStart}ms head start")
+                val joined = withContext(trace) { fetchAndCache(request, RequestPriority.USER_SETUP, trace) }
+                val setupData = joined.getOrNull()
+                if (setupData != null) {
+                    success = true
+                    emit(SetupStreamEvent.Completed(setupData))
+                    return@flow
+                }
+                // The speculative call failed; a fresh streamed request gets its own retries below
+            }
+
+            val startedAt = System.currentTimeMillis()
+            try {
+                researchService.streamSetupFromAi(track, sessionType, qualyWeather, raceWeather)
+                    .flowOn(trace)
+                    .collect { event ->
+                        when (event) {
+                            is SetupStreamEvent.Completed -> {
+                                storeFetched(request, event.setupData, startedAt, trace)
+                                success = true
+                            }
+                            // The refinement overwrites the cached draft
+                            is SetupStreamEvent.Refined -> storeFetched(request, event.setupData, startedAt, trace)
+                            else -> Unit
+                        }
+                        emit(event)
+                    }
+            } catch (e: CircuitOpenException) {
+                val fallback = setupResponseCache.fallbackFor(request) ?: throw e
+                success = true
+                emit(SetupStreamEvent.Completed(fallback))
+            }
+        } finally {
+            tracer.finish(trace, success)
+        }
+    }
+
+    override suspend fun prefetchSetup(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Result<Unit> {
+        val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+        if (setupResponseCache.isFresh(request)) {
+            Log.d(TAG, "Prefetch skipped, ${request.cacheKey} is fresh")
+            return Result.success(Unit)
+        }
+        return traced("prefetch") { trace -> fetchAndCache(request, RequestPriority.PREFETCH, trace) }.map { }
+    }
+
+    override suspend fun speculateSetup(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Result<Unit> {
+        val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+        val key = request.cacheKey
+        if (setupResponseCache.isFresh(request)) return Result.success(Unit)
+
+        // Only the setup currently on the form matters; older speculative results stay cached but are no longer tracked
+        speculated.clear()
+        val speculation = Speculation(System.currentTimeMillis())
+        speculations[key] = speculation
+        speculationStats.recordStarted()
+        try {
+            val result = traced("speculative") { trace -> fetchAndCache(request, RequestPriority.PREFETCH, trace) }
+            if (result.isSuccess && !speculation.joined) {
+                speculated[key] = System.currentTimeMillis() - speculation.startedAt
+            }
+            return result.map { }
+        } catch (e: CancellationException) {
+            if (!speculation.joined) speculationStats.recordCancelled()
+            throw e
+        } finally {
+            speculations.remove(key, speculation)
+        }
     }
 
     override suspend fun saveFavorite(setup: Setup) {
         setupDao.insert(setup.toEntity())
     }
+
+    private suspend fun fetchAndCache(
+        request: SetupRequest,
+        priority: RequestPriority,
+        trace: RequestTrace
+    ): Result<SetupData> {
+        val startedAt = System.currentTimeMillis()
+        val result = researchService.getSetupFromAi(
+            request.track,
+            request.sessionType,
+            request.qualyWeather,
+            request.raceWeather,
+            priority
+        )
+        result.onSuccess { setupData ->
+            storeFetched(request, setupData, startedAt, trace)
+        }
+        return result
+    }
+
+    /**
+     * Stale refreshes outlive the screen on purpose, since they only update the shared cache;
+     * they are owned by the repository and deduplicated per setup key
+     */
+    private fun refreshInBackground(request: SetupRequest) {
+        val key = request.cacheKey
+        if (refreshJobs[key]?.isActive == true) {
+            wasteStats.recordRefreshSkipped()
+            return
+        }
+        val job = externalScope.launch(start = CoroutineStart.LAZY) {
+            val refreshed = traced("refresh") { trace -> fetchAndCache(request, RequestPriority.PREFETCH, trace) }
+            setupCacheStats.recordRefresh(refreshed.isSuccess)
+        }
+        if (refreshJobs.putIfAbsent(key, job)?.isActive == true) {
+            job.cancel()
+            wasteStats.recordRefreshSkipped()
+            return
+        }
+        refreshJobs[key] = job
+        job.invokeOnCompletion { refreshJobs.remove(key, job) }
+        job.start()
+    }
+
+    private suspend fun storeFetched(request: SetupRequest, setupData: SetupData, startedAt: Long, trace: RequestTrace) {
+        setupCacheStats.recordFetch(System.currentTimeMillis() - startedAt)
+        try {
+            tracer.span(trace, PipelineStage.CACHE_STORE) { setupResponseCache.store(request, setupData) }
+        } catch (e: CancellationException) {
+            wasteStats.recordAbandonedWrite()
+            throw e
+        } catch (e: Exception) {
+            Log.e(TAG, "Failed to cache setup for ${request.cacheKey}", e)
+        }
+    }
+
+    /**
+     * Runs [block] with a fresh trace in its coroutine context so the research layers can add their spans
+     */
+    private suspend fun <T> traced(name: String, block: suspend (RequestTrace) -> Result<T>): Result<T> {
+        val trace = tracer.start(name)
+        var success = false
+        try {
+            return withContext(trace) { block(trace) }.also { success = it.isSuccess }
+        } finally {
+            tracer.finish(trace, success)
+        }
+    }
 }
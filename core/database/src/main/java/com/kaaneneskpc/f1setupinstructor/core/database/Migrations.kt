@@ -0,0 +1,62 @@
+package com.kaaneneskpc.f1setupinstructor.core.database
+
+import androidx.room.migration.Migration
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Schema migrations for [AppDatabase]
+ * Version 2 only adds the setup_cache table, so saved setups are kept.
+ */
+val MIGRATION_1_2 = object : Migration(1, 2) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            """
+            CREATE TABLE IF NOT EXISTS `setup_cache` (
+                `cacheKey` TEXT NOT NULL,
+                `track` TEXT NOT NULL,
+                `sessionType` TEXT NOT NULL,
+                `qualyWeather` TEXT NOT NULL,
+                `raceWeather` TEXT NOT NULL,
+                `gameVersion` TEXT NOT NULL,
+                `fetchedAt` INTEGER NOT NULL,
+                `setup_trackName` TEXT NOT NULL,
+                `setup_carModel` TEXT NOT NULL,
+                `setup_gameVersion` TEXT NOT NULL,
+                `setup_weatherCondition` TEXT NOT NULL,
+                `setup_setupType` TEXT NOT NULL,
+                `setup_imageUrl` TEXT NOT NULL,
+                `setup_isFavorite` INTEGER NOT NULL,
+                `setup_frontWingAero` INTEGER NOT NULL,
+                `setup_rearWingAero` INTEGER NOT NULL,
+                `setup_onThrottle` INTEGER NOT NULL,
+                `setup_offThrottle` INTEGER NOT NULL,
+                `setup_engineBraking` INTEGER NOT NULL,
+                `setup_frontCamber` REAL NOT NULL,
+                `setup_rearCamber` REAL NOT NULL,
+                `setup_frontToe` REAL NOT NULL,
+                `setup_rearToe` REAL NOT NULL,
+                `setup_frontSuspension` INTEGER NOT NULL,
+                `setup_rearSuspension` INTEGER NOT NULL,
+                `setup_frontAntiRollBar` INTEGER NOT NULL,
+                `setup_rearAntiRollBar` INTEGER NOT NULL,
+                `setup_frontRideHeight` INTEGER NOT NULL,
+                `setup_rearRideHeight` INTEGER NOT NULL,
+                `setup_brakePressure` INTEGER NOT NULL,
+                `setup_frontBrakeBias` INTEGER NOT NULL,
+                `setup_frontLeftTyrePsi` REAL NOT NULL,
+                `setup_frontRightTyrePsi` REAL NOT NULL,
+                `setup_rearLeftTyrePsi` REAL NOT NULL,
+                `setup_rearRightTyrePsi` REAL NOT NULL,
+                `setup_tyreStrategy` TEXT NOT NULL,
+                `setup_keyPointers` TEXT NOT NULL,
+                `setup_creatorNotes` TEXT NOT NULL,
+                `setup_trackLength` TEXT NOT NULL,
+                `setup_trackCorners` TEXT NOT NULL,
+                `setup_trackDrsZones` TEXT NOT NULL,
+                `setup_trackIdealLaps` TEXT NOT NULL,
+                PRIMARY KEY(`cacheKey`)
+            )
+            """.trimIndent()
+        )
+    }
+}
@@ -0,0 +1,26 @@
+package com.kaaneneskpc.f1setupinstructor.core.database.dao
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import com.kaaneneskpc.f1setupinstructor.core.database.entity.SetupCacheEntity
+
+@Dao
+interface SetupCacheDao {
+
+    @Query("SELECT * FROM setup_cache WHERE cacheKey = :cacheKey")
+    suspend fun getByKey(cacheKey: String): SetupCacheEntity?
+
+    @Query("SELECT * FROM setup_cache WHERE track = :track COLLATE NOCASE ORDER BY fetchedAt DESC LIMIT 1")
+    suspend fun getLatestByTrack(track: String): SetupCacheEntity?
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun upsert(entry: SetupCacheEntity)
+
+    @Query("DELETE FROM setup_cache WHERE cacheKey = :cacheKey")
+    suspend fun deleteByKey(cacheKey: String)
+
+    @Query("DELETE FROM setup_cache WHERE fetchedAt < :thresholdMillis")
+    suspend fun deleteOlderThan(thresholdMillis: Long)
+}
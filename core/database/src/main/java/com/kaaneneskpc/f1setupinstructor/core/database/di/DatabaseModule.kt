@@ -4,7 +4,9 @@ import android.content.Context
 import androidx.room.Room
 import com.kaaneneskpc.f1setupinstructor.core.database.AppDatabase
 import com.kaaneneskpc.f1setupinstructor.core.database.F1SetupDatabase
+import com.kaaneneskpc.f1setupinstructor.core.database.MIGRATION_1_2
 import com.kaaneneskpc.f1setupinstructor.core.database.dao.HistoryDao
+import com.kaaneneskpc.f1setupinstructor.core.database.dao.SetupCacheDao
 import com.kaaneneskpc.f1setupinstructor.core.database.dao.SetupDao
 import dagger.Module
 import dagger.Provides
@@ -25,6 +27,7 @@ object DatabaseModule {
             AppDatabase::class.java,
             "app_database"
         )
+        .addMigrations(MIGRATION_1_2)
         .fallbackToDestructiveMigration(true)
         .build()
     }
@@ -47,6 +50,12 @@ object DatabaseModule {
         return database.setupDao()
     }
 
+    @Provides
+    @Singleton
+    fun provideSetupCacheDao(database: AppDatabase): SetupCacheDao {
+        return database.setupCacheDao()
+    }
+
     @Provides
     @Singleton
     fun provideHistoryDao(database: F1SetupDatabase): HistoryDao {
@@ -0,0 +1,25 @@
+package com.kaaneneskpc.f1setupinstructor.core.database.entity
+
+import androidx.room.Embedded
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import java.time.Instant
+
+/**
+ * Cached AI setup response
+ * One row per (track, sessionType, qualyWeather, raceWeather, gameVersion) combination
+ */
+@Entity(tableName = "setup_cache")
+data class SetupCacheEntity(
+    @PrimaryKey
+    val cacheKey: String,
+    val track: String,
+    val sessionType: String,
+    val qualyWeather: String,
+    val raceWeather: String,
+    val gameVersion: String,
+    val fetchedAt: Instant,
+    @Embedded(prefix = "setup_")
+    val setup: SetupData
+)
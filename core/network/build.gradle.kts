@@ -19,11 +19,28 @@ android {
         }
         val geminiApiKey = properties.getProperty("GEMINI_API_KEY") ?: ""
         buildConfigField("String", "GEMINI_API_KEY", "\"$geminiApiKey\"")
+        // Optional: a Gemini compatible host for setup requests, e.g. a proxy in front of the Gemini API
+        val geminiBaseUrl = properties.getProperty("GEMINI_BASE_URL") ?: ""
+        buildConfigField("String", "GEMINI_BASE_URL", "\"$geminiBaseUrl\"")
+        // Optional: race a second request against setup calls stuck in the latency tail
+        val aiHedging = properties.getProperty("AI_HEDGING")?.toBoolean() ?: false
+        buildConfigField("boolean", "AI_HEDGING", aiHedging.toString())
+        // Optional: show a draft from a fast model first and replace it with a stronger model's setup
+        val aiTiered = properties.getProperty("AI_TIERED")?.toBoolean() ?: false
+        buildConfigField("boolean", "AI_TIERED", aiTiered.toString())
+        // Optional: have single setups answered in the compact positional format instead of JSON
+        val aiPositionalOutput = properties.getProperty("AI_POSITIONAL_OUTPUT")?.toBoolean() ?: false
+        buildConfigField("boolean", "AI_POSITIONAL_OUTPUT", aiPositionalOutput.toString())
     }
     
     buildFeatures {
         buildConfig = true
     }
+
+    testOptions {
+        // android.util.Log is called throughout the network layer; return defaults in JVM tests
+        unitTests.isReturnDefaultValues = true
+    }
     
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
@@ -36,13 +53,18 @@ android {
 
 dependencies {
     implementation(project(":domain"))
+    implementation(project(":core:common"))
     implementation(libs.retrofit)
     implementation(libs.okhttp)
     implementation(libs.logging.interceptor)
     implementation(libs.converter.moshi)
-    implementation(libs.moshi.kotlin)
+    implementation(libs.moshi)
+    ksp(libs.moshi.kotlin.codegen)
     implementation(libs.jsoup)
     implementation(libs.generativeai)
     implementation(libs.hilt.android)
     ksp(libs.hilt.android.compiler)
+
+    testImplementation(libs.junit)
+    testImplementation(libs.moshi.kotlin)
 }
@@ -0,0 +1,13 @@
+package com.kaaneneskpc.f1setupinstructor.core.network
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+
+/**
+ * Some tracks of a batch failed even after being retried individually
+ * [completed] maps each requested track that did succeed to its setup, so callers can still cache them
+ */
+class BatchIncompleteException(
+    val completed: Map<String, SetupData>,
+    val failedTracks: List<String>,
+    cause: Throwable?
+) : Exception("Batch incomplete, failed tracks: ${failedTracks.joinToString()}", cause)
@@ -0,0 +1,14 @@
+package com.kaaneneskpc.f1setupinstructor.core.network
+
+/**
+ * Encoded image ready to be uploaded with a chat message
+ */
+class ChatImage(
+    val bytes: ByteArray,
+    val mimeType: String,
+    val width: Int,
+    val height: Int
+) {
+    val sizeBytes: Int
+        get() = bytes.size
+}
@@ -1,9 +1,23 @@
 package com.kaaneneskpc.f1setupinstructor.core.network
 
-import android.graphics.Bitmap
+import kotlinx.coroutines.flow.Flow
 
 interface ChatService {
     suspend fun sendMessage(message: String): Result<String>
-    suspend fun sendMessageWithImage(message: String, imageBitmap: Bitmap): Result<String>
-}
+    suspend fun sendMessageWithImage(message: String, image: ChatImage): Result<String>
+
+    /**
+     * Streams the answer as text chunks while the model is still generating
+     */
+    fun sendMessageStream(message: String): Flow<String>
 
+    /**
+     * Streams the image analysis as text chunks while the model is still generating
+     */
+    fun sendMessageWithImageStream(message: String, image: ChatImage): Flow<String>
+
+    /**
+     * Starts a new conversation and drops the history of the previous one
+     */
+    fun resetSession()
+}
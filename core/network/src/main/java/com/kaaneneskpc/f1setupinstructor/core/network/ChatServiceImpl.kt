@@ -1,90 +1,203 @@
 package com.kaaneneskpc.f1setupinstructor.core.network
 
-import android.graphics.Bitmap
+import android.util.Log
 import com.google.ai.client.generativeai.GenerativeModel
+import com.google.ai.client.generativeai.type.Content
 import com.google.ai.client.generativeai.type.content
-import javax.inject.Inject
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatAnswerCache
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatAnswerCacheStats
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatContextStats
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatContextWindow
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatTurn
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatTurnUsage
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptStats
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplate
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplates
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.AiRequestScheduler
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import dagger.Lazy
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 
-class ChatServiceImpl @Inject constructor(
-    private val generativeModel: GenerativeModel
+/**
+ * Multi-turn chat on top of the SDK chat API
+ * [chatModel] carries the system instruction, so each turn only sends the bounded history and the new message.
+ * Turns are serialized; history over budget is summarized in the background with [summaryModel].
+ * Both models are resolved on first use, so opening the chat screen does not build them.
+ * Text questions asked without earlier context are answered from [answerCache] when a near-identical
+ * question was answered before; follow-up questions depend on the history and always reach the model.
+ */
+class ChatServiceImpl(
+    private val chatModel: Lazy<GenerativeModel>,
+    private val summaryModel: Lazy<GenerativeModel>,
+    private val promptStats: PromptStats,
+    private val scheduler: AiRequestScheduler,
+    private val contextStats: ChatContextStats,
+    private val answerCache: ChatAnswerCache,
+    private val cacheStats: ChatAnswerCacheStats,
+    private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
 ) : ChatService {
-    
+
+    companion object {
+        private const val TAG = "ChatServiceImpl"
+        private const val EMPTY_ANSWER = "Üzgünüm, bir cevap oluşturamadım."
+        private const val EMPTY_IMAGE_ANSWER = "Üzgünüm, görseli analiz edemedim."
+        private const val HISTORY_TOKEN_BUDGET = 1_500
+        private const val FALLBACK_SUMMARY_CHARS = 160
+    }
+
+    private val sessionMutex = Mutex()
+    private val contextWindow = ChatContextWindow(HISTORY_TOKEN_BUDGET)
+
     override suspend fun sendMessage(message: String): Result<String> {
         return try {
-            val prompt = createChatPrompt(message)
-            val response = generativeModel.generateContent(prompt)
-            val text = response.text ?: "Üzgünüm, bir cevap oluşturamadım."
-            Result.success(text)
+            Result.success(sendMessageStream(message).toList().joinToString(""))
         } catch (e: Exception) {
             Result.failure(e)
         }
     }
     
-    override suspend fun sendMessageWithImage(message: String, imageBitmap: Bitmap): Result<String> {
+    override suspend fun sendMessageWithImage(message: String, image: ChatImage): Result<String> {
         return try {
-            val prompt = createImagePrompt(message)
-            val inputContent = content {
-                image(imageBitmap)
-                text(prompt)
-            }
-            val response = generativeModel.generateContent(inputContent)
-            val text = response.text ?: "Üzgünüm, görseli analiz edemedim."
-            Result.success(text)
+            Result.success(sendMessageWithImageStream(message, image).toList().joinToString(""))
         } catch (e: Exception) {
             Result.failure(e)
         }
     }
     
-    private fun createChatPrompt(userMessage: String): String {
-        return """
-        Sen bir F1 25 oyunu setup uzmanısın. Kullanıcının F1 setup'ları, pist stratejileri ve araba ayarları hakkındaki sorularını yanıtlıyorsun.
-        
-        ÖNEMLI TALİMATLAR:
-        1. EA SPORTS F1 25 oyunu için öneriler ver (F1 24 veya F1 23 değil)
-        2. Cevaplarını kısa ve öz tut (maksimum 200 kelime)
-        3. Türkçe yanıt ver
-        4. Setup değerleri verirken F1 25 oyununun aralıklarını kullan:
-           - Aero: Ön/Arka 0-50 (düşük = az downforce)
-           - Camber: -3.5° ile -1.0° arası (negatif değerler)
-           - Toe: -0.50° ile 0.50° arası
-           - Süspansiyon: 1-11 (yumuşak-sert)
-           - Anti-Roll Bar: 1-11 (yumuşak-sert)
-           - Ride Height: 0-100mm
-           - Fren Basıncı: 80-100%
-           - Fren Dengesi: 50-70% (ön bias)
-           - Lastik Basıncı: 19.0-25.0 PSI
-        5. Pratik ve uygulanabilir öneriler ver
-        6. Gerekirse pist bazlı spesifik tavsiyeler sun
-        
-        KULLANICI SORUSU:
-        $userMessage
-        
-        YANITINI VER (kısa, öz, Türkçe):
-        """.trimIndent()
+    override fun sendMessageStream(message: String): Flow<String> {
+        return streamTurn(content { text(message) }, message, EMPTY_ANSWER, isCacheable = true)
     }
-    
-    private fun createImagePrompt(userMessage: String): String {
-        return """
-        Sen bir F1 25 oyunu setup uzmanısın. Kullanıcı bir görsel paylaştı ve sana bir soru sordu.
-        
-        GÖREV:
-        1. Görseli analiz et (setup ekranı, telemetri, oyun içi görüntü vs.)
-        2. Görseldeki bilgileri F1 25 oyunu bağlamında yorumla
-        3. Kullanıcının sorusunu görselle ilişkilendirerek yanıtla
-        
-        ÖNEMLI TALİMATLAR:
-        1. EA SPORTS F1 25 oyunu için öneriler ver
-        2. Görseldeki setup değerlerini, telemetri verilerini veya oyun içi durumu analiz et
-        3. Cevaplarını kısa ve öz tut (maksimum 250 kelime)
-        4. Türkçe yanıt ver
-        5. Görselde gördüklerini açıkla ve öneriler sun
-        6. Setup değerleri varsa, F1 25 standartlarına göre değerlendir
-        
-        KULLANICI MESAJI:
-        ${if (userMessage.isNotBlank()) userMessage else "Bu görseli analiz edebilir misin?"}
-        
-        YANITINI VER (görseli analiz et, kısa, öz, Türkçe):
-        """.trimIndent()
+
+    override fun sendMessageWithImageStream(message: String, image: ChatImage): Flow<String> {
+        val prompt = PromptTemplates.renderImageChat(message).also { promptStats.record(it) }
+        val inputContent = content {
+            blob(image.mimeType, image.bytes)
+            text(prompt.text)
+        }
+        return streamTurn(inputContent, "[Görsel] $message".trim(), EMPTY_IMAGE_ANSWER, isCacheable = false)
     }
-}
 
+    override fun resetSession() {
+        scope.launch {
+            sessionMutex.withLock {
+                contextWindow.clear()
+                contextStats.reset()
+            }
+        }
+    }
+
+    /**
+     * Emits text chunks as soon as they arrive and logs time-to-first-token
+     * The completed exchange is added to the history; [emptyAnswer] is emitted when the model returns no text
+     */
+    private fun streamTurn(
+        inputContent: Content,
+        historyText: String,
+        emptyAnswer: String,
+        isCacheable: Boolean
+    ): Flow<String> = flow {
+        sessionMutex.withLock {
+            val usesCache = isCacheable && contextWindow.turnCount == 0 && contextWindow.summary.isEmpty()
+            if (usesCache) {
+                val lookupStartedAt = System.currentTimeMillis()
+                val hit = answerCache.lookup(historyText)
+                if (hit != null) {
+                    emit(hit.answer)
+                    contextWindow.append(ChatTurn(historyText, hit.answer))
+                    val saved = hit.generationMillis - (System.currentTimeMillis() - lookupStartedAt)
+                    cacheStats.recordHit(saved)
+                    val snapshot = cacheStats.snapshot.value
+                    Log.d(
+                        TAG,
+                        "Answer cache hit (similarity ${"%.2f".format(hit.similarity)}), saved ~${saved}ms; " +
+                            "hit ratio ${(snapshot.hitRatio * 100).toInt()}% of ${snapshot.lookups}, ${snapshot.savedMillis}ms saved in total"
+                    )
+                    return@withLock
+                }
+                cacheStats.recordMiss()
+            }
+
+            scheduler.acquire(RequestPriority.CHAT)
+            val chat = chatModel.get().startChat(contextWindow.history())
+            val answer = StringBuilder()
+            var promptTokens: Int? = null
+            val startedAt = System.currentTimeMillis()
+
+            chat.sendMessageStream(inputContent).collect { response ->
+                response.usageMetadata?.promptTokenCount?.let { promptTokens = it }
+                val chunk = response.text
+                if (!chunk.isNullOrEmpty()) {
+                    if (answer.isEmpty()) {
+                        Log.d(TAG, "Time to first token: ${System.currentTimeMillis() - startedAt}ms")
+                    }
+                    answer.append(chunk)
+                    emit(chunk)
+                }
+            }
+            if (answer.isEmpty()) {
+                answer.append(emptyAnswer)
+                emit(emptyAnswer)
+            } else if (usesCache) {
+                answerCache.put(historyText, answer.toString(), System.currentTimeMillis() - startedAt)
+            }
+
+            val historyTokens = contextWindow.historyTokens
+            contextWindow.append(ChatTurn(historyText, answer.toString()))
+            val usage = ChatTurnUsage(
+                turn = contextWindow.turnCount,
+                promptTokens = promptTokens
+                    ?: (historyTokens + PromptTemplate.estimateTokens(historyText.length)),
+                historyTokens = historyTokens,
+                isMeasured = promptTokens != null
+            )
+            contextStats.recordTurn(usage)
+            Log.d(TAG, "Turn ${usage.turn}: ${usage.promptTokens} prompt tokens (history ~${usage.historyTokens}), completed in ${System.currentTimeMillis() - startedAt}ms")
+
+            if (contextWindow.turnsOverBudget().isNotEmpty()) summarizeInBackground()
+        }
+    }
+
+    /**
+     * Folds the oldest turns into the rolling summary
+     * Holds the session lock, so the next turn waits for the smaller history instead of sending the large one
+     */
+    private fun summarizeInBackground() {
+        scope.launch {
+            sessionMutex.withLock {
+                val folded = contextWindow.turnsOverBudget()
+                if (folded.isEmpty()) return@withLock
+
+                val transcript = folded.joinToString("\n") { "Kullanıcı: ${it.userText}\nAsistan: ${it.modelText}" }
+                val summary = try {
+                    val prompt = PromptTemplates.renderChatSummary(contextWindow.summary, transcript)
+                    promptStats.record(prompt)
+                    scheduler.acquire(RequestPriority.CHAT)
+                    summaryModel.get().generateContent(prompt.text).text?.trim()
+                } catch (e: Exception) {
+                    Log.e(TAG, "Summarizing chat history failed", e)
+                    null
+                }
+
+                contextStats.recordSummary(success = !summary.isNullOrEmpty())
+                val newSummary = if (summary.isNullOrEmpty()) {
+                    // Keep at least the user's questions so the context is not lost entirely
+                    (listOf(contextWindow.summary) + folded.map { "- ${it.userText.take(FALLBACK_SUMMARY_CHARS)}" })
+                        .filter { it.isNotBlank() }
+                        .joinToString("\n")
+                } else {
+                    summary
+                }
+                contextWindow.applySummary(newSummary, folded.size)
+                Log.d(TAG, "Folded ${folded.size} turns into summary, history now ~${contextWindow.historyTokens} tokens")
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.kaaneneskpc.f1setupinstructor.core.network
+
+import android.util.Log
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteStats
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.PriorityPromotion
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.coroutines.EmptyCoroutineContext
+
+/**
+ * Single-flight wrapper around a ResearchService
+ * Concurrent callers asking for the same setup share one in-flight Gemini call and all receive its result.
+ * The shared call runs in its own scope so one caller leaving does not cancel it for the others,
+ * but it is cancelled as soon as the last waiting caller is gone.
+ * It carries the starting caller's trace, so stage spans land on the request that triggered it.
+ * A caller joining with a higher priority promotes the shared call, e.g. a click joining a speculative prefetch.
+ * Streamed requests take part too: see [streamSetupFromAi].
+ */
+class CoalescingResearchService(
+    private val delegate: ResearchService,
+    private val wasteStats: RequestWasteStats? = null,
+    private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+) : ResearchService {
+
+    companion object {
+        private const val TAG = "CoalescingResearch"
+    }
+
+    private class SharedCall(
+        val deferred: Deferred<Result<SetupData>>,
+        val promotion: PriorityPromotion,
+        /** Owned by the stream's collector, so waiters leaving never cancel it */
+        val isStream: Boolean = false
+    ) {
+        var waiters = 0
+    }
+
+    /** A stream ended without a setup, e.g. its collector left; its waiters start their own call instead */
+    private class StreamAbandonedException(key: String) : Exception("Stream for $key ended without a setup")
+
+    private val inFlight = mutableMapOf<String, SharedCall>()
+    private val startedCalls = AtomicLong()
+    private val coalescedCalls = AtomicLong()
+
+    /**
+     * Number of Gemini calls actually started
+     */
+    val startedCount: Long
+        get() = startedCalls.get()
+
+    /**
+     * Number of callers that joined an existing in-flight call instead of starting a new one
+     */
+    val coalescedCount: Long
+        get() = coalescedCalls.get()
+
+    override suspend fun getSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<SetupData> {
+        val key = SetupRequest(track, sessionType, qualyWeather, raceWeather).cacheKey
+        val trace = PipelineTracer.current()
+
+        val call = synchronized(inFlight) {
+            val existing = inFlight[key]
+            if (existing != null) {
+                val joined = coalescedCalls.incrementAndGet()
+                Log.d(TAG, "Joining in-flight request for $key (coalesced=$joined, started=${startedCalls.get()})")
+                if (existing.promotion.promote(priority)) Log.d(TAG, "Promoted in-flight request for $key to $priority")
+                existing
+            } else {
+                startedCalls.incrementAndGet()
+                val promotion = PriorityPromotion(priority)
+                val deferred = scope.async((trace ?: EmptyCoroutineContext) + promotion, start = CoroutineStart.LAZY) {
+                    delegate.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+                }
+                SharedCall(deferred, promotion).also { created ->
+                    inFlight[key] = created
+                    deferred.invokeOnCompletion {
+                        synchronized(inFlight) { inFlight.remove(key, created) }
+                    }
+                }
+            }.also { it.waiters++ }
+        }
+
+        val result = try {
+            call.deferred.await()
+        } catch (e: CancellationException) {
+            val abandoned = synchronized(inFlight) {
+                call.waiters--
+                // Unregister under the lock so no new caller can join a call that is about to be cancelled
+                (!call.isStream && call.waiters == 0 && call.deferred.isActive).also { if (it) inFlight.remove(key, call) }
+            }
+            if (abandoned) {
+                Log.d(TAG, "Last caller for $key left, cancelling the shared call")
+                call.deferred.cancel()
+                wasteStats?.recordAbandonedCall()
+            }
+            throw e
+        }
+
+        if (result.exceptionOrNull() is StreamAbandonedException) {
+            Log.d(TAG, "Joined stream for $key ended without a setup, starting a new request")
+            return getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+        }
+        return result
+    }
+
+    override suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<List<SetupData>> = delegate.getSetupsFromAiBatch(tracks, sessionType, qualyWeather, raceWeather, priority)
+
+    /**
+     * A stream registers as the in-flight call for its setup, so non-streamed callers asking for the same
+     * setup (background fetches, stale refreshes, speculations) receive its final setup instead of starting
+     * another call. When a non-streamed call is already running, the stream joins it as a user request
+     * and completes with its setup, without field groups.
+     */
+    override fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = flow {
+        val key = SetupRequest(track, sessionType, qualyWeather, raceWeather).cacheKey
+        val shared = CompletableDeferred<Result<SetupData>>()
+        val call = synchronized(inFlight) {
+            if (inFlight.containsKey(key)) {
+                null
+            } else {
+                startedCalls.incrementAndGet()
+                SharedCall(shared, PriorityPromotion(RequestPriority.USER_SETUP), isStream = true)
+                    .also { inFlight[key] = it }
+            }
+        }
+
+        if (call == null) {
+            val setupData = getSetupFromAi(track, sessionType, qualyWeather, raceWeather, RequestPriority.USER_SETUP)
+                .getOrThrow()
+            emit(SetupStreamEvent.Completed(setupData))
+            return@flow
+        }
+
+        var draft: SetupData? = null
+        try {
+            delegate.streamSetupFromAi(track, sessionType, qualyWeather, raceWeather).collect { event ->
+                when {
+                    event is SetupStreamEvent.Completed && event.isDraft -> draft = event.setupData
+                    event is SetupStreamEvent.Completed -> shared.complete(Result.success(event.setupData))
+                    event is SetupStreamEvent.Refined -> shared.complete(Result.success(event.setupData))
+                }
+                emit(event)
+            }
+            draft?.let { shared.complete(Result.success(it)) }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            shared.complete(Result.failure(e))
+            throw e
+        } finally {
+            // Does nothing when a result was already handed over
+            shared.complete(Result.failure(StreamAbandonedException(key)))
+            synchronized(inFlight) { inFlight.remove(key, call) }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.kaaneneskpc.f1setupinstructor.core.network
 
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
 import com.kaaneneskpc.f1setupinstructor.domain.model.Aero
 import com.kaaneneskpc.f1setupinstructor.domain.model.Brakes
 import com.kaaneneskpc.f1setupinstructor.domain.model.Setup
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStyle
 import com.kaaneneskpc.f1setupinstructor.domain.model.SourceMeta
 import com.kaaneneskpc.f1setupinstructor.domain.model.Suspension
 import com.kaaneneskpc.f1setupinstructor.domain.model.SuspensionGeometry
 import com.kaaneneskpc.f1setupinstructor.domain.model.Transmission
 import com.kaaneneskpc.f1setupinstructor.domain.model.Tyres
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flowOf
 import java.time.Instant
 import javax.inject.Inject
 
@@ -118,7 +122,11 @@ class FakeResearchService @Inject constructor() : ResearchService {
         )
     }
 
-    override suspend fun getSetupFromAi(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Result<SetupData> = runCatching { fakeSetupDataFromAi }
+    override suspend fun getSetupFromAi(track: String, sessionType: String, qualyWeather: String, raceWeather: String, priority: RequestPriority): Result<SetupData> = runCatching { fakeSetupDataFromAi }
+
+    override suspend fun getSetupsFromAiBatch(tracks: List<String>, sessionType: String, qualyWeather: String, raceWeather: String, priority: RequestPriority): Result<List<SetupData>> = runCatching { tracks.map { fakeSetupDataFromAi.copy(trackName = it) } }
+
+    override fun streamSetupFromAi(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Flow<SetupStreamEvent> = flowOf(SetupStreamEvent.Completed(fakeSetupDataFromAi))
 
     fun getSetups(circuit: String, qualiWeather: String, raceWeather: String, style: SetupStyle?): List<Setup> {
         return fakeSetups.filter { it.circuit == circuit && it.weatherQuali == qualiWeather && it.weatherRace == raceWeather && (style == null || it.style == style) }
@@ -1,12 +1,44 @@
 package com.kaaneneskpc.f1setupinstructor.core.network
 
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import kotlinx.coroutines.flow.Flow
 
 interface ResearchService {
+    /**
+     * [priority] selects the scheduler lane; background work should pass [RequestPriority.PREFETCH]
+     */
     suspend fun getSetupFromAi(
         track: String,
         sessionType: String,
         qualyWeather: String,
-        raceWeather: String
+        raceWeather: String,
+        priority: RequestPriority = RequestPriority.USER_SETUP
     ): Result<SetupData>
+
+    /**
+     * Requests setups for several tracks of the same session in as few generations as possible
+     * Tracks whose part of the batch response is invalid are retried individually.
+     * Succeeds with one SetupData per track, in the order of [tracks].
+     */
+    suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority = RequestPriority.USER_SETUP
+    ): Result<List<SetupData>>
+
+    /**
+     * Streaming variant of [getSetupFromAi] that reports field groups as they are parsed
+     * Ends with [SetupStreamEvent.Completed], or with [SetupStreamEvent.Refined] after a draft;
+     * failures are thrown from the flow
+     */
+    fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent>
 }
@@ -1,275 +1,420 @@
 package com.kaaneneskpc.f1setupinstructor.core.network
 
 import android.util.Log
-import com.google.ai.client.generativeai.GenerativeModel
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineStage
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.network.dto.SetupDataDto
+import com.kaaneneskpc.f1setupinstructor.core.network.dto.toDomainModel
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormat
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormatStats
+import com.kaaneneskpc.f1setupinstructor.core.network.format.PositionalSetupCodec
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.TextGenerationClient
+import com.kaaneneskpc.f1setupinstructor.core.network.json.SetupJsonExtractor
+import com.kaaneneskpc.f1setupinstructor.core.network.json.StreamingSetupParser
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptStats
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplate
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplates
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptVariant
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.AiRequestScheduler
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import com.kaaneneskpc.f1setupinstructor.core.network.validation.SetupRepairStats
+import com.kaaneneskpc.f1setupinstructor.core.network.validation.SetupValidator
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
 import com.squareup.moshi.Moshi
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.withTimeout
+import java.util.concurrent.atomic.AtomicLong
 import javax.inject.Inject
 
 /**
  * Real implementation of ResearchService using Google Gemini AI
  * Searches the internet for optimal F1 game setups and returns structured data
+ * [outputFormat] applies to single, non-streamed setups; streaming and batches parse JSON incrementally
  */
 class ResearchServiceImpl @Inject constructor(
-    private val generativeModel: GenerativeModel,
-    private val moshi: Moshi
+    private val generationClient: TextGenerationClient,
+    private val moshi: Moshi,
+    private val promptStats: PromptStats,
+    private val scheduler: AiRequestScheduler,
+    private val repairStats: SetupRepairStats,
+    private val tracer: PipelineTracer,
+    private val promptVariant: PromptVariant = PromptVariant.FULL,
+    private val outputFormat: OutputFormat = OutputFormat.JSON,
+    private val formatStats: OutputFormatStats = OutputFormatStats()
 ) : ResearchService {
 
     companion object {
         private const val TAG = "ResearchServiceImpl"
         private const val TIMEOUT_MILLIS = 60_000L
+        private const val BATCH_TIMEOUT_MILLIS = 120_000L
+        private const val REASK_TIMEOUT_MILLIS = 20_000L
+        private const val MAX_BATCH_SIZE = 4
+        private const val BATCH_ROOT_FIELD = "setups"
     }
 
+    private val singleCalls = AtomicLong()
+    private val singleCallMillis = AtomicLong()
+
     override suspend fun getSetupFromAi(
         track: String,
         sessionType: String,
         qualyWeather: String,
-        raceWeather: String
+        raceWeather: String,
+        priority: RequestPriority
     ): Result<SetupData> {
         return try {
             Log.d(TAG, "Requesting AI setup for: Track=$track, SessionType=$sessionType, Quali=$qualyWeather, Race=$raceWeather")
-            
+            val trace = PipelineTracer.current()
 
-            val prompt = createPrompt(track, sessionType, qualyWeather, raceWeather)
-            
+            val prompt = tracer.span(trace, PipelineStage.PROMPT_BUILD) {
+                createPrompt(track, sessionType, qualyWeather, raceWeather, outputFormat)
+            }
 
-            val response = withTimeout(TIMEOUT_MILLIS) {
-                generativeModel.generateContent(prompt)
+            tracer.recordDuration(trace, PipelineStage.QUEUE_WAIT, scheduler.acquire(priority))
+            val startedAt = System.currentTimeMillis()
+            val response = tracer.span(trace, PipelineStage.MODEL_CALL) {
+                withTimeout(TIMEOUT_MILLIS) {
+                    generationClient.generate(prompt)
+                }
             }
             
             val responseText = response.text ?: throw Exception("AI returned empty response")
-            Log.d(TAG, "AI Response received (full): $responseText")
-            
+            tracer.sampleResponse(trace, "setup", responseText)
+            formatStats.record(
+                outputFormat,
+                response.candidatesTokenCount ?: PromptTemplate.estimateTokens(responseText.length),
+                System.currentTimeMillis() - startedAt
+            )
 
-            val jsonText = extractJsonFromResponse(responseText)
-            Log.d(TAG, "Extracted JSON: $jsonText")
+            val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+            val setupData = when (outputFormat) {
+                OutputFormat.JSON -> parseSetupData(responseText, request, priority)
+                OutputFormat.POSITIONAL -> decodePositional(responseText, request, priority)
+            }
+            singleCalls.incrementAndGet()
+            singleCallMillis.addAndGet(System.currentTimeMillis() - startedAt)
+            Result.success(setupData)
             
+        } catch (e: TimeoutCancellationException) {
+            Log.e(TAG, "Error getting setup from AI", e)
+            Result.failure(e)
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            Log.e(TAG, "Error getting setup from AI", e)
+            Result.failure(e)
+        }
+    }
 
-            val adapter = moshi.adapter(SetupData::class.java).lenient()
-            val setupData = adapter.fromJson(jsonText)
-            
-            if (setupData != null) {
-                Log.d(TAG, "Successfully parsed setup data for ${setupData.trackName}")
-                Result.success(setupData)
+    /**
+     * Sends up to [MAX_BATCH_SIZE] tracks per generation and parses every element on its own,
+     * so one malformed setup only costs an individual request for that track
+     */
+    override suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<List<SetupData>> {
+        val uniqueTracks = tracks.distinct()
+        if (uniqueTracks.isEmpty()) return Result.success(emptyList())
+
+        return try {
+            val trace = PipelineTracer.current()
+            val startedAt = System.currentTimeMillis()
+            val setups = mutableMapOf<String, SetupData>()
+            var batchPromptTokens = 0
+            var batchOutputTokens = 0
+
+            for (chunk in uniqueTracks.chunked(MAX_BATCH_SIZE)) {
+                // A failed chunk leaves its tracks to the individual retries below, keeping the chunks already parsed
+                try {
+                    val prompt = tracer.span(trace, PipelineStage.PROMPT_BUILD) {
+                        PromptTemplates.renderBatchSetup(chunk, sessionType, qualyWeather, raceWeather)
+                    }
+                    promptStats.record(prompt)
+                    tracer.recordDuration(trace, PipelineStage.QUEUE_WAIT, scheduler.acquire(priority))
+                    val response = tracer.span(trace, PipelineStage.MODEL_CALL) {
+                        withTimeout(BATCH_TIMEOUT_MILLIS) {
+                            generationClient.generate(prompt.text)
+                        }
+                    }
+                    batchPromptTokens += response.promptTokenCount ?: prompt.estimatedTokens
+                    batchOutputTokens += response.candidatesTokenCount ?: 0
+                    val responseText = response.text ?: throw Exception("AI returned empty response")
+                    tracer.sampleResponse(trace, "batch", responseText)
+                    setups.putAll(parseBatch(responseText, chunk, sessionType, qualyWeather, raceWeather, priority))
+                } catch (e: TimeoutCancellationException) {
+                    Log.w(TAG, "Batch chunk $chunk timed out")
+                } catch (e: CancellationException) {
+                    throw e
+                } catch (e: Exception) {
+                    Log.w(TAG, "Batch chunk $chunk failed: ${e.message}")
+                }
+            }
+            val batchMillis = System.currentTimeMillis() - startedAt
+
+            var lastError: Throwable? = null
+            uniqueTracks.filterNot { it in setups }.forEach { track ->
+                Log.d(TAG, "Batch element for $track invalid, retrying individually")
+                getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+                    .onSuccess { setups[track] = it }
+                    .onFailure { lastError = it }
+            }
+
+            logBatchComparison(uniqueTracks, sessionType, qualyWeather, raceWeather, batchMillis, batchPromptTokens, batchOutputTokens)
+
+            val failedTracks = uniqueTracks.filterNot { it in setups }
+            if (failedTracks.isEmpty()) {
+                Result.success(tracks.map { setups.getValue(it) })
             } else {
-                Log.e(TAG, "Failed to parse setup data from JSON")
-                Result.failure(Exception("Failed to parse AI response into SetupData"))
+                Result.failure(BatchIncompleteException(setups.toMap(), failedTracks, lastError))
             }
-            
+        } catch (e: TimeoutCancellationException) {
+            Log.e(TAG, "Error getting batch setups from AI", e)
+            Result.failure(e)
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
-            Log.e(TAG, "Error getting setup from AI", e)
+            Log.e(TAG, "Error getting batch setups from AI", e)
             Result.failure(e)
         }
     }
 
     /**
-     * Creates a detailed prompt for the AI to search for optimal F1 setup
-     * The AI will search the internet and return structured JSON data
+     * Streams the response and emits each field group as soon as it has been parsed,
+     * followed by the fully parsed SetupData once the response is complete
      */
-    private fun createPrompt(track: String, sessionType: String, qualyWeather: String, raceWeather: String): String {
-        val setupTypeDescription = when (sessionType) {
-            "Qualifying" -> "QUALIFYING setup (1-lap pace, maximum performance, aggressive setup)"
-            "Race" -> "RACE setup (consistency, tyre management, long-run pace)"
-            else -> "BALANCED setup"
+    override fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = flow {
+        Log.d(TAG, "Streaming AI setup for: Track=$track, SessionType=$sessionType, Quali=$qualyWeather, Race=$raceWeather")
+
+        val trace = PipelineTracer.current()
+        val prompt = tracer.span(trace, PipelineStage.PROMPT_BUILD) {
+            createPrompt(track, sessionType, qualyWeather, raceWeather)
         }
-        
-        return """
-        You are an expert EA SPORTS F1 25 gaming setup researcher. Your task is to search the internet and provide the BEST and most POPULAR $setupTypeDescription specifically for F1 25 game.
-        
-        CRITICAL REQUIREMENTS:
-        1. Search ONLY for EA SPORTS F1 25 setups (NOT F1 24, F1 23, or other versions)
-        2. Find the most recent and popular setups from the community
-        3. This setup is specifically for: $sessionType
-        4. Respond ONLY with valid JSON - NO explanations, NO markdown, NO extra text
-        
-        SEARCH these sources for F1 25 setups:
-        - F1Laps.com (F1 25 section)
-        - SimRacingSetups.com (F1 25 setups)
-        - YouTube (F1 25 setup guides for $track)
-        - Reddit r/F1Game (F1 25 discussions)
-        - TrueRacing.gg (F1 25 setups)
-        - Overtake.gg (F1 25 community setups)
-        
-        GAME: EA SPORTS F1 25 (2024/2025 season)
-        Track: $track
-        Session Type: $sessionType
-        ${if (sessionType == "Qualifying") "Weather: $qualyWeather" else "Qualifying Weather: $qualyWeather\n        Race Weather: $raceWeather"}
-        
-        SEARCH STRATEGY:
-        1. Look for "F1 25 $track $sessionType setup" on the internet
-        2. Find setups from professional sim racers or high-rated community members
-        3. Prioritize recent setups (2024-2025 season)
-        4. Check for the latest game patch/update compatibility
-        5. Verify setup values are realistic for F1 25 game mechanics
-        6. ${if (sessionType == "Qualifying") "Focus on MAXIMUM DOWNFORCE and AGGRESSIVE setup for 1-lap pace" else "Focus on BALANCE, TYRE WEAR and CONSISTENCY for race distance"}
-        
-        IMPORTANT INSTRUCTIONS:
-        1. Use ONLY F1 25 specific setup values (NOT F1 24 or older)
-        2. For the track details, use actual F1 circuit data for $track
-        3. Include weather-specific tyre strategy ($qualyWeather qualifying, $raceWeather race)
-        4. Add key driving tips specific to $track's layout and characteristics
-        5. Provide realistic setup values used by top F1 25 players
-        6. Return ONLY valid JSON - no markdown, no explanations, no extra text
-        
-        Return EXACTLY this JSON structure with realistic F1 25 setup values for $track:
-        {
-            "trackName": "$track",
-            "carModel": "Ferrari SF-24",
-            "gameVersion": "F1 25",
-            "weatherCondition": "${if (sessionType == "Qualifying") qualyWeather else "$qualyWeather / $raceWeather"}",
-            "setupType": "$sessionType",
-            "imageUrl": "",
-            "isFavorite": false,
-            "frontWingAero": 0,
-            "rearWingAero": 0,
-            "onThrottle": 0,
-            "offThrottle": 0,
-            "engineBraking": 0,
-            "frontCamber": 0.0,
-            "rearCamber": 0.0,
-            "frontToe": 0.0,
-            "rearToe": 0.0,
-            "frontSuspension": 0,
-            "rearSuspension": 0,
-            "frontAntiRollBar": 0,
-            "rearAntiRollBar": 0,
-            "frontRideHeight": 0,
-            "rearRideHeight": 0,
-            "brakePressure": 0,
-            "frontBrakeBias": 0,
-            "frontLeftTyrePsi": 0.0,
-            "frontRightTyrePsi": 0.0,
-            "rearLeftTyrePsi": 0.0,
-            "rearRightTyrePsi": 0.0,
-            "tyreStrategy": "Describe optimal tyre strategy for this track and weather",
-            "keyPointers": "Provide 3-4 key driving tips specific to $track",
-            "creatorNotes": "Add setup notes and warnings from the source",
-            "trackLength": "Actual track length in km",
-            "trackCorners": "Number of corners",
-            "trackDrsZones": "Number of DRS zones",
-            "trackIdealLaps": "Typical race distance in laps"
+        val parser = StreamingSetupParser()
+        val responseText = StringBuilder()
+        tracer.recordDuration(trace, PipelineStage.QUEUE_WAIT, scheduler.acquire(RequestPriority.USER_SETUP))
+        val startedAt = System.currentTimeMillis()
+        val startedAtNanos = System.nanoTime()
+
+        withTimeout(TIMEOUT_MILLIS) {
+            generationClient.generateStream(prompt).collect { chunk ->
+                if (responseText.isEmpty()) tracer.record(trace, PipelineStage.FIRST_TOKEN, startedAtNanos)
+                responseText.append(chunk)
+                parser.feed(chunk).forEach { group ->
+                    Log.d(TAG, "Field group $group ready after ${System.currentTimeMillis() - startedAt}ms")
+                    emit(SetupStreamEvent.GroupCompleted(group, parser.snapshot()))
+                }
+            }
         }
-        
-        CRITICAL RULES FOR F1 25:
-        1. Return ONLY raw JSON (no ```json markdown, no code blocks)
-        2. Use F1 25 specific setup ranges:
-           - Aero: Front 0-50, Rear 0-50 (lower = less downforce)
-           - Camber: -3.5° to -1.0° (negative values)
-           - Toe: -0.50° to 0.50°
-           - Suspension: 1-11 (softer to stiffer)
-           - Anti-Roll Bar: 1-11 (softer to stiffer)
-           - Ride Height: 0-100mm
-           - Brake Pressure: 80-100%
-           - Brake Bias: 50-70% (front bias)
-           - Tyre Pressure: 19.0-25.0 PSI
-        3. Ensure ALL fields are present with realistic F1 25 values
-        4. No trailing commas
-        5. Double-check JSON is valid
-        6. Keep text fields CONCISE (max 2-3 sentences each)
-        7. Make setup values specific to $track characteristics in F1 25
-        
-        Start your response with { and end with }
-        
-        TRACK-SPECIFIC SETUP GUIDELINES FOR F1 25:
-        
-        ${if (sessionType == "Qualifying") {
-            """
-            QUALIFYING SETUP CHARACTERISTICS:
-            - More aggressive aero (higher downforce for better lap time)
-            - Softer suspension for maximum mechanical grip
-            - Higher brake pressure for confident late braking
-            - Lower ride height for better aero efficiency
-            - Focus on single lap performance over tyre wear
-            """.trimIndent()
-        } else {
-            """
-            RACE SETUP CHARACTERISTICS:
-            - Balanced aero (consider tyre wear and fuel load)
-            - Slightly stiffer suspension for long-run stability
-            - Moderate brake pressure to preserve brakes
-            - Slightly higher ride height for fuel load variation
-            - Focus on consistency and tyre management
-            """.trimIndent()
-        }}
-        
-        For LOW DOWNFORCE tracks (Monza, Spa, Jeddah, Baku):
-        - Front Wing: ${if (sessionType == "Qualifying") "15-30" else "10-25"}, Rear Wing: ${if (sessionType == "Qualifying") "12-25" else "8-20"}
-        - Strategy: "Low drag setup for top speed on straights"
-        - Pointers: Focus on straight-line speed, minimal wing angles
-        
-        For HIGH DOWNFORCE tracks (Monaco, Singapore, Hungary):
-        - Front Wing: ${if (sessionType == "Qualifying") "40-50" else "35-45"}, Rear Wing: ${if (sessionType == "Qualifying") "40-50" else "35-45"}
-        - Strategy: "Maximum grip setup for tight corners"
-        - Pointers: Prioritize cornering grip over top speed
-        
-        For BALANCED tracks (Silverstone, Suzuka, Barcelona):
-        - Front Wing: ${if (sessionType == "Qualifying") "30-40" else "25-35"}, Rear Wing: ${if (sessionType == "Qualifying") "30-40" else "25-35"}
-        - Strategy: "Balanced setup for mixed corners"
-        - Pointers: Compromise between speed and downforce
-        
-        Example JSON for $track:
-        "tyreStrategy": "Based on $track length and $raceWeather weather, recommend optimal compound sequence"
-        "keyPointers": "Based on $track's key corners (e.g., Parabolica for Monza, Eau Rouge for Spa)"
-        "creatorNotes": "Specific to F1 25 handling model and $track layout"
-        
-        REMEMBER: This is for EA SPORTS F1 25 ONLY. Do NOT use F1 24 or F1 23 setups!
-        
-        Start your response with { and end with }
-        """.trimIndent()
+
+        tracer.record(trace, PipelineStage.MODEL_CALL, startedAtNanos)
+
+        if (responseText.isEmpty()) throw Exception("AI returned empty response")
+        tracer.sampleResponse(trace, "stream", responseText.toString())
+        val request = SetupRequest(track, sessionType, qualyWeather, raceWeather)
+        emit(SetupStreamEvent.Completed(parseSetupData(responseText.toString(), request, RequestPriority.USER_SETUP)))
+    }
+
+    /**
+     * Extracts the JSON object from a complete AI response, then validates and repairs it
+     */
+    private suspend fun parseSetupData(responseText: String, request: SetupRequest, priority: RequestPriority): SetupData {
+        val trace = PipelineTracer.current()
+        val jsonText = tracer.span(trace, PipelineStage.JSON_EXTRACT) { SetupJsonExtractor.extract(responseText) }
+
+        val values = tracer.span(trace, PipelineStage.JSON_PARSE) { parseObject(jsonText) }
+            ?: throw Exception("Failed to parse AI response into SetupData")
+        val setupData = tracer.span(trace, PipelineStage.VALIDATE_REPAIR) { repairAndBind(values, request, priority) }
+        Log.d(TAG, "Successfully parsed setup data for ${setupData.trackName}")
+        return setupData
     }
 
     /**
-     * Extracts JSON content from AI response
-     * Handles cases where AI wraps JSON in markdown code blocks or adds extra text
+     * Decodes a positional answer; an answer that is not positional is tried as JSON, and only if
+     * that fails as well is the setup requested again with the JSON prompt
      */
-    private fun extractJsonFromResponse(response: String): String {
-        var cleaned = response.trim()
-        
-        // Remove markdown code blocks if present
-        val jsonBlockRegex = "```json\\s*([\\s\\S]*?)```".toRegex()
-        val jsonMatch = jsonBlockRegex.find(cleaned)
-        if (jsonMatch != null) {
-            cleaned = jsonMatch.groupValues[1].trim()
-        } else if (cleaned.startsWith("```")) {
-            // Remove any code block markers
-            cleaned = cleaned.removePrefix("```").removeSuffix("```").trim()
-            // Remove language identifier if present
-            if (cleaned.lines().firstOrNull()?.matches(Regex("\\w+")) == true) {
-                cleaned = cleaned.lines().drop(1).joinToString("\n").trim()
+    private suspend fun decodePositional(responseText: String, request: SetupRequest, priority: RequestPriority): SetupData {
+        val trace = PipelineTracer.current()
+        val values = tracer.span(trace, PipelineStage.POSITIONAL_DECODE) { PositionalSetupCodec.decode(responseText, request) }
+        if (values != null) {
+            return tracer.span(trace, PipelineStage.VALIDATE_REPAIR) { repairAndBind(values, request, priority) }
+        }
+
+        formatStats.recordDecodeFailure(OutputFormat.POSITIONAL)
+        Log.w(TAG, "Positional answer for ${request.cacheKey} could not be decoded, falling back to JSON")
+        try {
+            return parseSetupData(responseText, request, priority)
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            Log.d(TAG, "Answer is not JSON either, asking again in JSON")
+        }
+
+        val prompt = createPrompt(request.track, request.sessionType, request.qualyWeather, request.raceWeather, OutputFormat.JSON)
+        tracer.recordDuration(trace, PipelineStage.QUEUE_WAIT, scheduler.acquire(priority))
+        val startedAt = System.currentTimeMillis()
+        val response = tracer.span(trace, PipelineStage.MODEL_CALL) {
+            withTimeout(TIMEOUT_MILLIS) {
+                generationClient.generate(prompt)
             }
         }
-        
-        // Find JSON object boundaries (handle multiple braces)
-        val startIndex = cleaned.indexOf('{')
-        var endIndex = -1
-        
-        if (startIndex != -1) {
-            var braceCount = 0
-            for (i in startIndex until cleaned.length) {
-                when (cleaned[i]) {
-                    '{' -> braceCount++
-                    '}' -> {
-                        braceCount--
-                        if (braceCount == 0) {
-                            endIndex = i
-                            break
-                        }
-                    }
+        val jsonText = response.text ?: throw Exception("AI returned empty response")
+        formatStats.record(
+            OutputFormat.JSON,
+            response.candidatesTokenCount ?: PromptTemplate.estimateTokens(jsonText.length),
+            System.currentTimeMillis() - startedAt
+        )
+        return parseSetupData(jsonText, request, priority)
+    }
+
+    /**
+     * Parses each element of {"setups": [...]} independently and matches it to a requested track
+     * by name, falling back to its position in the batch
+     */
+    private suspend fun parseBatch(
+        responseText: String,
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Map<String, SetupData> {
+        val trace = PipelineTracer.current()
+        val jsonText = tracer.span(trace, PipelineStage.JSON_EXTRACT) { SetupJsonExtractor.extract(responseText) }
+        val root = tracer.span(trace, PipelineStage.JSON_PARSE) { parseObject(jsonText) }
+        val elements = root?.get(BATCH_ROOT_FIELD) as? List<*> ?: return emptyMap()
+
+        val parsed = mutableMapOf<String, SetupData>()
+        elements.forEachIndexed { index, element ->
+            val values = (element as? Map<*, *>)?.entries?.associate { (key, value) -> key.toString() to value }
+                ?: return@forEachIndexed
+            val track = tracks.firstOrNull { it.equals(values["trackName"] as? String, ignoreCase = true) }
+                ?: tracks.getOrNull(index)
+            if (track == null || track in parsed) return@forEachIndexed
+
+            try {
+                parsed[track] = tracer.span(trace, PipelineStage.VALIDATE_REPAIR) {
+                    repairAndBind(values, SetupRequest(track, sessionType, qualyWeather, raceWeather), priority)
                 }
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                Log.w(TAG, "Batch element $index is invalid: ${e.message}")
+            }
+        }
+        return parsed
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun parseObject(jsonText: String): Map<String, Any?>? = try {
+        moshi.adapter(Any::class.java).lenient().fromJson(jsonText) as? Map<String, Any?>
+    } catch (e: Exception) {
+        Log.e(TAG, "Response is not valid JSON", e)
+        null
+    }
+
+    /**
+     * Clamps and fills what can be recovered locally, asks the model again only for the remaining
+     * broken fields, and binds the result with the generated DTO adapter
+     */
+    private suspend fun repairAndBind(values: Map<String, Any?>, request: SetupRequest, priority: RequestPriority): SetupData {
+        var validation = SetupValidator.validate(values, request)
+        repairStats.recordValidation(validation)
+        if (validation.repairs.isNotEmpty()) {
+            Log.d(TAG, "Repaired ${request.cacheKey}: ${validation.repairs}")
+        }
+
+        if (validation.broken.isNotEmpty()) {
+            val broken = validation.broken
+            Log.d(TAG, "Re-asking ${broken.size} fields for ${request.cacheKey}: $broken")
+            val answer = reAskFields(broken, request, priority)
+            repairStats.recordReAsk(broken.size, success = answer != null)
+            if (answer != null) {
+                validation = SetupValidator.validate(validation.values + answer.filterKeys { it in broken }, request)
+            }
+            if (validation.broken.isNotEmpty()) {
+                repairStats.recordForced(validation.broken.size)
+                validation = SetupValidator.forceRepair(validation, request)
+            }
+        }
+
+        return moshi.adapter(SetupDataDto::class.java).fromJsonValue(validation.values)?.toDomainModel()
+            ?: throw Exception("Failed to parse AI response into SetupData")
+    }
+
+    private suspend fun reAskFields(
+        fields: Set<String>,
+        request: SetupRequest,
+        priority: RequestPriority
+    ): Map<String, Any?>? {
+        return try {
+            val prompt = PromptTemplates.renderFieldReAsk(request, fields)
+            promptStats.record(prompt)
+            scheduler.acquire(priority)
+            val response = withTimeout(REASK_TIMEOUT_MILLIS) {
+                generationClient.generate(prompt.text)
             }
+            response.text?.let { parseObject(SetupJsonExtractor.extract(it)) }
+        } catch (e: TimeoutCancellationException) {
+            Log.w(TAG, "Re-ask timed out for ${request.cacheKey}")
+            null
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            Log.w(TAG, "Re-ask failed for ${request.cacheKey}: ${e.message}")
+            null
         }
-        
-        if (startIndex != -1 && endIndex != -1 && startIndex < endIndex) {
-            cleaned = cleaned.substring(startIndex, endIndex + 1)
+    }
+
+    /**
+     * Logs the batch against what the same tracks would have cost as sequential single requests
+     */
+    private fun logBatchComparison(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        batchMillis: Long,
+        batchPromptTokens: Int,
+        batchOutputTokens: Int
+    ) {
+        val sequentialPromptTokens = tracks.sumOf { track ->
+            PromptTemplates.renderSetup(track, sessionType, qualyWeather, raceWeather, promptVariant).estimatedTokens
         }
-        
-        // Remove any trailing commas before closing braces (common AI mistake)
-        cleaned = cleaned.replace(", }", "}")
-        cleaned = cleaned.replace(",}", "}")
-        cleaned = cleaned.replace(", ]", "]")
-        cleaned = cleaned.replace(",]", "]")
-        
-        return cleaned
+        val calls = singleCalls.get()
+        val sequentialMillis = if (calls == 0L) "n/a" else "${singleCallMillis.get() / calls * tracks.size}ms"
+        Log.d(
+            TAG,
+            "Batch of ${tracks.size}: ${batchMillis}ms vs ~$sequentialMillis sequential, " +
+                "prompt $batchPromptTokens vs ~$sequentialPromptTokens tokens, output $batchOutputTokens tokens"
+        )
+    }
+
+    /**
+     * Renders the precompiled setup template for the session and records its size
+     */
+    private fun createPrompt(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        format: OutputFormat = OutputFormat.JSON
+    ): String {
+        val prompt = PromptTemplates.renderSetup(track, sessionType, qualyWeather, raceWeather, promptVariant, format)
+        promptStats.record(prompt)
+        return prompt.text
     }
 }
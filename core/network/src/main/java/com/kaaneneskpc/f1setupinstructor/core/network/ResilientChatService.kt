@@ -0,0 +1,28 @@
+package com.kaaneneskpc.f1setupinstructor.core.network
+
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryExecutor
+import kotlinx.coroutines.flow.Flow
+
+/**
+ * Retries transient chat failures and fails fast while the AI circuit is open
+ * Streams are only retried before the first chunk so answers are never duplicated
+ */
+class ResilientChatService(
+    private val delegate: ChatService,
+    private val retryExecutor: RetryExecutor
+) : ChatService {
+
+    override suspend fun sendMessage(message: String): Result<String> =
+        retryExecutor.execute("chat") { delegate.sendMessage(message) }
+
+    override suspend fun sendMessageWithImage(message: String, image: ChatImage): Result<String> =
+        retryExecutor.execute("chat-image") { delegate.sendMessageWithImage(message, image) }
+
+    override fun sendMessageStream(message: String): Flow<String> =
+        retryExecutor.executeFlow("chat-stream") { delegate.sendMessageStream(message) }
+
+    override fun sendMessageWithImageStream(message: String, image: ChatImage): Flow<String> =
+        retryExecutor.executeFlow("chat-image-stream") { delegate.sendMessageWithImageStream(message, image) }
+
+    override fun resetSession() = delegate.resetSession()
+}
@@ -0,0 +1,45 @@
+package com.kaaneneskpc.f1setupinstructor.core.network
+
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryExecutor
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import kotlinx.coroutines.flow.Flow
+
+/**
+ * Retries transient setup failures and fails fast while the AI circuit is open
+ */
+class ResilientResearchService(
+    private val delegate: ResearchService,
+    private val retryExecutor: RetryExecutor
+) : ResearchService {
+
+    override suspend fun getSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<SetupData> = retryExecutor.execute("setup:$track/$sessionType") {
+        delegate.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+    }
+
+    override suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<List<SetupData>> = retryExecutor.execute("setup-batch:${tracks.size}/$sessionType") {
+        delegate.getSetupsFromAiBatch(tracks, sessionType, qualyWeather, raceWeather, priority)
+    }
+
+    override fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = retryExecutor.executeFlow("setup-stream:$track/$sessionType") {
+        delegate.streamSetupFromAi(track, sessionType, qualyWeather, raceWeather)
+    }
+}
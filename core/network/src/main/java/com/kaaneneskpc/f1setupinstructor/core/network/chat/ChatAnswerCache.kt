@@ -0,0 +1,128 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.chat
+
+/**
+ * Local cache of answers to context-free chat questions
+ * Questions are normalized (case, Turkish letters, punctuation, filler words) and compared by the
+ * Jaccard similarity of their character trigrams, so "Düzlük hızı nasıl artırılır?" and
+ * "duzluk hizi nasil artirilir" hit the same entry. The threshold is high on purpose: changing a single
+ * word ("artırılır" / "azaltılır") already drops two questions well below it.
+ * Entries expire after [ttlMillis]; beyond [maxEntries] the least recently used one is dropped.
+ */
+class ChatAnswerCache(
+    private val maxEntries: Int = 100,
+    private val ttlMillis: Long = 24 * 60 * 60 * 1000L,
+    private val similarityThreshold: Double = 0.8,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    data class Hit(
+        val answer: String,
+        val similarity: Double,
+        /** How long the model took to generate the cached answer */
+        val generationMillis: Long
+    )
+
+    private class Entry(
+        val trigrams: Set<String>,
+        val answer: String,
+        val generationMillis: Long,
+        val storedAt: Long
+    )
+
+    /** Access-ordered, so iteration starts at the least recently used entry */
+    private val entries = LinkedHashMap<String, Entry>(16, 0.75f, true)
+
+    val size: Int
+        @Synchronized get() = entries.size
+
+    @Synchronized
+    fun lookup(question: String): Hit? {
+        val key = normalize(question)
+        if (key.isEmpty()) return null
+        val now = clock()
+        val trigrams = trigrams(key)
+
+        var bestKey: String? = null
+        var bestSimilarity = 0.0
+        val iterator = entries.entries.iterator()
+        while (iterator.hasNext()) {
+            val (candidateKey, entry) = iterator.next()
+            if (now - entry.storedAt > ttlMillis) {
+                iterator.remove()
+                continue
+            }
+            val similarity = if (candidateKey == key) 1.0 else jaccard(trigrams, entry.trigrams)
+            if (similarity > bestSimilarity) {
+                bestKey = candidateKey
+                bestSimilarity = similarity
+            }
+        }
+
+        if (bestKey == null || bestSimilarity < similarityThreshold) return null
+        // get() moves the entry to the most recently used end
+        val entry = entries.getValue(bestKey)
+        return Hit(entry.answer, bestSimilarity, entry.generationMillis)
+    }
+
+    @Synchronized
+    fun put(question: String, answer: String, generationMillis: Long) {
+        val key = normalize(question)
+        if (key.isEmpty() || answer.isBlank()) return
+        entries[key] = Entry(trigrams(key), answer, generationMillis, clock())
+        while (entries.size > maxEntries) {
+            entries.remove(entries.keys.first())
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+    }
+
+    companion object {
+
+        /** Words that do not change what is being asked, after [normalize] folding */
+        private val FILLER_WORDS = setOf(
+            "bir", "ve", "ile", "de", "da", "mi", "mu", "bu", "su", "icin", "ben", "benim", "acaba", "lutfen",
+            "a", "an", "the", "is", "are", "do", "does", "i", "my", "to", "of", "can", "you", "please"
+        )
+
+        /**
+         * Lower-case ASCII words without filler; Turkish letters are folded so typing without them matches
+         */
+        fun normalize(text: String): String {
+            val folded = buildString(text.length) {
+                for (char in text) {
+                    when (char) {
+                        'İ', 'I', 'ı' -> append('i')
+                        'Ç', 'ç' -> append('c')
+                        'Ğ', 'ğ' -> append('g')
+                        'Ö', 'ö' -> append('o')
+                        'Ş', 'ş' -> append('s')
+                        'Ü', 'ü' -> append('u')
+                        // Combining dot left by lower-casing "İ" with a non-Turkish locale
+                        '\u0307' -> Unit
+                        else -> append(if (char.isLetterOrDigit()) char.lowercaseChar() else ' ')
+                    }
+                }
+            }
+            return folded.split(' ')
+                .filter { it.isNotEmpty() && it !in FILLER_WORDS }
+                .joinToString(" ")
+        }
+
+        fun similarity(first: String, second: String): Double =
+            jaccard(trigrams(normalize(first)), trigrams(normalize(second)))
+
+        private fun trigrams(normalized: String): Set<String> {
+            val padded = " $normalized "
+            return (0..padded.length - 3).mapTo(HashSet()) { padded.substring(it, it + 3) }
+        }
+
+        private fun jaccard(first: Set<String>, second: Set<String>): Double {
+            if (first.isEmpty() || second.isEmpty()) return 0.0
+            val shared = first.count { it in second }
+            return shared.toDouble() / (first.size + second.size - shared)
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.chat
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+data class ChatAnswerCacheSnapshot(
+    /** Questions that were eligible for the cache, i.e. asked without earlier context */
+    val lookups: Long = 0,
+    val hits: Long = 0,
+    /** Model time the served answers originally took, minus the time it took to serve them */
+    val savedMillis: Long = 0
+) {
+    val hitRatio: Double
+        get() = if (lookups == 0L) 0.0 else hits.toDouble() / lookups
+}
+
+class ChatAnswerCacheStats {
+
+    private val _snapshot = MutableStateFlow(ChatAnswerCacheSnapshot())
+    val snapshot: StateFlow<ChatAnswerCacheSnapshot> = _snapshot.asStateFlow()
+
+    fun recordHit(savedMillis: Long) {
+        _snapshot.update {
+            it.copy(
+                lookups = it.lookups + 1,
+                hits = it.hits + 1,
+                savedMillis = it.savedMillis + savedMillis.coerceAtLeast(0)
+            )
+        }
+    }
+
+    fun recordMiss() {
+        _snapshot.update { it.copy(lookups = it.lookups + 1) }
+    }
+}
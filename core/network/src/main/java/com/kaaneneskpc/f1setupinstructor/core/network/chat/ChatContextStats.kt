@@ -0,0 +1,53 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.chat
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+/**
+ * Input size of one chat turn
+ * [promptTokens] comes from the response usage metadata when the API reports it, otherwise it is estimated
+ */
+data class ChatTurnUsage(
+    val turn: Int,
+    val promptTokens: Int,
+    val historyTokens: Int,
+    val isMeasured: Boolean
+)
+
+data class ChatContextSnapshot(
+    val turns: List<ChatTurnUsage> = emptyList(),
+    val summaries: Int = 0,
+    val summaryFailures: Int = 0
+) {
+    /**
+     * Prompt token growth from the first to the latest turn of the session
+     */
+    val promptTokenGrowth: Int
+        get() = if (turns.size < 2) 0 else turns.last().promptTokens - turns.first().promptTokens
+
+    val maxPromptTokens: Int
+        get() = turns.maxOfOrNull { it.promptTokens } ?: 0
+}
+
+class ChatContextStats(private val turnLimit: Int = 100) {
+
+    private val _snapshot = MutableStateFlow(ChatContextSnapshot())
+    val snapshot: StateFlow<ChatContextSnapshot> = _snapshot.asStateFlow()
+
+    fun recordTurn(usage: ChatTurnUsage) {
+        _snapshot.update { it.copy(turns = (it.turns + usage).takeLast(turnLimit)) }
+    }
+
+    fun recordSummary(success: Boolean) {
+        _snapshot.update {
+            if (success) it.copy(summaries = it.summaries + 1)
+            else it.copy(summaryFailures = it.summaryFailures + 1)
+        }
+    }
+
+    fun reset() {
+        _snapshot.value = ChatContextSnapshot()
+    }
+}
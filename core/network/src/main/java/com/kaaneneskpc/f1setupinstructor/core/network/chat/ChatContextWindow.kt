@@ -0,0 +1,89 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.chat
+
+import com.google.ai.client.generativeai.type.Content
+import com.google.ai.client.generativeai.type.content
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplate
+
+/**
+ * One completed exchange; image turns keep only their text so the blob is uploaded once
+ */
+data class ChatTurn(
+    val userText: String,
+    val modelText: String
+) {
+    val estimatedTokens: Int
+        get() = PromptTemplate.estimateTokens(userText.length + modelText.length)
+}
+
+/**
+ * Conversation history kept under a token budget
+ * Recent turns are sent verbatim; older ones are folded into a rolling summary that is sent
+ * as the first exchange, so the input of a turn stays roughly flat however long the chat gets.
+ * Not thread-safe; callers serialize access.
+ */
+class ChatContextWindow(
+    private val tokenBudget: Int
+) {
+
+    companion object {
+        private const val ROLE_USER = "user"
+        private const val ROLE_MODEL = "model"
+        private const val SUMMARY_ACK = "Anladım, bu bağlamı dikkate alacağım."
+    }
+
+    private val turns = ArrayDeque<ChatTurn>()
+
+    var summary: String = ""
+        private set
+
+    val historyTokens: Int
+        get() = PromptTemplate.estimateTokens(summary.length) + turns.sumOf { it.estimatedTokens }
+
+    val turnCount: Int
+        get() = turns.size
+
+    fun history(): List<Content> = buildList {
+        if (summary.isNotEmpty()) {
+            add(content(ROLE_USER) { text("Önceki konuşmanın özeti:\n$summary") })
+            add(content(ROLE_MODEL) { text(SUMMARY_ACK) })
+        }
+        turns.forEach { turn ->
+            add(content(ROLE_USER) { text(turn.userText) })
+            add(content(ROLE_MODEL) { text(turn.modelText) })
+        }
+    }
+
+    fun append(turn: ChatTurn) {
+        turns.addLast(turn)
+    }
+
+    /**
+     * Oldest turns that have to be summarized to bring the history back to half the budget
+     * The latest turn is always kept verbatim.
+     */
+    fun turnsOverBudget(): List<ChatTurn> {
+        if (historyTokens <= tokenBudget) return emptyList()
+        val target = tokenBudget / 2
+        var remaining = historyTokens
+        val folded = mutableListOf<ChatTurn>()
+        for (turn in turns) {
+            if (remaining <= target || folded.size == turns.size - 1) break
+            folded += turn
+            remaining -= turn.estimatedTokens
+        }
+        return folded
+    }
+
+    /**
+     * Replaces the first [foldedTurns] turns with [newSummary]
+     */
+    fun applySummary(newSummary: String, foldedTurns: Int) {
+        repeat(foldedTurns.coerceAtMost(turns.size)) { turns.removeFirst() }
+        summary = newSummary
+    }
+
+    fun clear() {
+        turns.clear()
+        summary = ""
+    }
+}
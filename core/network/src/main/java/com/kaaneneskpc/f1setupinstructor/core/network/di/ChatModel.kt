@@ -0,0 +1,10 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.di
+
+import javax.inject.Qualifier
+
+/**
+ * GenerativeModel configured with the chatbot system instruction
+ */
+@Qualifier
+@Retention(AnnotationRetention.BINARY)
+annotation class ChatModel
@@ -1,17 +1,47 @@
 package com.kaaneneskpc.f1setupinstructor.core.network.di
 
 import com.google.ai.client.generativeai.GenerativeModel
-import com.google.ai.client.generativeai.type.generationConfig
+import com.google.ai.client.generativeai.type.Content
+import com.google.ai.client.generativeai.type.content
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteStats
 import com.kaaneneskpc.f1setupinstructor.core.network.ChatService
 import com.kaaneneskpc.f1setupinstructor.core.network.ChatServiceImpl
+import com.kaaneneskpc.f1setupinstructor.core.network.CoalescingResearchService
 import com.kaaneneskpc.f1setupinstructor.core.network.ResearchService
 import com.kaaneneskpc.f1setupinstructor.core.network.ResearchServiceImpl
+import com.kaaneneskpc.f1setupinstructor.core.network.ResilientChatService
+import com.kaaneneskpc.f1setupinstructor.core.network.ResilientResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatAnswerCache
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatAnswerCacheStats
+import com.kaaneneskpc.f1setupinstructor.core.network.chat.ChatContextStats
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormat
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormatStats
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.GeminiTextGenerationClient
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.GenerationProfile
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.RestTextGenerationClient
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.TextGenerationClient
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgePolicy
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgeStats
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgedResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptStats
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptTemplates
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptVariant
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.CircuitBreaker
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryExecutor
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryPolicy
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryStats
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.AiRequestScheduler
+import com.kaaneneskpc.f1setupinstructor.core.network.tiering.TierStats
+import com.kaaneneskpc.f1setupinstructor.core.network.tiering.TieredResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.validation.SetupRepairStats
 import com.squareup.moshi.Moshi
-import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
+import dagger.Lazy
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
 import dagger.hilt.components.SingletonComponent
+import javax.inject.Provider
 import javax.inject.Singleton
 
 @Module
@@ -20,13 +50,12 @@ object NetworkModule {
 
     /**
      * Provides Moshi JSON parser
+     * DTOs use adapters generated by moshi-kotlin-codegen, so no reflective factory is registered
      */
     @Provides
     @Singleton
     fun provideMoshi(): Moshi {
-        return Moshi.Builder()
-            .add(KotlinJsonAdapterFactory())
-            .build()
+        return Moshi.Builder().build()
     }
 
     /**
@@ -36,37 +65,177 @@ object NetworkModule {
     @Provides
     @Singleton
     fun provideGenerativeModel(): GenerativeModel {
-        val apiKey = com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.GEMINI_API_KEY
-        
-        if (apiKey.isEmpty()) {
-            throw IllegalStateException(
-                "Gemini API key not configured! " +
-                "Please add GEMINI_API_KEY=your_key to local.properties"
-            )
-        }
-        
-        return GenerativeModel(
-            modelName = "gemini-2.5-flash",
-            apiKey = apiKey,
-            generationConfig = generationConfig {
-                temperature = 0.7f
-                topK = 40
-                topP = 0.95f
-                maxOutputTokens = 8192
-            }
+        return GenerationProfile.SETUP.toGenerativeModel()
+    }
+
+    /**
+     * Provides the client the single-tier setup pipeline generates text with
+     */
+    @Provides
+    @Singleton
+    fun provideTextGenerationClient(
+        generativeModel: Provider<GenerativeModel>,
+        moshi: Moshi
+    ): TextGenerationClient {
+        return generationClient(GenerationProfile.SETUP, moshi) { generativeModel.get() }
+    }
+
+    /**
+     * Provides the chatbot model
+     * The Turkish expert instructions are sent once as the system instruction instead of in every turn
+     */
+    @Provides
+    @Singleton
+    @ChatModel
+    fun provideChatGenerativeModel(): GenerativeModel {
+        return GenerationProfile.CHAT.toGenerativeModel(
+            systemInstruction = content { text(PromptTemplates.chatSystemInstruction) }
+        )
+    }
+
+    @Provides
+    @Singleton
+    fun provideChatContextStats(): ChatContextStats {
+        return ChatContextStats()
+    }
+
+    /**
+     * Answers to context-free chat questions, shared by every chat session of the process
+     */
+    @Provides
+    @Singleton
+    fun provideChatAnswerCache(): ChatAnswerCache {
+        return ChatAnswerCache()
+    }
+
+    @Provides
+    @Singleton
+    fun provideChatAnswerCacheStats(): ChatAnswerCacheStats {
+        return ChatAnswerCacheStats()
+    }
+
+    /**
+     * Provides the shared rate limiter every Gemini call goes through
+     * Sized to the free-tier quota of 15 requests per minute
+     */
+    @Provides
+    @Singleton
+    fun provideAiRequestScheduler(): AiRequestScheduler {
+        return AiRequestScheduler(requestsPerMinute = AiRequestScheduler.DEFAULT_REQUESTS_PER_MINUTE)
+    }
+
+    @Provides
+    @Singleton
+    fun provideRetryStats(): RetryStats {
+        return RetryStats()
+    }
+
+    /**
+     * Provides the retry engine shared by setup and chat calls
+     * Both hit the same Gemini endpoint, so they also share one circuit breaker
+     */
+    @Provides
+    @Singleton
+    fun provideRetryExecutor(retryStats: RetryStats): RetryExecutor {
+        return RetryExecutor(
+            policy = RetryPolicy(maxAttempts = 3, baseDelayMillis = 1_000, maxDelayMillis = 30_000),
+            circuitBreaker = CircuitBreaker(name = "gemini", failureThreshold = 5, openMillis = 60_000),
+            stats = retryStats
         )
     }
 
+    @Provides
+    @Singleton
+    fun provideSetupRepairStats(): SetupRepairStats {
+        return SetupRepairStats()
+    }
+
+    /**
+     * Hedging is opt-in (AI_HEDGING=true in local.properties) since every hedge is an extra Gemini call
+     */
+    @Provides
+    @Singleton
+    fun provideHedgePolicy(): HedgePolicy {
+        return HedgePolicy(enabled = com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.AI_HEDGING)
+    }
+
+    @Provides
+    @Singleton
+    fun provideHedgeStats(): HedgeStats {
+        return HedgeStats()
+    }
+
+    @Provides
+    @Singleton
+    fun provideTierStats(): TierStats {
+        return TierStats()
+    }
+
     /**
      * Provides ResearchService implementation using Gemini AI
+     * Identical concurrent requests are coalesced into a single call, which is retried as a whole;
+     * each attempt may be hedged when it runs into the latency tail.
+     * AI_TIERED=true in local.properties streams a draft from a fast model first and lets a
+     * stronger model refine it; this costs two calls per setup, so it is opt-in.
+     * AI_POSITIONAL_OUTPUT=true asks for the compact positional answer instead of JSON.
      */
     @Provides
     @Singleton
     fun provideResearchService(
-        generativeModel: GenerativeModel,
-        moshi: Moshi
+        generationClient: Provider<TextGenerationClient>,
+        moshi: Moshi,
+        promptStats: PromptStats,
+        scheduler: AiRequestScheduler,
+        retryExecutor: RetryExecutor,
+        repairStats: SetupRepairStats,
+        tracer: PipelineTracer,
+        hedgePolicy: HedgePolicy,
+        hedgeStats: HedgeStats,
+        wasteStats: RequestWasteStats,
+        tierStats: TierStats,
+        formatStats: OutputFormatStats
     ): ResearchService {
-        return ResearchServiceImpl(generativeModel, moshi)
+        val outputFormat = if (com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.AI_POSITIONAL_OUTPUT) {
+            OutputFormat.POSITIONAL
+        } else {
+            OutputFormat.JSON
+        }
+
+        fun stack(client: TextGenerationClient, variant: PromptVariant, policy: HedgePolicy): ResearchService {
+            return CoalescingResearchService(
+                ResilientResearchService(
+                    HedgedResearchService(
+                        ResearchServiceImpl(
+                            client, moshi, promptStats, scheduler, repairStats, tracer, variant, outputFormat, formatStats
+                        ),
+                        scheduler,
+                        policy,
+                        hedgeStats
+                    ),
+                    retryExecutor
+                ),
+                wasteStats
+            )
+        }
+
+        if (!com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.AI_TIERED) {
+            return stack(generationClient.get(), PromptVariant.FULL, hedgePolicy)
+        }
+
+        // Hedging stays on the refine tier only, so draft latencies do not skew its deadline
+        return TieredResearchService(
+            draft = stack(
+                generationClient(GenerationProfile.SETUP_DRAFT, moshi) { GenerationProfile.SETUP_DRAFT.toGenerativeModel() },
+                PromptVariant.COMPACT,
+                hedgePolicy.copy(enabled = false)
+            ),
+            refine = stack(
+                generationClient(GenerationProfile.SETUP_REFINE, moshi) { GenerationProfile.SETUP_REFINE.toGenerativeModel() },
+                PromptVariant.FULL,
+                hedgePolicy
+            ),
+            stats = tierStats
+        )
     }
 
     /**
@@ -75,8 +244,62 @@ object NetworkModule {
     @Provides
     @Singleton
     fun provideChatService(
-        generativeModel: GenerativeModel
+        @ChatModel chatModel: Lazy<GenerativeModel>,
+        generativeModel: Lazy<GenerativeModel>,
+        promptStats: PromptStats,
+        scheduler: AiRequestScheduler,
+        retryExecutor: RetryExecutor,
+        chatContextStats: ChatContextStats,
+        answerCache: ChatAnswerCache,
+        answerCacheStats: ChatAnswerCacheStats
     ): ChatService {
-        return ChatServiceImpl(generativeModel)
+        return ResilientChatService(
+            ChatServiceImpl(
+                chatModel, generativeModel, promptStats, scheduler, chatContextStats, answerCache, answerCacheStats
+            ),
+            retryExecutor
+        )
+    }
+
+    /**
+     * Builds the client for one generation profile
+     * GEMINI_BASE_URL in local.properties redirects it to any Gemini compatible host
+     */
+    private fun generationClient(
+        profile: GenerationProfile,
+        moshi: Moshi,
+        sdkModel: () -> GenerativeModel
+    ): TextGenerationClient {
+        val baseUrl = com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.GEMINI_BASE_URL
+        if (baseUrl.isEmpty()) return GeminiTextGenerationClient(sdkModel)
+
+        return RestTextGenerationClient(
+            baseUrl = baseUrl,
+            modelName = profile.modelName,
+            apiKey = com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.GEMINI_API_KEY,
+            moshi = moshi,
+            generationConfig = profile.toRequestConfig()
+        )
+    }
+
+    private fun GenerationProfile.toGenerativeModel(systemInstruction: Content? = null): GenerativeModel {
+        return GenerativeModel(
+            modelName = modelName,
+            apiKey = requireApiKey(),
+            generationConfig = toGenerationConfig(),
+            systemInstruction = systemInstruction
+        )
+    }
+
+    private fun requireApiKey(): String {
+        val apiKey = com.kaaneneskpc.f1setupinstructor.core.network.BuildConfig.GEMINI_API_KEY
+
+        if (apiKey.isEmpty()) {
+            throw IllegalStateException(
+                "Gemini API key not configured! " +
+                "Please add GEMINI_API_KEY=your_key to local.properties"
+            )
+        }
+        return apiKey
     }
 }
@@ -0,0 +1,101 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.dto
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.squareup.moshi.JsonClass
+
+/**
+ * Wire model for the setup JSON returned by the AI
+ * Parsed with a Moshi adapter generated at compile time (no kotlin-reflect at runtime)
+ */
+@JsonClass(generateAdapter = true)
+data class SetupDataDto(
+    val trackName: String,
+    val carModel: String,
+    val gameVersion: String,
+    val weatherCondition: String,
+    val setupType: String,
+    val imageUrl: String,
+    val isFavorite: Boolean = false,
+
+    // Aerodynamics
+    val frontWingAero: Int,
+    val rearWingAero: Int,
+
+    // Transmission
+    val onThrottle: Int,
+    val offThrottle: Int,
+    val engineBraking: Int,
+
+    // Suspension Geometry
+    val frontCamber: Float,
+    val rearCamber: Float,
+    val frontToe: Float,
+    val rearToe: Float,
+
+    // Suspension
+    val frontSuspension: Int,
+    val rearSuspension: Int,
+    val frontAntiRollBar: Int,
+    val rearAntiRollBar: Int,
+    val frontRideHeight: Int,
+    val rearRideHeight: Int,
+
+    // Brakes
+    val brakePressure: Int,
+    val frontBrakeBias: Int,
+
+    // Tyres
+    val frontLeftTyrePsi: Float,
+    val frontRightTyrePsi: Float,
+    val rearLeftTyrePsi: Float,
+    val rearRightTyrePsi: Float,
+
+    // Textual info
+    val tyreStrategy: String,
+    val keyPointers: String,
+    val creatorNotes: String,
+
+    // Track Details
+    val trackLength: String,
+    val trackCorners: String,
+    val trackDrsZones: String,
+    val trackIdealLaps: String
+)
+
+fun SetupDataDto.toDomainModel(): SetupData = SetupData(
+    trackName = trackName,
+    carModel = carModel,
+    gameVersion = gameVersion,
+    weatherCondition = weatherCondition,
+    setupType = setupType,
+    imageUrl = imageUrl,
+    isFavorite = isFavorite,
+    frontWingAero = frontWingAero,
+    rearWingAero = rearWingAero,
+    onThrottle = onThrottle,
+    offThrottle = offThrottle,
+    engineBraking = engineBraking,
+    frontCamber = frontCamber,
+    rearCamber = rearCamber,
+    frontToe = frontToe,
+    rearToe = rearToe,
+    frontSuspension = frontSuspension,
+    rearSuspension = rearSuspension,
+    frontAntiRollBar = frontAntiRollBar,
+    rearAntiRollBar = rearAntiRollBar,
+    frontRideHeight = frontRideHeight,
+    rearRideHeight = rearRideHeight,
+    brakePressure = brakePressure,
+    frontBrakeBias = frontBrakeBias,
+    frontLeftTyrePsi = frontLeftTyrePsi,
+    frontRightTyrePsi = frontRightTyrePsi,
+    rearLeftTyrePsi = rearLeftTyrePsi,
+    rearRightTyrePsi = rearRightTyrePsi,
+    tyreStrategy = tyreStrategy,
+    keyPointers = keyPointers,
+    creatorNotes = creatorNotes,
+    trackLength = trackLength,
+    trackCorners = trackCorners,
+    trackDrsZones = trackDrsZones,
+    trackIdealLaps = trackIdealLaps
+)
@@ -0,0 +1,10 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.format
+
+/**
+ * Wire format the model answers single setup requests in
+ * POSITIONAL drops the ~35 key names JSON repeats on every answer, see [PositionalSetupCodec]
+ */
+enum class OutputFormat {
+    JSON,
+    POSITIONAL
+}
@@ -0,0 +1,60 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.format
+
+import android.util.Log
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Output size and generation time per wire format, so JSON and positional answers can be compared
+ */
+@Singleton
+class OutputFormatStats @Inject constructor() {
+
+    data class FormatUsage(
+        val responses: Int = 0,
+        val totalOutputTokens: Long = 0,
+        val totalGenerationMillis: Long = 0,
+        val decodeFailures: Int = 0
+    ) {
+        val averageOutputTokens: Long
+            get() = if (responses == 0) 0 else totalOutputTokens / responses
+
+        val averageGenerationMillis: Long
+            get() = if (responses == 0) 0 else totalGenerationMillis / responses
+    }
+
+    private val usage = ConcurrentHashMap<OutputFormat, FormatUsage>()
+
+    fun record(format: OutputFormat, outputTokens: Int, generationMillis: Long) {
+        val updated = usage.compute(format) { _, current ->
+            val previous = current ?: FormatUsage()
+            previous.copy(
+                responses = previous.responses + 1,
+                totalOutputTokens = previous.totalOutputTokens + outputTokens,
+                totalGenerationMillis = previous.totalGenerationMillis + generationMillis
+            )
+        }
+        Log.d(
+            TAG,
+            "$format answer: $outputTokens output tokens in ${generationMillis}ms " +
+                "(avg ${updated?.averageOutputTokens} tokens, ${updated?.averageGenerationMillis}ms over ${updated?.responses})"
+        )
+    }
+
+    /**
+     * A positional answer that could not be decoded and fell back to JSON
+     */
+    fun recordDecodeFailure(format: OutputFormat) {
+        usage.compute(format) { _, current ->
+            val previous = current ?: FormatUsage()
+            previous.copy(decodeFailures = previous.decodeFailures + 1)
+        }
+    }
+
+    fun snapshot(): Map<OutputFormat, FormatUsage> = usage.toMap()
+
+    companion object {
+        private const val TAG = "OutputFormatStats"
+    }
+}
@@ -0,0 +1,125 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.format
+
+import com.kaaneneskpc.f1setupinstructor.core.network.validation.SetupValidator
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRanges
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import kotlin.math.roundToLong
+
+/**
+ * Compact wire format for a single setup: no key names, only values in a fixed order
+ *
+ * ```
+ * 28,25,55,50,45,-3.0,-1.5,0.05,0.15,5,4,6,5,25,50,95,55,23.0,23.0,21.0,21.0
+ * 5.793 km|11|2|53
+ * Medium -> Hard, pit around lap 20.
+ * Brake late into the first chicane...
+ * Low drag setup, short-shift out of the chicanes.
+ * ```
+ *
+ * Line 1 holds the numeric fields in [NUMERIC_FIELDS] order, line 2 the track details, then one line
+ * each for the strategy, driving tips and notes. Fields derived from the request are not sent at all.
+ */
+object PositionalSetupCodec {
+
+    private const val NUMBER_SEPARATOR = ","
+    private const val DETAIL_SEPARATOR = "|"
+
+    /** Phrase the prompt starts its format section with; the stand-in server keys on it */
+    const val FORMAT_MARKER = "POSITIONAL FORMAT"
+
+    val NUMERIC_FIELDS: List<String> = SetupRanges.F1_25.keys.toList()
+
+    private val DETAIL_FIELDS = listOf("trackLength", "trackCorners", "trackDrsZones", "trackIdealLaps")
+    private val NOTE_FIELDS = listOf("tyreStrategy", "keyPointers", "creatorNotes")
+
+    /**
+     * Format section of the setup prompt, generated from the same field lists the decoder uses
+     */
+    val formatSpec: String by lazy {
+        val example = encode(
+            SetupRanges.F1_25.mapValues { (_, range) -> range.default } + mapOf(
+                "trackLength" to "5.000 km",
+                "trackCorners" to "16",
+                "trackDrsZones" to "2",
+                "trackIdealLaps" to "50",
+                "tyreStrategy" to "<tyre strategy>",
+                "keyPointers" to "<3-4 driving tips>",
+                "creatorNotes" to "<setup notes and warnings>"
+            )
+        )
+        """
+        $FORMAT_MARKER - reply with EXACTLY ${2 + NOTE_FIELDS.size} lines, no JSON, no markdown, no labels:
+        Line 1: ${NUMERIC_FIELDS.size} numbers separated by commas, in this order: ${NUMERIC_FIELDS.joinToString(",")}
+        Line 2: ${DETAIL_FIELDS.joinToString(DETAIL_SEPARATOR)}
+        Line 3: tyre strategy for the given weather (one line)
+        Line 4: 3-4 key driving tips for the track (one line)
+        Line 5: setup notes and warnings (one line)
+        Example:
+        """.trimIndent() + "\n" + example
+    }
+
+    /**
+     * Decodes a positional response into the same value map a JSON response parses to
+     * Returns null when the numeric line cannot be found, since positions are meaningless without it;
+     * missing text lines are left out so the validator can ask for just those fields.
+     */
+    fun decode(responseText: String, request: SetupRequest): Map<String, Any?>? {
+        val lines = responseText.lineSequence()
+            .map { it.trim() }
+            .filter { it.isNotEmpty() && !it.startsWith("```") }
+            .toList()
+
+        val numberLine = lines.indexOfFirst { parseNumbers(it) != null }
+        if (numberLine < 0) return null
+        val numbers = parseNumbers(lines[numberLine]) ?: return null
+
+        val values = mutableMapOf<String, Any?>()
+        values.putAll(SetupValidator.derivedText(request))
+        NUMERIC_FIELDS.forEachIndexed { index, field -> values[field] = numbers[index] }
+
+        val textLines = lines.drop(numberLine + 1)
+        textLines.firstOrNull()?.split(DETAIL_SEPARATOR)?.takeIf { it.size == DETAIL_FIELDS.size }?.let { details ->
+            DETAIL_FIELDS.zip(details).forEach { (field, value) -> values[field] = value.trim() }
+        }
+        NOTE_FIELDS.forEachIndexed { index, field ->
+            textLines.getOrNull(index + 1)?.let { values[field] = it.removeLabel(field) }
+        }
+        return values
+    }
+
+    /**
+     * Encodes the generated fields of [values]; used for the prompt example and by the stand-in server
+     */
+    fun encode(values: Map<String, Any?>): String = listOf(
+        NUMERIC_FIELDS.joinToString(NUMBER_SEPARATOR) { formatNumber(it, values[it]) },
+        DETAIL_FIELDS.joinToString(DETAIL_SEPARATOR) { values[it]?.toString().orEmpty() },
+        *NOTE_FIELDS.map { values[it]?.toString().orEmpty().replace('\n', ' ') }.toTypedArray()
+    ).joinToString("\n")
+
+    /**
+     * A line of exactly [NUMERIC_FIELDS] comma separated values, most of which are numbers
+     * A single unreadable value stays null and is re-asked by the validator instead of failing the line
+     */
+    private fun parseNumbers(line: String): List<Double?>? {
+        val parts = line.split(NUMBER_SEPARATOR)
+        if (parts.size != NUMERIC_FIELDS.size) return null
+        val numbers = parts.map { it.trim().toDoubleOrNull() }
+        return numbers.takeIf { parsed -> parsed.count { it == null } <= 1 }
+    }
+
+    private fun formatNumber(field: String, value: Any?): String {
+        val number = (value as? Number)?.toDouble() ?: return "0"
+        return if (SetupRanges.F1_25[field]?.isInteger == true) number.roundToLong().toString() else number.toString()
+    }
+
+    /**
+     * Drops a "keyPointers:" style label in case the model adds one anyway
+     */
+    private fun String.removeLabel(field: String): String {
+        val colon = indexOf(':')
+        if (colon in 1..24 && substring(0, colon).trim().equals(field, ignoreCase = true)) {
+            return substring(colon + 1).trim()
+        }
+        return this
+    }
+}
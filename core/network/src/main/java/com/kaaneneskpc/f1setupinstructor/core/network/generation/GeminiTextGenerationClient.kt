@@ -0,0 +1,29 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.generation
+
+import com.google.ai.client.generativeai.GenerativeModel
+import com.google.ai.client.generativeai.type.content
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.mapNotNull
+
+/**
+ * TextGenerationClient backed by the Gemini SDK
+ * The model is created on the first call, so a missing API key fails that call instead of app startup
+ */
+class GeminiTextGenerationClient(
+    createModel: () -> GenerativeModel
+) : TextGenerationClient {
+
+    private val generativeModel by lazy(createModel)
+
+    override suspend fun generate(prompt: String): TextGeneration {
+        val response = generativeModel.generateContent(prompt)
+        return TextGeneration(
+            text = response.text,
+            promptTokenCount = response.usageMetadata?.promptTokenCount,
+            candidatesTokenCount = response.usageMetadata?.candidatesTokenCount
+        )
+    }
+
+    override fun generateStream(prompt: String): Flow<String> =
+        generativeModel.generateContentStream(content { text(prompt) }).mapNotNull { it.text }
+}
@@ -0,0 +1,71 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.generation
+
+import com.google.ai.client.generativeai.type.GenerationConfig
+import com.google.ai.client.generativeai.type.generationConfig
+
+/**
+ * Model and sampling settings for one kind of AI call
+ * The same profile configures the SDK model and the REST client, so both talk to the same model
+ */
+data class GenerationProfile(
+    val modelName: String,
+    val temperature: Float,
+    val topK: Int,
+    val topP: Float,
+    val maxOutputTokens: Int
+) {
+
+    fun toGenerationConfig(): GenerationConfig = generationConfig {
+        temperature = this@GenerationProfile.temperature
+        topK = this@GenerationProfile.topK
+        topP = this@GenerationProfile.topP
+        maxOutputTokens = this@GenerationProfile.maxOutputTokens
+    }
+
+    /**
+     * generationConfig object of a generateContent request body
+     */
+    fun toRequestConfig(): Map<String, Any> = mapOf(
+        "temperature" to temperature.toDouble(),
+        "topK" to topK,
+        "topP" to topP.toDouble(),
+        "maxOutputTokens" to maxOutputTokens
+    )
+
+    companion object {
+        /** Single-tier setup research */
+        val SETUP = GenerationProfile(
+            modelName = "gemini-2.5-flash",
+            temperature = 0.7f,
+            topK = 40,
+            topP = 0.95f,
+            maxOutputTokens = 8192
+        )
+
+        /** Fast first answer of the two-tier mode; lower temperature keeps the small model inside the ranges */
+        val SETUP_DRAFT = GenerationProfile(
+            modelName = "gemini-2.5-flash-lite",
+            temperature = 0.4f,
+            topK = 40,
+            topP = 0.95f,
+            maxOutputTokens = 4096
+        )
+
+        /** Slower, stronger model whose answer replaces the draft */
+        val SETUP_REFINE = GenerationProfile(
+            modelName = "gemini-2.5-pro",
+            temperature = 0.7f,
+            topK = 40,
+            topP = 0.95f,
+            maxOutputTokens = 8192
+        )
+
+        val CHAT = GenerationProfile(
+            modelName = "gemini-2.5-flash",
+            temperature = 0.7f,
+            topK = 40,
+            topP = 0.95f,
+            maxOutputTokens = 2048
+        )
+    }
+}
@@ -0,0 +1,125 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.generation
+
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.suspendCancellableCoroutine
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Minimal Gemini REST client (generateContent and streamGenerateContent over SSE)
+ * Used to point the setup pipeline at a different host, e.g. a Gemini compatible proxy or the stand-in server in tests.
+ */
+class RestTextGenerationClient(
+    private val baseUrl: String,
+    private val modelName: String,
+    private val apiKey: String,
+    moshi: Moshi,
+    private val generationConfig: Map<String, Any> = emptyMap(),
+    private val okHttpClient: OkHttpClient = OkHttpClient.Builder()
+        .readTimeout(2, TimeUnit.MINUTES)
+        .build()
+) : TextGenerationClient {
+
+    private val mapAdapter = moshi.adapter<Map<String, Any?>>(
+        Types.newParameterizedType(Map::class.java, String::class.java, Any::class.java)
+    )
+    private val jsonMediaType = "application/json".toMediaType()
+
+    override suspend fun generate(prompt: String): TextGeneration {
+        val response = newCall("generateContent", prompt).await()
+        val body = response.use { checkSuccessful(it).body?.string().orEmpty() }
+        val json = mapAdapter.fromJson(body) ?: throw IOException("Empty generateContent body")
+        val usage = json["usageMetadata"] as? Map<*, *>
+        return TextGeneration(
+            text = candidateText(json),
+            promptTokenCount = (usage?.get("promptTokenCount") as? Number)?.toInt(),
+            candidatesTokenCount = (usage?.get("candidatesTokenCount") as? Number)?.toInt()
+        )
+    }
+
+    override fun generateStream(prompt: String): Flow<String> = flow {
+        val call = newCall("streamGenerateContent", prompt, "alt=sse")
+        try {
+            call.await().use { response ->
+                val source = checkSuccessful(response).body?.source() ?: return@use
+                while (true) {
+                    val line = source.readUtf8Line() ?: break
+                    if (!line.startsWith(SSE_DATA_PREFIX)) continue
+                    val json = mapAdapter.fromJson(line.removePrefix(SSE_DATA_PREFIX)) ?: continue
+                    candidateText(json)?.let { emit(it) }
+                }
+            }
+        } finally {
+            call.cancel()
+        }
+    }.flowOn(Dispatchers.IO)
+
+    private fun newCall(method: String, prompt: String, query: String? = null): Call {
+        val payload = mapOf(
+            "contents" to listOf(mapOf("role" to "user", "parts" to listOf(mapOf("text" to prompt)))),
+            "generationConfig" to generationConfig
+        )
+        val url = buildString {
+            append(baseUrl.trimEnd('/'))
+            append("/v1beta/models/").append(modelName).append(':').append(method)
+            append("?key=").append(apiKey)
+            if (query != null) append('&').append(query)
+        }
+        val request = Request.Builder()
+            .url(url)
+            .post(mapAdapter.toJson(payload).toRequestBody(jsonMediaType))
+            .build()
+        return okHttpClient.newCall(request)
+    }
+
+    private fun checkSuccessful(response: Response): Response {
+        if (!response.isSuccessful) {
+            throw GenerationHttpException(response.code, response.body?.string().orEmpty())
+        }
+        return response
+    }
+
+    private fun candidateText(json: Map<String, Any?>): String? {
+        val candidate = (json["candidates"] as? List<*>)?.firstOrNull() as? Map<*, *> ?: return null
+        val parts = (candidate["content"] as? Map<*, *>)?.get("parts") as? List<*> ?: return null
+        return parts.mapNotNull { (it as? Map<*, *>)?.get("text") as? String }
+            .joinToString("")
+            .ifEmpty { null }
+    }
+
+    private suspend fun Call.await(): Response = suspendCancellableCoroutine { continuation ->
+        continuation.invokeOnCancellation { cancel() }
+        enqueue(object : Callback {
+            override fun onResponse(call: Call, response: Response) {
+                continuation.resume(response)
+            }
+
+            override fun onFailure(call: Call, e: IOException) {
+                continuation.resumeWithException(e)
+            }
+        })
+    }
+
+    companion object {
+        private const val SSE_DATA_PREFIX = "data: "
+    }
+}
+
+/**
+ * Non-2xx answer from a Gemini compatible REST endpoint; the body carries the google.rpc error details
+ */
+class GenerationHttpException(val code: Int, body: String) : IOException("HTTP $code: $body")
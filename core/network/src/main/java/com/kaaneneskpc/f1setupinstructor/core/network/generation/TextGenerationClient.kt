@@ -0,0 +1,24 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.generation
+
+import kotlinx.coroutines.flow.Flow
+
+/**
+ * Single-prompt text generation used by the setup pipeline
+ * Backed by the Gemini SDK in production, or by a plain REST client that can be pointed at
+ * any host speaking the Gemini wire format, such as the stand-in server used by the load tests.
+ */
+interface TextGenerationClient {
+
+    suspend fun generate(prompt: String): TextGeneration
+
+    /**
+     * Emits the text of each streamed chunk as it arrives
+     */
+    fun generateStream(prompt: String): Flow<String>
+}
+
+data class TextGeneration(
+    val text: String?,
+    val promptTokenCount: Int? = null,
+    val candidatesTokenCount: Int? = null
+)
@@ -0,0 +1,18 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.hedging
+
+/**
+ * When a slow setup request gets a second, identical request racing it
+ * The hedge fires once the primary has run past [percentile] of recent latencies, clamped to
+ * [minDelayMillis]..[maxDelayMillis]; [fallbackDelayMillis] is used until [minSamples] latencies are known.
+ * Every request earns [budgetRatio] hedges, banked up to [maxBudget], so at most ~10% extra calls are made.
+ */
+data class HedgePolicy(
+    val enabled: Boolean = false,
+    val percentile: Double = 0.95,
+    val minSamples: Int = 10,
+    val fallbackDelayMillis: Long = 20_000,
+    val minDelayMillis: Long = 1_000,
+    val maxDelayMillis: Long = 45_000,
+    val budgetRatio: Double = 0.1,
+    val maxBudget: Double = 3.0
+)
@@ -0,0 +1,87 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.hedging
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+data class HedgeSnapshot(
+    val requests: Long = 0,
+    val hedged: Long = 0,
+    val hedgeWins: Long = 0,
+    val budgetDenied: Long = 0,
+    val capacityDenied: Long = 0,
+    val hedgeDelayMillis: Long = 0,
+    val p50Millis: Long = 0,
+    val p95Millis: Long = 0,
+    val p99Millis: Long = 0
+) {
+    val hedgeRate: Double
+        get() = if (requests == 0L) 0.0 else hedged.toDouble() / requests
+}
+
+/**
+ * Hedging counters plus a sliding window of end-to-end latencies
+ * The primaries' latencies also drive the hedge deadline.
+ */
+class HedgeStats(private val windowSize: Int = 200) {
+
+    private val _snapshot = MutableStateFlow(HedgeSnapshot())
+    val snapshot: StateFlow<HedgeSnapshot> = _snapshot.asStateFlow()
+
+    private val endToEnd = ArrayDeque<Long>()
+    private val primaries = ArrayDeque<Long>()
+
+    /**
+     * Deadline after which a still-running primary is hedged
+     */
+    fun hedgeDelayMillis(policy: HedgePolicy): Long {
+        val samples = synchronized(this) { primaries.toList() }
+        if (samples.size < policy.minSamples) return policy.fallbackDelayMillis
+        return percentileOf(samples, policy.percentile).coerceIn(policy.minDelayMillis, policy.maxDelayMillis)
+    }
+
+    /**
+     * Latency of a primary call; for primaries cancelled by a winning hedge this is a lower bound
+     */
+    fun recordPrimary(latencyMillis: Long) {
+        synchronized(this) { primaries.push(latencyMillis) }
+    }
+
+    fun recordCompleted(latencyMillis: Long, hedged: Boolean, hedgeWon: Boolean, delayMillis: Long) {
+        val window = synchronized(this) {
+            endToEnd.push(latencyMillis)
+            endToEnd.toList()
+        }
+        _snapshot.update {
+            it.copy(
+                requests = it.requests + 1,
+                hedged = it.hedged + if (hedged) 1 else 0,
+                hedgeWins = it.hedgeWins + if (hedgeWon) 1 else 0,
+                hedgeDelayMillis = delayMillis,
+                p50Millis = percentileOf(window, 0.50),
+                p95Millis = percentileOf(window, 0.95),
+                p99Millis = percentileOf(window, 0.99)
+            )
+        }
+    }
+
+    fun recordBudgetDenied() {
+        _snapshot.update { it.copy(budgetDenied = it.budgetDenied + 1) }
+    }
+
+    fun recordCapacityDenied() {
+        _snapshot.update { it.copy(capacityDenied = it.capacityDenied + 1) }
+    }
+
+    private fun ArrayDeque<Long>.push(value: Long) {
+        addLast(value)
+        if (size > windowSize) removeFirst()
+    }
+
+    private fun percentileOf(values: Collection<Long>, quantile: Double): Long {
+        if (values.isEmpty()) return 0
+        val sorted = values.sorted()
+        return sorted[((sorted.size - 1) * quantile).toInt()]
+    }
+}
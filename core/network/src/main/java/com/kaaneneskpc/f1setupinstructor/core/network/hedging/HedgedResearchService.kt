@@ -0,0 +1,135 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.hedging
+
+import android.util.Log
+import com.kaaneneskpc.f1setupinstructor.core.network.ResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.AiRequestScheduler
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.selects.select
+import kotlinx.coroutines.withTimeoutOrNull
+
+/**
+ * Races a second, identical setup request against a primary that has run past the hedge deadline
+ * The first successful result wins and the other call is cancelled. Hedges are only sent while the
+ * hedge budget and the rate limiter both have room, so they never queue in front of real requests.
+ */
+class HedgedResearchService(
+    private val delegate: ResearchService,
+    private val scheduler: AiRequestScheduler,
+    private val policy: HedgePolicy,
+    private val stats: HedgeStats,
+    private val nanoTime: () -> Long = System::nanoTime
+) : ResearchService {
+
+    companion object {
+        private const val TAG = "HedgedResearch"
+    }
+
+    private var budget = policy.maxBudget
+
+    override suspend fun getSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<SetupData> {
+        if (!policy.enabled || priority == RequestPriority.PREFETCH) {
+            return delegate.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+        }
+
+        earnBudget()
+        val startedAt = nanoTime()
+        val delayMillis = stats.hedgeDelayMillis(policy)
+
+        return coroutineScope {
+            val primary = async { delegate.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority) }
+
+            val early = withTimeoutOrNull(delayMillis) { primary.await() }
+            if (early != null) {
+                complete(startedAt, delayMillis, hedged = false, hedgeWon = false, primaryDone = true)
+                return@coroutineScope early
+            }
+
+            if (!scheduler.hasSpareCapacity()) {
+                stats.recordCapacityDenied()
+                return@coroutineScope primary.await().also {
+                    complete(startedAt, delayMillis, hedged = false, hedgeWon = false, primaryDone = true)
+                }
+            }
+            if (!spendBudget()) {
+                stats.recordBudgetDenied()
+                return@coroutineScope primary.await().also {
+                    complete(startedAt, delayMillis, hedged = false, hedgeWon = false, primaryDone = true)
+                }
+            }
+
+            Log.d(TAG, "Hedging $track/$sessionType after ${delayMillis}ms")
+            val hedge = async { delegate.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority) }
+            val (winner, result) = firstSuccess(primary, hedge)
+            val hedgeWon = winner === hedge
+            complete(startedAt, delayMillis, hedged = true, hedgeWon = hedgeWon, primaryDone = !hedgeWon)
+            result
+        }
+    }
+
+    override suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<List<SetupData>> = delegate.getSetupsFromAiBatch(tracks, sessionType, qualyWeather, raceWeather, priority)
+
+    override fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = delegate.streamSetupFromAi(track, sessionType, qualyWeather, raceWeather)
+
+    /**
+     * Waits for the first successful call and cancels the other; if the first to finish failed,
+     * the remaining one decides the result
+     */
+    private suspend fun firstSuccess(
+        primary: Deferred<Result<SetupData>>,
+        hedge: Deferred<Result<SetupData>>
+    ): Pair<Deferred<Result<SetupData>>, Result<SetupData>> {
+        val (first, firstResult) = select {
+            primary.onAwait { primary to it }
+            hedge.onAwait { hedge to it }
+        }
+        val other = if (first === primary) hedge else primary
+        if (firstResult.isSuccess) {
+            other.cancel()
+            return first to firstResult
+        }
+        return other to other.await()
+    }
+
+    private fun complete(startedAt: Long, delayMillis: Long, hedged: Boolean, hedgeWon: Boolean, primaryDone: Boolean) {
+        val elapsedMillis = (nanoTime() - startedAt) / 1_000_000
+        // When the hedge won, the primary's own latency is unknown and would skew the hedge delay low
+        if (primaryDone) stats.recordPrimary(elapsedMillis)
+        stats.recordCompleted(elapsedMillis, hedged, hedgeWon, delayMillis)
+        if (hedged) Log.d(TAG, "Hedged request finished in ${elapsedMillis}ms, hedge won=$hedgeWon, primary done=$primaryDone")
+    }
+
+    @Synchronized
+    private fun earnBudget() {
+        budget = minOf(policy.maxBudget, budget + policy.budgetRatio)
+    }
+
+    @Synchronized
+    private fun spendBudget(): Boolean {
+        if (budget < 1.0) return false
+        budget -= 1.0
+        return true
+    }
+}
@@ -0,0 +1,91 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.json
+
+/**
+ * Extracts the top-level JSON object from a raw AI response in a linear pass, two at most
+ *
+ * - Skips markdown code fences and any text before the first '{' or after the matching '}'
+ * - When a fence follows the first '{', that brace is either prose ("{see below}") or bare JSON
+ *   followed by a fenced epilogue; it is kept only if it opens a complete object starting with a key,
+ *   otherwise scanning restarts inside the fence
+ * - Tracks quoted strings and escapes, so braces and commas inside values are left alone
+ * - Drops trailing commas before '}' or ']' (common AI mistake) while copying
+ *
+ * If the object is never closed (truncated response) everything copied so far is returned
+ * and the JSON parser reports the error.
+ */
+object SetupJsonExtractor {
+
+    private const val CODE_FENCE = "```"
+
+    private class Copy(val json: String, val isComplete: Boolean) {
+        val startsWithKey: Boolean
+            get() = json.drop(1).firstOrNull { !it.isWhitespace() } == '"'
+    }
+
+    fun extract(response: String): String {
+        val firstBrace = response.indexOf('{')
+        if (firstBrace == -1) return response.trim()
+
+        val fence = response.indexOf(CODE_FENCE)
+        val fencedStart = if (fence == -1) -1 else response.indexOf('{', fence + CODE_FENCE.length)
+        if (fencedStart == -1 || fencedStart == firstBrace) return copyObject(response, firstBrace).json
+
+        val unfenced = copyObject(response, firstBrace)
+        if (unfenced.isComplete && unfenced.startsWithKey) return unfenced.json
+        return copyObject(response, fencedStart).json
+    }
+
+    private fun copyObject(response: String, start: Int): Copy {
+        val out = StringBuilder(response.length - start)
+        var depth = 0
+        var inString = false
+        var escaping = false
+        var pendingComma = -1
+
+        for (i in start until response.length) {
+            val c = response[i]
+
+            if (inString) {
+                out.append(c)
+                when {
+                    escaping -> escaping = false
+                    c == '\\' -> escaping = true
+                    c == '"' -> inString = false
+                }
+                continue
+            }
+
+            when (c) {
+                '"' -> {
+                    pendingComma = -1
+                    inString = true
+                    out.append(c)
+                }
+                ',' -> {
+                    pendingComma = out.length
+                    out.append(c)
+                }
+                '{', '[' -> {
+                    pendingComma = -1
+                    depth++
+                    out.append(c)
+                }
+                '}', ']' -> {
+                    if (pendingComma != -1) {
+                        out.deleteCharAt(pendingComma)
+                        pendingComma = -1
+                    }
+                    depth--
+                    out.append(c)
+                    if (depth == 0) return Copy(out.toString(), isComplete = true)
+                }
+                else -> {
+                    if (!c.isWhitespace()) pendingComma = -1
+                    out.append(c)
+                }
+            }
+        }
+
+        return Copy(out.toString(), isComplete = false)
+    }
+}
@@ -0,0 +1,200 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.json
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.PartialSetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupFieldGroup
+
+/**
+ * Incremental parser for the flat SetupData JSON object
+ * Consumes response chunks character by character as they stream in and reports
+ * each field group the moment its last key/value pair is complete.
+ * Text before the first '{' (markdown fences, chatter) is skipped; nested values are ignored.
+ */
+class StreamingSetupParser {
+
+    private enum class State {
+        BEFORE_OBJECT,
+        EXPECT_KEY,
+        IN_KEY,
+        EXPECT_COLON,
+        EXPECT_VALUE,
+        IN_STRING_VALUE,
+        IN_LITERAL_VALUE,
+        IN_NESTED_VALUE,
+        AFTER_VALUE,
+        DONE
+    }
+
+    private var state = State.BEFORE_OBJECT
+    private val buffer = StringBuilder()
+    private var currentKey: String? = null
+
+    private var escaping = false
+    private var unicodeDigitsLeft = 0
+    private var unicodeValue = 0
+
+    private var nestedDepth = 0
+    private var nestedInString = false
+    private var nestedEscaping = false
+
+    private val values = LinkedHashMap<String, Any?>()
+    private val reportedGroups = mutableSetOf<SetupFieldGroup>()
+
+    /**
+     * Feeds the next chunk and returns the field groups completed by it
+     */
+    fun feed(chunk: CharSequence): List<SetupFieldGroup> {
+        for (c in chunk) {
+            consume(c)
+        }
+        return collectNewGroups()
+    }
+
+    fun snapshot(): PartialSetupData = PartialSetupData(values.toMap())
+
+    private fun consume(c: Char) {
+        when (state) {
+            State.BEFORE_OBJECT -> if (c == '{') state = State.EXPECT_KEY
+            State.EXPECT_KEY -> when (c) {
+                '"' -> startString(State.IN_KEY)
+                '}' -> state = State.DONE
+            }
+            State.IN_KEY -> if (readStringChar(c)) {
+                currentKey = buffer.toString()
+                state = State.EXPECT_COLON
+            }
+            State.EXPECT_COLON -> if (c == ':') state = State.EXPECT_VALUE
+            State.EXPECT_VALUE -> when {
+                c.isWhitespace() -> Unit
+                c == '"' -> startString(State.IN_STRING_VALUE)
+                c == '{' || c == '[' -> {
+                    nestedDepth = 1
+                    nestedInString = false
+                    nestedEscaping = false
+                    state = State.IN_NESTED_VALUE
+                }
+                else -> {
+                    buffer.setLength(0)
+                    buffer.append(c)
+                    state = State.IN_LITERAL_VALUE
+                }
+            }
+            State.IN_STRING_VALUE -> if (readStringChar(c)) {
+                commit(buffer.toString())
+                state = State.AFTER_VALUE
+            }
+            State.IN_LITERAL_VALUE -> when {
+                c == ',' -> {
+                    commit(parseLiteral(buffer.toString()))
+                    state = State.EXPECT_KEY
+                }
+                c == '}' -> {
+                    commit(parseLiteral(buffer.toString()))
+                    state = State.DONE
+                }
+                c.isWhitespace() -> {
+                    commit(parseLiteral(buffer.toString()))
+                    state = State.AFTER_VALUE
+                }
+                else -> buffer.append(c)
+            }
+            State.IN_NESTED_VALUE -> skipNested(c)
+            State.AFTER_VALUE -> when (c) {
+                ',' -> state = State.EXPECT_KEY
+                '}' -> state = State.DONE
+            }
+            State.DONE -> Unit
+        }
+    }
+
+    private fun startString(next: State) {
+        buffer.setLength(0)
+        escaping = false
+        unicodeDigitsLeft = 0
+        state = next
+    }
+
+    /**
+     * Appends one character of a JSON string to [buffer]
+     * @return true when the closing quote was reached
+     */
+    private fun readStringChar(c: Char): Boolean {
+        if (unicodeDigitsLeft > 0) {
+            unicodeValue = unicodeValue * 16 + Character.digit(c, 16).coerceAtLeast(0)
+            unicodeDigitsLeft--
+            if (unicodeDigitsLeft == 0) buffer.append(unicodeValue.toChar())
+            return false
+        }
+        if (escaping) {
+            escaping = false
+            when (c) {
+                'n' -> buffer.append('\n')
+                't' -> buffer.append('\t')
+                'r' -> buffer.append('\r')
+                'b' -> buffer.append('\b')
+                'f' -> buffer.append('\u000C')
+                'u' -> {
+                    unicodeValue = 0
+                    unicodeDigitsLeft = 4
+                }
+                else -> buffer.append(c)
+            }
+            return false
+        }
+        return when (c) {
+            '\\' -> {
+                escaping = true
+                false
+            }
+            '"' -> true
+            else -> {
+                buffer.append(c)
+                false
+            }
+        }
+    }
+
+    private fun skipNested(c: Char) {
+        if (nestedInString) {
+            when {
+                nestedEscaping -> nestedEscaping = false
+                c == '\\' -> nestedEscaping = true
+                c == '"' -> nestedInString = false
+            }
+            return
+        }
+        when (c) {
+            '"' -> nestedInString = true
+            '{', '[' -> nestedDepth++
+            '}', ']' -> {
+                nestedDepth--
+                if (nestedDepth == 0) {
+                    commit(null)
+                    state = State.AFTER_VALUE
+                }
+            }
+        }
+    }
+
+    private fun parseLiteral(raw: String): Any? {
+        val literal = raw.trim()
+        return when (literal) {
+            "true" -> true
+            "false" -> false
+            "null" -> null
+            else -> literal.toDoubleOrNull() ?: literal
+        }
+    }
+
+    private fun commit(value: Any?) {
+        currentKey?.let { values[it] = value }
+        currentKey = null
+    }
+
+    private fun collectNewGroups(): List<SetupFieldGroup> {
+        val newGroups = SetupFieldGroup.values().filter { group ->
+            group !in reportedGroups && group.fields.all { values.containsKey(it) }
+        }
+        reportedGroups.addAll(newGroups)
+        return newGroups
+    }
+}
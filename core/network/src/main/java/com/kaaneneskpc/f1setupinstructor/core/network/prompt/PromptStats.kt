@@ -0,0 +1,47 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.prompt
+
+import android.util.Log
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Per-template prompt size totals, used to track how many input tokens each request sends
+ */
+@Singleton
+class PromptStats @Inject constructor() {
+
+    data class TemplateUsage(
+        val requests: Int = 0,
+        val totalChars: Long = 0,
+        val maxChars: Int = 0,
+        val totalEstimatedTokens: Long = 0
+    ) {
+        val averageChars: Long
+            get() = if (requests == 0) 0 else totalChars / requests
+
+        val averageEstimatedTokens: Long
+            get() = if (requests == 0) 0 else totalEstimatedTokens / requests
+    }
+
+    private val usage = ConcurrentHashMap<String, TemplateUsage>()
+
+    fun record(prompt: RenderedPrompt) {
+        usage.compute(prompt.templateId) { _, current ->
+            val previous = current ?: TemplateUsage()
+            previous.copy(
+                requests = previous.requests + 1,
+                totalChars = previous.totalChars + prompt.text.length,
+                maxChars = maxOf(previous.maxChars, prompt.text.length),
+                totalEstimatedTokens = previous.totalEstimatedTokens + prompt.estimatedTokens
+            )
+        }
+        Log.d(TAG, "Prompt ${prompt.templateId}: ${prompt.text.length} chars (${prompt.staticChars} static, ${prompt.dynamicChars} dynamic), ~${prompt.estimatedTokens} tokens")
+    }
+
+    fun snapshot(): Map<String, TemplateUsage> = usage.toMap()
+
+    companion object {
+        private const val TAG = "PromptStats"
+    }
+}
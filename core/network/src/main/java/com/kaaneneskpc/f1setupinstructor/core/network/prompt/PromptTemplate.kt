@@ -0,0 +1,90 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.prompt
+
+/**
+ * Prompt template compiled once into static segments and named `{{slot}}` placeholders
+ * Rendering only copies the cached static text and fills the slots, so no per-request
+ * string building, trimIndent() or conditional interpolation is needed.
+ */
+class PromptTemplate(
+    val id: String,
+    source: String
+) {
+
+    private sealed interface Segment {
+        data class Static(val text: String) : Segment
+        data class Slot(val name: String) : Segment
+    }
+
+    private val segments: List<Segment> = compile(source)
+
+    val slotNames: Set<String> = segments.filterIsInstance<Segment.Slot>().mapTo(linkedSetOf()) { it.name }
+
+    /**
+     * Number of characters that are identical on every request
+     */
+    val staticChars: Int = segments.sumOf { if (it is Segment.Static) it.text.length else 0 }
+
+    val staticTokenEstimate: Int = estimateTokens(staticChars)
+
+    fun render(values: Map<String, String>): RenderedPrompt {
+        val builder = StringBuilder(staticChars + values.values.sumOf { it.length })
+        var dynamicChars = 0
+        for (segment in segments) {
+            when (segment) {
+                is Segment.Static -> builder.append(segment.text)
+                is Segment.Slot -> {
+                    val value = requireNotNull(values[segment.name]) { "Missing prompt slot '${segment.name}' for $id" }
+                    builder.append(value)
+                    dynamicChars += value.length
+                }
+            }
+        }
+        return RenderedPrompt(
+            templateId = id,
+            text = builder.toString(),
+            staticChars = staticChars,
+            dynamicChars = dynamicChars
+        )
+    }
+
+    companion object {
+        private const val SLOT_START = "{{"
+        private const val SLOT_END = "}}"
+
+        /**
+         * Rough Gemini token estimate (about 4 characters per token for mixed English/Turkish text)
+         */
+        fun estimateTokens(chars: Int): Int = (chars + 3) / 4
+
+        private fun compile(source: String): List<Segment> {
+            val segments = mutableListOf<Segment>()
+            var index = 0
+            while (index < source.length) {
+                val slotStart = source.indexOf(SLOT_START, index)
+                if (slotStart == -1) {
+                    segments += Segment.Static(source.substring(index))
+                    break
+                }
+                val slotEnd = source.indexOf(SLOT_END, slotStart + SLOT_START.length)
+                require(slotEnd != -1) { "Unclosed prompt slot at $slotStart" }
+                if (slotStart > index) segments += Segment.Static(source.substring(index, slotStart))
+                segments += Segment.Slot(source.substring(slotStart + SLOT_START.length, slotEnd).trim())
+                index = slotEnd + SLOT_END.length
+            }
+            return segments
+        }
+    }
+}
+
+data class RenderedPrompt(
+    val templateId: String,
+    val text: String,
+    val staticChars: Int,
+    val dynamicChars: Int
+) {
+    val estimatedTokens: Int
+        get() = PromptTemplate.estimateTokens(text.length)
+
+    override fun toString(): String =
+        "RenderedPrompt(template=$templateId, chars=${text.length}, static=$staticChars, dynamic=$dynamicChars, ~tokens=$estimatedTokens)"
+}
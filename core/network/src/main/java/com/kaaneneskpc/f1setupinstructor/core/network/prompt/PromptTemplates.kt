@@ -0,0 +1,443 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.prompt
+
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormat
+import com.kaaneneskpc.f1setupinstructor.core.network.format.PositionalSetupCodec
+import com.kaaneneskpc.f1setupinstructor.domain.baseline.TrackCategory
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRanges
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Compiled prompt templates used by ResearchServiceImpl and ChatServiceImpl
+ * Everything that depends only on the session type is baked into the static segments,
+ * so each (session, variant) pair is compiled once and only the track and weather are rendered per request
+ */
+object PromptTemplates {
+
+    const val SLOT_TRACK = "track"
+    const val SLOT_SESSION_TYPE = "sessionType"
+    const val SLOT_QUALY_WEATHER = "qualyWeather"
+    const val SLOT_RACE_WEATHER = "raceWeather"
+    const val SLOT_TRACKS = "tracks"
+    const val SLOT_TRACK_COUNT = "trackCount"
+    const val SLOT_MESSAGE = "message"
+    const val SLOT_FIELDS = "fields"
+    const val SLOT_SUMMARY = "summary"
+    const val SLOT_TRANSCRIPT = "transcript"
+
+    private const val QUALIFYING = "Qualifying"
+    private const val RACE = "Race"
+
+    /**
+     * Session specific text of the setup prompt
+     */
+    private enum class SessionKind(
+        val setupTypeDescription: String,
+        val isQualifying: Boolean
+    ) {
+        QUALIFYING_SESSION("QUALIFYING setup (1-lap pace, maximum performance, aggressive setup)", true),
+        RACE_SESSION("RACE setup (consistency, tyre management, long-run pace)", false),
+        OTHER_SESSION("BALANCED setup", false);
+
+        companion object {
+            fun of(sessionType: String): SessionKind = when (sessionType) {
+                QUALIFYING -> QUALIFYING_SESSION
+                RACE -> RACE_SESSION
+                else -> OTHER_SESSION
+            }
+        }
+    }
+
+    private val setupTemplates = ConcurrentHashMap<String, PromptTemplate>()
+
+    /**
+     * Sent once per chat model as the system instruction instead of being repeated in every turn
+     */
+    val chatSystemInstruction: String by lazy { chatSystemInstructionSource() }
+
+    val imageChat: PromptTemplate by lazy { PromptTemplate("chat-image", imageChatSource()) }
+
+    val chatSummary: PromptTemplate by lazy { PromptTemplate("chat-summary", chatSummarySource()) }
+
+    /**
+     * The positional format has a single, compact wording: the FULL rules are all about JSON syntax
+     */
+    fun setup(sessionType: String, variant: PromptVariant, format: OutputFormat = OutputFormat.JSON): PromptTemplate {
+        val kind = SessionKind.of(sessionType)
+        if (format == OutputFormat.POSITIONAL) {
+            val id = "setup-${kind.name.lowercase()}-positional"
+            return setupTemplates.getOrPut(id) { PromptTemplate(id, positionalSetupSource(kind)) }
+        }
+        val id = "setup-${kind.name.lowercase()}-${variant.name.lowercase()}"
+        return setupTemplates.getOrPut(id) {
+            val source = when (variant) {
+                PromptVariant.FULL -> fullSetupSource(kind)
+                PromptVariant.COMPACT -> compactSetupSource(kind)
+            }
+            PromptTemplate(id, source)
+        }
+    }
+
+    /**
+     * One generation for several tracks of the same session; the static part is shared by all of them
+     */
+    fun batchSetup(sessionType: String): PromptTemplate {
+        val kind = SessionKind.of(sessionType)
+        val id = "setup-batch-${kind.name.lowercase()}"
+        return setupTemplates.getOrPut(id) { PromptTemplate(id, batchSetupSource(kind)) }
+    }
+
+    fun renderBatchSetup(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): RenderedPrompt = batchSetup(sessionType).render(
+        mapOf(
+            SLOT_TRACKS to tracks.joinToString("\n") { "- $it" },
+            SLOT_TRACK_COUNT to tracks.size.toString(),
+            SLOT_SESSION_TYPE to sessionType,
+            SLOT_QUALY_WEATHER to qualyWeather,
+            SLOT_RACE_WEATHER to raceWeather
+        )
+    )
+
+    val fieldReAsk: PromptTemplate by lazy { PromptTemplate("setup-reask", fieldReAskSource()) }
+
+    /**
+     * Follow-up prompt that asks only for the fields the validator could not recover
+     */
+    fun renderFieldReAsk(request: SetupRequest, fields: Collection<String>): RenderedPrompt {
+        val ranges = SetupRanges.forGame(request.gameVersion)
+        val fieldLines = fields.joinToString("\n") { field ->
+            val range = ranges[field]
+            when {
+                range == null -> "- $field: text, max 2-3 sentences"
+                range.isInteger -> "- $field: integer ${range.min.toInt()} to ${range.max.toInt()}"
+                else -> "- $field: number ${range.min} to ${range.max}"
+            }
+        }
+        return fieldReAsk.render(
+            mapOf(
+                SLOT_TRACK to request.track,
+                SLOT_SESSION_TYPE to request.sessionType,
+                SLOT_QUALY_WEATHER to request.qualyWeather,
+                SLOT_RACE_WEATHER to request.raceWeather,
+                SLOT_FIELDS to fieldLines
+            )
+        )
+    }
+
+    fun renderSetup(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        variant: PromptVariant,
+        format: OutputFormat = OutputFormat.JSON
+    ): RenderedPrompt = setup(sessionType, variant, format).render(
+        mapOf(
+            SLOT_TRACK to track,
+            SLOT_SESSION_TYPE to sessionType,
+            SLOT_QUALY_WEATHER to qualyWeather,
+            SLOT_RACE_WEATHER to raceWeather
+        )
+    )
+
+    fun renderImageChat(message: String): RenderedPrompt =
+        imageChat.render(mapOf(SLOT_MESSAGE to message.ifBlank { "Bu görseli analiz edebilir misin?" }))
+
+    fun renderChatSummary(previousSummary: String, transcript: String): RenderedPrompt =
+        chatSummary.render(
+            mapOf(
+                SLOT_SUMMARY to previousSummary.ifBlank { "(yok)" },
+                SLOT_TRANSCRIPT to transcript
+            )
+        )
+
+    private fun weatherLines(kind: SessionKind): String =
+        if (kind.isQualifying) "Weather: {{qualyWeather}}"
+        else "Qualifying Weather: {{qualyWeather}}\nRace Weather: {{raceWeather}}"
+
+    private fun weatherCondition(kind: SessionKind): String =
+        if (kind.isQualifying) "{{qualyWeather}}" else "{{qualyWeather}} / {{raceWeather}}"
+
+    private fun focus(kind: SessionKind): String =
+        if (kind.isQualifying) "Focus on MAXIMUM DOWNFORCE and AGGRESSIVE setup for 1-lap pace"
+        else "Focus on BALANCE, TYRE WEAR and CONSISTENCY for race distance"
+
+    private fun characteristics(kind: SessionKind): String =
+        if (kind.isQualifying) {
+            """
+            QUALIFYING SETUP CHARACTERISTICS:
+            - More aggressive aero (higher downforce for better lap time)
+            - Softer suspension for maximum mechanical grip
+            - Higher brake pressure for confident late braking
+            - Lower ride height for better aero efficiency
+            - Focus on single lap performance over tyre wear
+            """.trimIndent()
+        } else {
+            """
+            RACE SETUP CHARACTERISTICS:
+            - Balanced aero (consider tyre wear and fuel load)
+            - Slightly stiffer suspension for long-run stability
+            - Moderate brake pressure to preserve brakes
+            - Slightly higher ride height for fuel load variation
+            - Focus on consistency and tyre management
+            """.trimIndent()
+        }
+
+    /**
+     * Rendered from the same track category table the on-device baseline engine uses
+     */
+    private fun wingGuidelines(kind: SessionKind): String =
+        TrackCategory.values().joinToString("\n\n") { category ->
+            val front = if (kind.isQualifying) category.qualifyingFrontWing else category.raceFrontWing
+            val rear = if (kind.isQualifying) category.qualifyingRearWing else category.raceRearWing
+            """
+            For ${category.label} tracks (${category.examples.joinToString(", ")}):
+            - Front Wing: ${front.first}-${front.last}, Rear Wing: ${rear.first}-${rear.last}
+            - Strategy: "${category.strategy}"
+            - Pointers: ${category.pointers}
+            """.trimIndent()
+        }
+
+    private fun jsonSchema(kind: SessionKind): String = """
+        {
+            "trackName": "{{track}}",
+            "carModel": "Ferrari SF-24",
+            "gameVersion": "F1 25",
+            "weatherCondition": "${weatherCondition(kind)}",
+            "setupType": "{{sessionType}}",
+            "imageUrl": "",
+            "isFavorite": false,
+            "frontWingAero": 0,
+            "rearWingAero": 0,
+            "onThrottle": 0,
+            "offThrottle": 0,
+            "engineBraking": 0,
+            "frontCamber": 0.0,
+            "rearCamber": 0.0,
+            "frontToe": 0.0,
+            "rearToe": 0.0,
+            "frontSuspension": 0,
+            "rearSuspension": 0,
+            "frontAntiRollBar": 0,
+            "rearAntiRollBar": 0,
+            "frontRideHeight": 0,
+            "rearRideHeight": 0,
+            "brakePressure": 0,
+            "frontBrakeBias": 0,
+            "frontLeftTyrePsi": 0.0,
+            "frontRightTyrePsi": 0.0,
+            "rearLeftTyrePsi": 0.0,
+            "rearRightTyrePsi": 0.0,
+            "tyreStrategy": "Describe optimal tyre strategy for this track and weather",
+            "keyPointers": "Provide 3-4 key driving tips specific to {{track}}",
+            "creatorNotes": "Add setup notes and warnings from the source",
+            "trackLength": "Actual track length in km",
+            "trackCorners": "Number of corners",
+            "trackDrsZones": "Number of DRS zones",
+            "trackIdealLaps": "Typical race distance in laps"
+        }
+        """.trimIndent()
+
+    private val setupRanges = """
+        - Aero: Front 0-50, Rear 0-50 (lower = less downforce)
+        - Camber: -3.5° to -1.0° (negative values)
+        - Toe: -0.50° to 0.50°
+        - Suspension: 1-11 (softer to stiffer)
+        - Anti-Roll Bar: 1-11 (softer to stiffer)
+        - Ride Height: 0-100mm
+        - Brake Pressure: 80-100%
+        - Brake Bias: 50-70% (front bias)
+        - Tyre Pressure: 19.0-25.0 PSI
+        """.trimIndent()
+
+    private fun fullSetupSource(kind: SessionKind): String = listOf(
+        """
+        You are an expert EA SPORTS F1 25 gaming setup researcher. Your task is to search the internet and provide the BEST and most POPULAR ${kind.setupTypeDescription} specifically for F1 25 game.
+
+        CRITICAL REQUIREMENTS:
+        1. Search ONLY for EA SPORTS F1 25 setups (NOT F1 24, F1 23, or other versions)
+        2. Find the most recent and popular setups from the community
+        3. This setup is specifically for: {{sessionType}}
+        4. Respond ONLY with valid JSON - NO explanations, NO markdown, NO extra text
+
+        SEARCH these sources for F1 25 setups:
+        - F1Laps.com (F1 25 section)
+        - SimRacingSetups.com (F1 25 setups)
+        - YouTube (F1 25 setup guides for {{track}})
+        - Reddit r/F1Game (F1 25 discussions)
+        - TrueRacing.gg (F1 25 setups)
+        - Overtake.gg (F1 25 community setups)
+
+        GAME: EA SPORTS F1 25 (2024/2025 season)
+        Track: {{track}}
+        Session Type: {{sessionType}}
+        """.trimIndent(),
+        weatherLines(kind),
+        "",
+        """
+        SEARCH STRATEGY:
+        1. Look for "F1 25 {{track}} {{sessionType}} setup" on the internet
+        2. Find setups from professional sim racers or high-rated community members
+        3. Prioritize recent setups (2024-2025 season)
+        4. Check for the latest game patch/update compatibility
+        5. Verify setup values are realistic for F1 25 game mechanics
+        6. ${focus(kind)}
+
+        IMPORTANT INSTRUCTIONS:
+        1. Use ONLY F1 25 specific setup values (NOT F1 24 or older)
+        2. For the track details, use actual F1 circuit data for {{track}}
+        3. Include weather-specific tyre strategy ({{qualyWeather}} qualifying, {{raceWeather}} race)
+        4. Add key driving tips specific to {{track}}'s layout and characteristics
+        5. Provide realistic setup values used by top F1 25 players
+        6. Return ONLY valid JSON - no markdown, no explanations, no extra text
+
+        Return EXACTLY this JSON structure with realistic F1 25 setup values for {{track}}:
+        """.trimIndent(),
+        jsonSchema(kind),
+        "",
+        """
+        CRITICAL RULES FOR F1 25:
+        1. Return ONLY raw JSON (no ```json markdown, no code blocks)
+        2. Use F1 25 specific setup ranges:
+        """.trimIndent(),
+        setupRanges.prependIndent("   "),
+        """
+        3. Ensure ALL fields are present with realistic F1 25 values
+        4. No trailing commas
+        5. Double-check JSON is valid
+        6. Keep text fields CONCISE (max 2-3 sentences each)
+        7. Make setup values specific to {{track}} characteristics in F1 25
+
+        TRACK-SPECIFIC SETUP GUIDELINES FOR F1 25:
+        """.trimIndent(),
+        "",
+        characteristics(kind),
+        "",
+        wingGuidelines(kind),
+        "",
+        """
+        Example JSON for {{track}}:
+        "tyreStrategy": "Based on {{track}} length and {{raceWeather}} weather, recommend optimal compound sequence"
+        "keyPointers": "Based on {{track}}'s key corners (e.g., Parabolica for Monza, Eau Rouge for Spa)"
+        "creatorNotes": "Specific to F1 25 handling model and {{track}} layout"
+
+        REMEMBER: This is for EA SPORTS F1 25 ONLY. Do NOT use F1 24 or F1 23 setups!
+
+        Start your response with { and end with }
+        """.trimIndent()
+    ).joinToString("\n")
+
+    private fun compactSetupSource(kind: SessionKind): String = listOf(
+        """
+        You are an EA SPORTS F1 25 setup expert. Give the best community ${kind.setupTypeDescription} for F1 25 (not F1 24/23).
+        Track: {{track}}
+        Session Type: {{sessionType}}
+        """.trimIndent(),
+        weatherLines(kind),
+        focus(kind),
+        "Use real circuit data for {{track}} and a tyre strategy for {{qualyWeather}} qualifying / {{raceWeather}} race.",
+        "",
+        "Reply with ONLY raw JSON (no markdown, no trailing commas), every field filled, text fields max 2-3 sentences:",
+        jsonSchema(kind),
+        "",
+        "F1 25 ranges:",
+        setupRanges,
+        "",
+        characteristics(kind),
+        "",
+        wingGuidelines(kind)
+    ).joinToString("\n")
+
+    private fun positionalSetupSource(kind: SessionKind): String = listOf(
+        """
+        You are an EA SPORTS F1 25 setup expert. Give the best community ${kind.setupTypeDescription} for F1 25 (not F1 24/23).
+        Track: {{track}}
+        Session Type: {{sessionType}}
+        """.trimIndent(),
+        weatherLines(kind),
+        focus(kind),
+        "Use real circuit data for {{track}} and a tyre strategy for {{qualyWeather}} qualifying / {{raceWeather}} race.",
+        "",
+        PositionalSetupCodec.formatSpec,
+        "",
+        "F1 25 ranges:",
+        setupRanges,
+        "",
+        characteristics(kind),
+        "",
+        wingGuidelines(kind)
+    ).joinToString("\n")
+
+    private fun batchSetupSource(kind: SessionKind): String = listOf(
+        """
+        You are an EA SPORTS F1 25 setup expert. Give the best community ${kind.setupTypeDescription} for F1 25 (not F1 24/23) for EACH of these {{trackCount}} tracks:
+        {{tracks}}
+        Session Type: {{sessionType}}
+        """.trimIndent(),
+        weatherLines(kind),
+        focus(kind),
+        "Use real circuit data for every track and a tyre strategy for {{qualyWeather}} qualifying / {{raceWeather}} race.",
+        "",
+        "Reply with ONLY raw JSON (no markdown, no trailing commas) of the form {\"setups\": [ ... ]} with exactly one object per track, in the order listed.",
+        "Every object has every field filled, text fields max 2-3 sentences, and this structure (trackName is the track from the list):",
+        jsonSchema(kind).replace("{{track}}", "<track>"),
+        "",
+        "F1 25 ranges:",
+        setupRanges,
+        "",
+        characteristics(kind),
+        "",
+        wingGuidelines(kind)
+    ).joinToString("\n")
+
+    private fun fieldReAskSource(): String = """
+        For the EA SPORTS F1 25 {{sessionType}} setup at {{track}} (qualifying {{qualyWeather}}, race {{raceWeather}}) these fields were missing or out of range:
+        {{fields}}
+        Reply with ONLY a raw JSON object containing exactly these fields with realistic F1 25 values.
+        """.trimIndent()
+
+    private fun chatSystemInstructionSource(): String = """
+        Sen bir F1 25 oyunu setup uzmanısın. Kullanıcının F1 setup'ları, pist stratejileri ve araba ayarları hakkındaki sorularını yanıtlıyorsun.
+
+        ÖNEMLI TALİMATLAR:
+        1. EA SPORTS F1 25 oyunu için öneriler ver (F1 24 veya F1 23 değil)
+        2. Cevaplarını kısa ve öz tut (maksimum 200 kelime, görsel analizinde 250 kelime)
+        3. Türkçe yanıt ver
+        4. Setup değerleri verirken F1 25 oyununun aralıklarını kullan:
+           - Aero: Ön/Arka 0-50 (düşük = az downforce)
+           - Camber: -3.5° ile -1.0° arası (negatif değerler)
+           - Toe: -0.50° ile 0.50° arası
+           - Süspansiyon: 1-11 (yumuşak-sert)
+           - Anti-Roll Bar: 1-11 (yumuşak-sert)
+           - Ride Height: 0-100mm
+           - Fren Basıncı: 80-100%
+           - Fren Dengesi: 50-70% (ön bias)
+           - Lastik Basıncı: 19.0-25.0 PSI
+        5. Pratik ve uygulanabilir öneriler ver
+        6. Gerekirse pist bazlı spesifik tavsiyeler sun
+        7. Önceki mesajlardaki pist, hava durumu ve sorun bilgilerini hatırla, kullanıcıdan tekrar isteme
+        """.trimIndent()
+
+    private fun imageChatSource(): String = """
+        Kullanıcı bir görsel paylaştı (setup ekranı, telemetri, oyun içi görüntü vs.).
+        Görseli F1 25 bağlamında analiz et, gördüklerini kısaca açıkla, setup değerleri varsa F1 25 aralıklarına göre değerlendir ve soruyu görselle ilişkilendirerek yanıtla.
+
+        KULLANICI MESAJI:
+        {{message}}
+        """.trimIndent()
+
+    private fun chatSummarySource(): String = """
+        Aşağıdaki F1 25 setup sohbetini, sonraki sorularda bağlam olarak kullanılacak şekilde özetle.
+        Pist, oturum, hava durumu, kullanıcının yaşadığı sorunlar, önerilen setup değerleri ve kararları koru. Maksimum 120 kelime, Türkçe, madde işaretleri kullan.
+
+        ÖNCEKİ ÖZET:
+        {{summary}}
+
+        YENİ MESAJLAR:
+        {{transcript}}
+        """.trimIndent()
+}
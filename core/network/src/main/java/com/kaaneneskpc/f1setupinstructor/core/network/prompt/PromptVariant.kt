@@ -0,0 +1,10 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.prompt
+
+/**
+ * Prompt size variants
+ * COMPACT drops the source list and search narrative and keeps only the schema, ranges and guidelines
+ */
+enum class PromptVariant {
+    FULL,
+    COMPACT
+}
@@ -0,0 +1,76 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.resilience
+
+import android.util.Log
+
+/**
+ * Opens after [failureThreshold] consecutive failed requests and rejects calls instantly for [openMillis]
+ * After that a single trial call is let through; its result closes or re-opens the circuit.
+ */
+class CircuitBreaker(
+    private val name: String,
+    private val failureThreshold: Int = 5,
+    private val openMillis: Long = 60_000,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    enum class State { CLOSED, OPEN, HALF_OPEN }
+
+    companion object {
+        private const val TAG = "CircuitBreaker"
+    }
+
+    private var state = State.CLOSED
+    private var consecutiveFailures = 0
+    private var openedAt = 0L
+
+    val currentState: State
+        @Synchronized get() = state
+
+    /**
+     * Throws [CircuitOpenException] when calls are currently being rejected
+     */
+    @Synchronized
+    fun checkAvailable() {
+        when (state) {
+            State.CLOSED -> Unit
+            State.OPEN -> {
+                val remaining = openedAt + openMillis - clock()
+                if (remaining > 0) throw CircuitOpenException(name, remaining)
+                state = State.HALF_OPEN
+                Log.d(TAG, "$name half-open, letting a trial request through")
+            }
+            State.HALF_OPEN -> throw CircuitOpenException(name, 0)
+        }
+    }
+
+    @Synchronized
+    fun onSuccess() {
+        if (state != State.CLOSED) Log.d(TAG, "$name closed")
+        state = State.CLOSED
+        consecutiveFailures = 0
+    }
+
+    @Synchronized
+    fun onFailure() {
+        consecutiveFailures++
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN
+            openedAt = clock()
+            Log.w(TAG, "$name opened after $consecutiveFailures consecutive failures")
+        }
+    }
+
+    /**
+     * Releases a half-open trial that ended without a verdict, e.g. cancelled or fatal for another reason
+     */
+    @Synchronized
+    fun onIgnored() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN
+            openedAt = clock() - openMillis
+        }
+    }
+}
+
+class CircuitOpenException(name: String, val remainingMillis: Long) :
+    Exception("AI circuit open for $name, retry in ${remainingMillis / 1000}s")
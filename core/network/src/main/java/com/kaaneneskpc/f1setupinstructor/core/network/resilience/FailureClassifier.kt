@@ -0,0 +1,84 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.resilience
+
+import com.google.ai.client.generativeai.type.InvalidAPIKeyException
+import com.google.ai.client.generativeai.type.PromptBlockedException
+import com.google.ai.client.generativeai.type.RequestTimeoutException
+import com.google.ai.client.generativeai.type.ResponseStoppedException
+import com.google.ai.client.generativeai.type.ServerException
+import com.kaaneneskpc.f1setupinstructor.core.network.BatchIncompleteException
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.GenerationHttpException
+import kotlinx.coroutines.TimeoutCancellationException
+import java.io.IOException
+
+/**
+ * How a failed Gemini call should be treated by the retry engine
+ */
+enum class FailureKind {
+    /** 429 / quota exhausted; retry after the server supplied delay when present */
+    RATE_LIMITED,
+
+    /** Timeouts, 5xx, dropped connections, truncated or malformed output */
+    TRANSIENT,
+
+    /** Bad API key, blocked prompt or any other error that will not change on retry */
+    FATAL
+}
+
+object FailureClassifier {
+
+    private val retryDelayPatterns = listOf(
+        Regex("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\""),
+        Regex("Retry-After:?\\s*(\\d+(?:\\.\\d+)?)", RegexOption.IGNORE_CASE),
+        Regex("retry in (\\d+(?:\\.\\d+)?)\\s*s", RegexOption.IGNORE_CASE)
+    )
+
+    fun classify(error: Throwable): FailureKind {
+        val message = error.message.orEmpty()
+        return when (error) {
+            is CircuitOpenException,
+            is BatchIncompleteException,
+            is InvalidAPIKeyException,
+            is PromptBlockedException -> FailureKind.FATAL
+            is GenerationHttpException -> when {
+                error.code == 429 || isRateLimit(message) -> FailureKind.RATE_LIMITED
+                error.code >= 500 || error.code == 408 -> FailureKind.TRANSIENT
+                else -> FailureKind.FATAL
+            }
+            is TimeoutCancellationException,
+            is RequestTimeoutException,
+            is ResponseStoppedException,
+            is IOException -> FailureKind.TRANSIENT
+            is ServerException -> when {
+                isRateLimit(message) -> FailureKind.RATE_LIMITED
+                else -> FailureKind.TRANSIENT
+            }
+            else -> when {
+                isRateLimit(message) -> FailureKind.RATE_LIMITED
+                message.contains("API key", ignoreCase = true) -> FailureKind.FATAL
+                message.contains("MAX_TOKENS") ||
+                    message.contains("timeout", ignoreCase = true) ||
+                    message.contains("empty response") ||
+                    message.contains("parse", ignoreCase = true) -> FailureKind.TRANSIENT
+                else -> FailureKind.FATAL
+            }
+        }
+    }
+
+    /**
+     * Server supplied delay from a Retry-After header or a google.rpc.RetryInfo "retryDelay" field
+     */
+    fun retryAfterMillis(error: Throwable): Long? {
+        val message = error.message ?: return null
+        for (pattern in retryDelayPatterns) {
+            val seconds = pattern.find(message)?.groupValues?.get(1)?.toDoubleOrNull() ?: continue
+            return (seconds * 1000).toLong()
+        }
+        return null
+    }
+
+    private fun isRateLimit(message: String): Boolean =
+        message.contains("429") ||
+            message.contains("RESOURCE_EXHAUSTED") ||
+            message.contains("quota", ignoreCase = true) ||
+            message.contains("rate limit", ignoreCase = true)
+}
@@ -0,0 +1,128 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.resilience
+
+import android.util.Log
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlin.random.Random
+
+/**
+ * Runs AI calls under a [RetryPolicy] and a [CircuitBreaker]
+ * Retryable failures are retried with backoff; fatal ones and exhausted retries are returned to the caller
+ * and counted against the circuit. Attempts and backoff are recorded in [RetryStats] per request.
+ */
+class RetryExecutor(
+    private val policy: RetryPolicy,
+    private val circuitBreaker: CircuitBreaker,
+    private val stats: RetryStats,
+    private val random: Random = Random.Default
+) {
+
+    companion object {
+        private const val TAG = "RetryExecutor"
+    }
+
+    suspend fun <T> execute(operation: String, block: suspend () -> Result<T>): Result<T> {
+        try {
+            circuitBreaker.checkAvailable()
+        } catch (e: CircuitOpenException) {
+            stats.recordCircuitRejection()
+            return Result.failure(e)
+        }
+
+        var attempt = 0
+        var backoffMillis = 0L
+        while (true) {
+            attempt++
+            val result = try {
+                block()
+            } catch (e: CancellationException) {
+                if (e !is TimeoutCancellationException) {
+                    circuitBreaker.onIgnored()
+                    throw e
+                }
+                Result.failure(e)
+            }
+
+            val error = result.exceptionOrNull()
+            if (error == null) {
+                circuitBreaker.onSuccess()
+                finish(RetryRecord(operation, attempt, backoffMillis, succeeded = true))
+                return result
+            }
+
+            val delayMillis = nextDelay(error, attempt)
+            if (delayMillis == null) {
+                fail(operation, attempt, backoffMillis, error)
+                return result
+            }
+            Log.d(TAG, "$operation attempt $attempt failed (${error.message}), retrying in ${delayMillis}ms")
+            backoffMillis += delayMillis
+            delay(delayMillis)
+        }
+    }
+
+    /**
+     * Retries a flow only while it has not emitted anything yet, so collectors never see duplicated items
+     */
+    fun <T> executeFlow(operation: String, block: () -> Flow<T>): Flow<T> = flow {
+        try {
+            circuitBreaker.checkAvailable()
+        } catch (e: CircuitOpenException) {
+            stats.recordCircuitRejection()
+            throw e
+        }
+
+        var attempt = 0
+        var backoffMillis = 0L
+        while (true) {
+            attempt++
+            var emitted = false
+            try {
+                block().collect { value ->
+                    emitted = true
+                    emit(value)
+                }
+                circuitBreaker.onSuccess()
+                finish(RetryRecord(operation, attempt, backoffMillis, succeeded = true))
+                return@flow
+            } catch (e: Exception) {
+                if (e is CancellationException && e !is TimeoutCancellationException) {
+                    circuitBreaker.onIgnored()
+                    throw e
+                }
+                val delayMillis = if (emitted) null else nextDelay(e, attempt)
+                if (delayMillis == null) {
+                    fail(operation, attempt, backoffMillis, e)
+                    throw e
+                }
+                Log.d(TAG, "$operation stream attempt $attempt failed (${e.message}), retrying in ${delayMillis}ms")
+                backoffMillis += delayMillis
+                delay(delayMillis)
+            }
+        }
+    }
+
+    /**
+     * Delay before the next attempt, or null when the failure should be surfaced
+     */
+    private fun nextDelay(error: Throwable, attempt: Int): Long? {
+        val kind = FailureClassifier.classify(error)
+        if (kind == FailureKind.FATAL || attempt >= policy.maxAttempts) return null
+        val retryAfter = if (kind == FailureKind.RATE_LIMITED) FailureClassifier.retryAfterMillis(error) else null
+        return policy.backoffMillis(attempt, retryAfter, random)
+    }
+
+    private fun fail(operation: String, attempts: Int, backoffMillis: Long, error: Throwable) {
+        val kind = FailureClassifier.classify(error)
+        if (kind == FailureKind.FATAL) circuitBreaker.onIgnored() else circuitBreaker.onFailure()
+        finish(RetryRecord(operation, attempts, backoffMillis, succeeded = false, failureKind = kind))
+    }
+
+    private fun finish(record: RetryRecord) {
+        stats.record(record)
+        Log.d(TAG, "${record.operation}: attempts=${record.attempts}, backoff=${record.backoffMillis}ms, success=${record.succeeded}")
+    }
+}
@@ -0,0 +1,20 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.resilience
+
+import kotlin.math.min
+import kotlin.random.Random
+
+/**
+ * Exponential backoff with equal jitter: a random delay between half and all of the exponential step
+ * A server supplied Retry-After always wins over the computed delay, capped at [maxDelayMillis]
+ */
+data class RetryPolicy(
+    val maxAttempts: Int = 3,
+    val baseDelayMillis: Long = 1_000,
+    val maxDelayMillis: Long = 30_000
+) {
+    fun backoffMillis(attempt: Int, retryAfterMillis: Long?, random: Random): Long {
+        if (retryAfterMillis != null) return min(retryAfterMillis, maxDelayMillis)
+        val exponential = min(maxDelayMillis, baseDelayMillis shl (attempt - 1).coerceIn(0, 20))
+        return random.nextLong(exponential / 2, exponential + 1)
+    }
+}
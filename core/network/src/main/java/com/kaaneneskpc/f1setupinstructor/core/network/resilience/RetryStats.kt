@@ -0,0 +1,50 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.resilience
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+/**
+ * Outcome of one logical request after all of its attempts
+ */
+data class RetryRecord(
+    val operation: String,
+    val attempts: Int,
+    val backoffMillis: Long,
+    val succeeded: Boolean,
+    val failureKind: FailureKind? = null
+)
+
+data class RetrySnapshot(
+    val requests: Long = 0,
+    val retriedRequests: Long = 0,
+    val failedRequests: Long = 0,
+    val circuitRejections: Long = 0,
+    val totalAttempts: Long = 0,
+    val totalBackoffMillis: Long = 0,
+    val recent: List<RetryRecord> = emptyList()
+)
+
+class RetryStats(private val recentLimit: Int = 50) {
+
+    private val _snapshot = MutableStateFlow(RetrySnapshot())
+    val snapshot: StateFlow<RetrySnapshot> = _snapshot.asStateFlow()
+
+    fun record(record: RetryRecord) {
+        _snapshot.update {
+            it.copy(
+                requests = it.requests + 1,
+                retriedRequests = it.retriedRequests + if (record.attempts > 1) 1 else 0,
+                failedRequests = it.failedRequests + if (record.succeeded) 0 else 1,
+                totalAttempts = it.totalAttempts + record.attempts,
+                totalBackoffMillis = it.totalBackoffMillis + record.backoffMillis,
+                recent = (it.recent + record).takeLast(recentLimit)
+            )
+        }
+    }
+
+    fun recordCircuitRejection() {
+        _snapshot.update { it.copy(circuitRejections = it.circuitRejections + 1) }
+    }
+}
@@ -0,0 +1,183 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.scheduler
+
+import android.util.Log
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.launch
+
+/**
+ * Client-side rate limiter shared by every Gemini call
+ * A token bucket sized to the free-tier quota hands out permits, and queued callers are
+ * served strictly by [RequestPriority] lane, FIFO within a lane.
+ * A queued caller whose context carries a [PriorityPromotion] moves to the higher lane when it is promoted.
+ */
+class AiRequestScheduler(
+    private val requestsPerMinute: Int = DEFAULT_REQUESTS_PER_MINUTE,
+    private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Default),
+    private val nanoTime: () -> Long = System::nanoTime
+) {
+
+    companion object {
+        private const val TAG = "AiRequestScheduler"
+        const val DEFAULT_REQUESTS_PER_MINUTE = 15
+        private const val NANOS_PER_MINUTE = 60_000_000_000L
+    }
+
+    /** [priority] is only changed under the scheduler lock */
+    private class Waiter(var priority: RequestPriority, val enqueuedAt: Long) {
+        val granted = CompletableDeferred<Unit>()
+    }
+
+    private val lock = Any()
+    private val lanes = RequestPriority.entries.associateWith { ArrayDeque<Waiter>() }
+    private val nanosPerToken = NANOS_PER_MINUTE / requestsPerMinute
+    private var tokens = requestsPerMinute.toDouble()
+    private var lastRefillAt = nanoTime()
+    private var drainJob: Job? = null
+
+    private val _stats = MutableStateFlow(SchedulerStats())
+    val stats: StateFlow<SchedulerStats> = _stats.asStateFlow()
+
+    /**
+     * Runs [block] once a permit is available for [priority]
+     */
+    suspend fun <T> schedule(priority: RequestPriority, block: suspend () -> T): T {
+        acquire(priority)
+        return block()
+    }
+
+    /**
+     * Suspends until a permit is granted and returns how long the caller waited in the queue
+     */
+    suspend fun acquire(priority: RequestPriority): Long {
+        val promotion = currentCoroutineContext()[PriorityPromotion]
+        val waiter = Waiter(promotion?.priority?.takeIf { it < priority } ?: priority, nanoTime())
+        synchronized(lock) {
+            refillLocked()
+            if (lanes.values.all { it.isEmpty() } && tokens >= 1.0) {
+                tokens -= 1.0
+                recordWait(waiter.priority, 0L)
+                return 0L
+            }
+            lanes.getValue(waiter.priority).addLast(waiter)
+            drainLocked()
+        }
+
+        if (promotion != null) {
+            promotion.onPromote { to -> promote(waiter, to) }
+            // A promotion between reading the priority and registering the listener would be missed otherwise
+            promote(waiter, promotion.priority)
+        }
+        try {
+            waiter.granted.await()
+        } catch (e: CancellationException) {
+            synchronized(lock) {
+                if (!lanes.getValue(waiter.priority).remove(waiter)) {
+                    // Permit was granted right before cancellation; hand it to the next caller
+                    tokens = minOf(requestsPerMinute.toDouble(), tokens + 1.0)
+                    drainLocked()
+                }
+            }
+            throw e
+        } finally {
+            promotion?.onPromote(null)
+        }
+
+        val waitedMillis = (nanoTime() - waiter.enqueuedAt) / 1_000_000
+        val lane = synchronized(lock) { waiter.priority }
+        recordWait(lane, waitedMillis)
+        Log.d(TAG, "$lane request waited ${waitedMillis}ms for a permit")
+        return waitedMillis
+    }
+
+    /**
+     * Moves a still queued [waiter] to the end of the [to] lane
+     */
+    private fun promote(waiter: Waiter, to: RequestPriority) {
+        synchronized(lock) {
+            if (to >= waiter.priority || !lanes.getValue(waiter.priority).remove(waiter)) return
+            Log.d(TAG, "Promoting queued ${waiter.priority} request to $to")
+            waiter.priority = to
+            lanes.getValue(to).addLast(waiter)
+            drainLocked()
+        }
+    }
+
+    /**
+     * True when nobody is queued and a permit could be granted while still leaving [reserve] permits,
+     * used for optional extra calls that must never delay real requests
+     */
+    fun hasSpareCapacity(reserve: Int = 1): Boolean = synchronized(lock) {
+        refillLocked()
+        lanes.values.all { it.isEmpty() } && tokens >= 1.0 + reserve
+    }
+
+    private fun refillLocked() {
+        val now = nanoTime()
+        val elapsed = now - lastRefillAt
+        if (elapsed <= 0) return
+        tokens = minOf(requestsPerMinute.toDouble(), tokens + elapsed.toDouble() / nanosPerToken)
+        lastRefillAt = now
+    }
+
+    private fun drainLocked() {
+        refillLocked()
+        while (tokens >= 1.0) {
+            val next = RequestPriority.entries.firstNotNullOfOrNull { lanes.getValue(it).removeFirstOrNull() } ?: break
+            tokens -= 1.0
+            next.granted.complete(Unit)
+        }
+
+        val queued = lanes.values.sumOf { it.size }
+        _stats.update { it.copy(queued = queued) }
+        if (queued > 0 && drainJob?.isActive != true) {
+            val delayMillis = ((1.0 - tokens) * nanosPerToken / 1_000_000).toLong().coerceAtLeast(1L)
+            drainJob = scope.launch {
+                delay(delayMillis)
+                synchronized(lock) {
+                    drainJob = null
+                    drainLocked()
+                }
+            }
+        }
+    }
+
+    private fun recordWait(priority: RequestPriority, waitedMillis: Long) {
+        _stats.update { stats ->
+            val lane = stats.lanes[priority] ?: LaneStats()
+            stats.copy(
+                lanes = stats.lanes + (priority to lane.copy(
+                    granted = lane.granted + 1,
+                    delayed = lane.delayed + if (waitedMillis > 0) 1 else 0,
+                    totalWaitMillis = lane.totalWaitMillis + waitedMillis,
+                    maxWaitMillis = maxOf(lane.maxWaitMillis, waitedMillis)
+                ))
+            )
+        }
+    }
+}
+
+data class SchedulerStats(
+    val queued: Int = 0,
+    val lanes: Map<RequestPriority, LaneStats> = emptyMap()
+)
+
+data class LaneStats(
+    val granted: Long = 0,
+    val delayed: Long = 0,
+    val totalWaitMillis: Long = 0,
+    val maxWaitMillis: Long = 0
+) {
+    val averageWaitMillis: Long
+        get() = if (granted == 0L) 0 else totalWaitMillis / granted
+}
@@ -0,0 +1,37 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.scheduler
+
+import kotlin.coroutines.AbstractCoroutineContextElement
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Priority of a request that can be raised while it is already queued
+ * Carried in the coroutine context, so the layers between the caller and [AiRequestScheduler] need no changes;
+ * a speculative PREFETCH call is promoted this way once the user actually asks for its result.
+ */
+class PriorityPromotion(initial: RequestPriority) : AbstractCoroutineContextElement(PriorityPromotion) {
+
+    companion object Key : CoroutineContext.Key<PriorityPromotion>
+
+    @Volatile
+    var priority: RequestPriority = initial
+        private set
+
+    private var listener: ((RequestPriority) -> Unit)? = null
+
+    /**
+     * Raises the priority to [to]; returns false when the request already has that priority or a higher one
+     */
+    fun promote(to: RequestPriority): Boolean {
+        val notify = synchronized(this) {
+            if (to >= priority) return false
+            priority = to
+            listener
+        }
+        notify?.invoke(to)
+        return true
+    }
+
+    internal fun onPromote(listener: ((RequestPriority) -> Unit)?) {
+        synchronized(this) { this.listener = listener }
+    }
+}
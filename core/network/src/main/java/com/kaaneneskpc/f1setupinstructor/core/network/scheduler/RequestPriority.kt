@@ -0,0 +1,10 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.scheduler
+
+/**
+ * Scheduler lanes in the order they are served
+ */
+enum class RequestPriority {
+    USER_SETUP,
+    CHAT,
+    PREFETCH
+}
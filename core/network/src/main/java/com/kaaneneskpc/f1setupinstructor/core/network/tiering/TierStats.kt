@@ -0,0 +1,95 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.tiering
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+data class TierSnapshot(
+    val drafts: Long = 0,
+    val draftFailures: Long = 0,
+    val draftP50Millis: Long = 0,
+    val draftP95Millis: Long = 0,
+    val refinements: Long = 0,
+    val refineFailures: Long = 0,
+    val refineP50Millis: Long = 0,
+    val refineP95Millis: Long = 0,
+    /** Refinements that arrived before the draft, so no draft was shown */
+    val refinedFirst: Long = 0,
+    /** Refinements that changed at least one numeric value of the shown draft */
+    val changedRefinements: Long = 0,
+    val changedFields: Long = 0
+) {
+    /** Share of shown drafts the refinement actually corrected */
+    val changeRate: Double
+        get() {
+            val compared = refinements - refinedFirst
+            return if (compared <= 0L) 0.0 else changedRefinements.toDouble() / compared
+        }
+}
+
+/**
+ * Latency and outcome of the draft and refinement tiers, measured separately
+ * Latencies are from the start of the request, so the two windows are directly comparable.
+ */
+class TierStats(private val windowSize: Int = 200) {
+
+    private val _snapshot = MutableStateFlow(TierSnapshot())
+    val snapshot: StateFlow<TierSnapshot> = _snapshot.asStateFlow()
+
+    private val draftLatencies = ArrayDeque<Long>()
+    private val refineLatencies = ArrayDeque<Long>()
+
+    fun recordDraft(latencyMillis: Long) {
+        val window = synchronized(this) {
+            draftLatencies.push(latencyMillis)
+            draftLatencies.toList()
+        }
+        _snapshot.update {
+            it.copy(
+                drafts = it.drafts + 1,
+                draftP50Millis = percentileOf(window, 0.50),
+                draftP95Millis = percentileOf(window, 0.95)
+            )
+        }
+    }
+
+    fun recordDraftFailure() {
+        _snapshot.update { it.copy(draftFailures = it.draftFailures + 1) }
+    }
+
+    /**
+     * [changedFields] is null when the refinement arrived before any draft was shown
+     */
+    fun recordRefinement(latencyMillis: Long, changedFields: Int?) {
+        val window = synchronized(this) {
+            refineLatencies.push(latencyMillis)
+            refineLatencies.toList()
+        }
+        _snapshot.update {
+            it.copy(
+                refinements = it.refinements + 1,
+                refineP50Millis = percentileOf(window, 0.50),
+                refineP95Millis = percentileOf(window, 0.95),
+                refinedFirst = it.refinedFirst + if (changedFields == null) 1 else 0,
+                changedRefinements = it.changedRefinements + if ((changedFields ?: 0) > 0) 1 else 0,
+                changedFields = it.changedFields + (changedFields ?: 0)
+            )
+        }
+    }
+
+    fun recordRefineFailure() {
+        _snapshot.update { it.copy(refineFailures = it.refineFailures + 1) }
+    }
+
+    private fun ArrayDeque<Long>.push(value: Long) {
+        addLast(value)
+        if (size > windowSize) removeFirst()
+    }
+
+    private fun percentileOf(values: Collection<Long>, quantile: Double): Long {
+        if (values.isEmpty()) return 0
+        val sorted = values.sorted()
+        return sorted[((sorted.size - 1) * quantile).toInt()]
+    }
+}
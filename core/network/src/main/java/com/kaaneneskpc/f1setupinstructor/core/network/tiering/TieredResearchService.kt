@@ -0,0 +1,108 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.tiering
+
+import android.util.Log
+import com.kaaneneskpc.f1setupinstructor.core.network.ResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.RequestPriority
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import com.kaaneneskpc.f1setupinstructor.domain.model.changedFieldsFrom
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.launch
+
+/**
+ * Two-tier setup research: a fast draft model streams a setup that is shown at once,
+ * while a stronger model works on the same request and replaces the draft when it arrives
+ * Non-streaming calls only use the refine tier, since they feed the cache and nobody is watching them.
+ */
+class TieredResearchService(
+    private val draft: ResearchService,
+    private val refine: ResearchService,
+    private val stats: TierStats,
+    private val nanoTime: () -> Long = System::nanoTime
+) : ResearchService {
+
+    companion object {
+        private const val TAG = "TieredResearch"
+    }
+
+    override suspend fun getSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<SetupData> = refine.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, priority)
+
+    override suspend fun getSetupsFromAiBatch(
+        tracks: List<String>,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String,
+        priority: RequestPriority
+    ): Result<List<SetupData>> = refine.getSetupsFromAiBatch(tracks, sessionType, qualyWeather, raceWeather, priority)
+
+    /**
+     * Runs both tiers concurrently; the draft's events are forwarded as they come and the
+     * refinement follows as [SetupStreamEvent.Refined]. A refinement that wins the race simply
+     * completes the stream, and a failed tier is covered by the other one.
+     */
+    override fun streamSetupFromAi(
+        track: String,
+        sessionType: String,
+        qualyWeather: String,
+        raceWeather: String
+    ): Flow<SetupStreamEvent> = channelFlow {
+        val startedAt = nanoTime()
+        val refinement = async {
+            refine.getSetupFromAi(track, sessionType, qualyWeather, raceWeather, RequestPriority.USER_SETUP)
+        }
+
+        var shownDraft: SetupData? = null
+        val drafting = launch {
+            try {
+                draft.streamSetupFromAi(track, sessionType, qualyWeather, raceWeather).collect { event ->
+                    if (event is SetupStreamEvent.Completed) {
+                        stats.recordDraft(elapsedMillis(startedAt))
+                        send(event.copy(isDraft = true))
+                        shownDraft = event.setupData
+                    } else {
+                        send(event)
+                    }
+                }
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                Log.w(TAG, "Draft for $track/$sessionType failed, waiting for the refinement: ${e.message}")
+                stats.recordDraftFailure()
+            }
+        }
+
+        val refined = refinement.await()
+        refined.onFailure { error ->
+            stats.recordRefineFailure()
+            drafting.join()
+            if (shownDraft == null) throw error
+            Log.w(TAG, "Refinement for $track/$sessionType failed, keeping the draft: ${error.message}")
+            return@channelFlow
+        }
+
+        drafting.cancelAndJoin()
+        val refinedSetup = refined.getOrThrow()
+        val draftSetup = shownDraft
+        if (draftSetup == null) {
+            stats.recordRefinement(elapsedMillis(startedAt), changedFields = null)
+            send(SetupStreamEvent.Completed(refinedSetup))
+        } else {
+            val changed = refinedSetup.changedFieldsFrom(draftSetup)
+            stats.recordRefinement(elapsedMillis(startedAt), changed.size)
+            Log.d(TAG, "Refinement for $track/$sessionType changed ${changed.size} values: $changed")
+            send(SetupStreamEvent.Refined(refinedSetup, changed))
+        }
+    }
+
+    private fun elapsedMillis(startedAt: Long): Long = (nanoTime() - startedAt) / 1_000_000
+}
@@ -0,0 +1,58 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.validation
+
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+data class SetupRepairSnapshot(
+    val validated: Long = 0,
+    val clean: Long = 0,
+    val rescued: Long = 0,
+    val repairedFields: Long = 0,
+    val reAsks: Long = 0,
+    val reAskedFields: Long = 0,
+    val reAskFailures: Long = 0,
+    val forcedFields: Long = 0
+) {
+    /**
+     * Responses with missing or mistyped fields; before local repair each of them failed to parse
+     * and cost a full regeneration
+     */
+    val savedRegenerations: Long
+        get() = rescued
+}
+
+/**
+ * Counts how often AI setups needed local repairs or a follow-up prompt
+ */
+class SetupRepairStats {
+
+    private val _snapshot = MutableStateFlow(SetupRepairSnapshot())
+    val snapshot: StateFlow<SetupRepairSnapshot> = _snapshot.asStateFlow()
+
+    fun recordValidation(validation: SetupValidation) {
+        _snapshot.update {
+            it.copy(
+                validated = it.validated + 1,
+                clean = it.clean + if (validation.isClean) 1 else 0,
+                rescued = it.rescued + if (validation.missingFields > 0) 1 else 0,
+                repairedFields = it.repairedFields + validation.repairs.size
+            )
+        }
+    }
+
+    fun recordReAsk(fields: Int, success: Boolean) {
+        _snapshot.update {
+            it.copy(
+                reAsks = it.reAsks + 1,
+                reAskedFields = it.reAskedFields + fields,
+                reAskFailures = it.reAskFailures + if (success) 0 else 1
+            )
+        }
+    }
+
+    fun recordForced(fields: Int) {
+        _snapshot.update { it.copy(forcedFields = it.forcedFields + fields) }
+    }
+}
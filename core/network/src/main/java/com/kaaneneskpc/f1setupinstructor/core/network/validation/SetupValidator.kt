@@ -0,0 +1,140 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.validation
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.FieldRange
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRanges
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import kotlin.math.roundToLong
+
+/**
+ * Result of validating a parsed setup object
+ * [values] already contains every repair; [broken] lists the fields worth asking the model for again.
+ * [missingFields] counts fields that were absent or of the wrong type, which used to fail the whole parse.
+ */
+data class SetupValidation(
+    val values: Map<String, Any?>,
+    val repairs: List<String>,
+    val broken: Set<String>,
+    val missingFields: Int = 0
+) {
+    val isClean: Boolean
+        get() = repairs.isEmpty() && broken.isEmpty()
+}
+
+/**
+ * Checks AI setup JSON against the per-game range tables
+ * Slightly out-of-range numbers are clamped and request-derived text is filled in place; missing or
+ * wildly wrong values are reported as broken so only those fields need a follow-up prompt.
+ */
+object SetupValidator {
+
+    /** Values further outside the range than this share of its span are treated as wrong, not imprecise */
+    private const val CLAMP_TOLERANCE = 0.25
+    private const val UNKNOWN_TEXT = "-"
+
+    fun validate(values: Map<String, Any?>, request: SetupRequest): SetupValidation {
+        val repaired = values.toMutableMap()
+        val repairs = mutableListOf<String>()
+        val broken = linkedSetOf<String>()
+
+        var missing = fillDerivedText(repaired, request, repairs)
+
+        SetupRanges.forGame(request.gameVersion).forEach { (field, range) ->
+            val value = repaired[field].asDouble()
+            when {
+                value == null -> {
+                    broken += field
+                    missing++
+                }
+                value in range -> repaired[field] = normalize(value, range)
+                distanceOutside(value, range) <= range.span * CLAMP_TOLERANCE -> {
+                    repaired[field] = normalize(value.coerceIn(range.min, range.max), range)
+                    repairs += "$field clamped from $value"
+                }
+                else -> broken += field
+            }
+        }
+
+        SetupRanges.GENERATED_TEXT_FIELDS.forEach { field ->
+            val value = repaired[field]
+            if (value is Number) {
+                // "trackCorners": 18 instead of "18"
+                val number = value.toDouble()
+                repaired[field] = if (number % 1.0 == 0.0) number.toLong().toString() else number.toString()
+            } else if ((value as? String).isNullOrBlank()) {
+                broken += field
+                missing++
+            }
+        }
+
+        if (repaired["isFavorite"] !is Boolean) repaired["isFavorite"] = false
+        return SetupValidation(repaired, repairs, broken, missing)
+    }
+
+    /**
+     * Last resort for fields that are still broken after the follow-up prompt: clamp what is numeric,
+     * use the range default for missing numbers and a placeholder for missing text
+     */
+    fun forceRepair(validation: SetupValidation, request: SetupRequest): SetupValidation {
+        if (validation.broken.isEmpty()) return validation
+        val ranges = SetupRanges.forGame(request.gameVersion)
+        val repaired = validation.values.toMutableMap()
+        val repairs = validation.repairs.toMutableList()
+
+        validation.broken.forEach { field ->
+            val range = ranges[field]
+            if (range != null) {
+                val value = repaired[field].asDouble()
+                repaired[field] = normalize(value?.coerceIn(range.min, range.max) ?: range.default, range)
+                repairs += if (value == null) "$field filled with default" else "$field clamped from $value"
+            } else {
+                repaired[field] = UNKNOWN_TEXT
+                repairs += "$field filled with placeholder"
+            }
+        }
+        return SetupValidation(repaired, repairs, emptySet(), validation.missingFields)
+    }
+
+    /**
+     * Text fields that follow from the request alone, so the model never has to generate them
+     */
+    fun derivedText(request: SetupRequest): Map<String, String> = mapOf(
+        "trackName" to request.track,
+        "carModel" to SetupRequest.DEFAULT_CAR_MODEL,
+        "gameVersion" to request.gameVersion,
+        "weatherCondition" to request.weatherCondition,
+        "setupType" to request.sessionType,
+        "imageUrl" to ""
+    )
+
+    /**
+     * Fills text that can be taken from the request and returns how many fields were missing
+     */
+    private fun fillDerivedText(values: MutableMap<String, Any?>, request: SetupRequest, repairs: MutableList<String>): Int {
+        var missing = 0
+        derivedText(request).forEach { (field, fallback) ->
+            if (values[field] !is String || (field != "imageUrl" && (values[field] as String).isBlank())) {
+                values[field] = fallback
+                if (field != "imageUrl") {
+                    repairs += "$field filled from request"
+                    missing++
+                }
+            }
+        }
+        return missing
+    }
+
+    private fun distanceOutside(value: Double, range: FieldRange): Double =
+        if (value < range.min) range.min - value else value - range.max
+
+    private fun normalize(value: Double, range: FieldRange): Double =
+        if (range.isInteger) value.roundToLong().toDouble() else value
+
+    /**
+     * JSON numbers arrive as Double; the model occasionally quotes them ("22.5") or adds units ("22.5 psi")
+     */
+    private fun Any?.asDouble(): Double? = when (this) {
+        is Number -> toDouble().takeIf { it.isFinite() }
+        is String -> trim().takeWhile { it.isDigit() || it == '-' || it == '.' }.toDoubleOrNull()
+        else -> null
+    }
+}
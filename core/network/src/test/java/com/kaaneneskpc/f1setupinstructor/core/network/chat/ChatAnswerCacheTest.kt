@@ -0,0 +1,56 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.chat
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ChatAnswerCacheTest {
+
+    private var now = 0L
+    private val cache = ChatAnswerCache(maxEntries = 3, ttlMillis = 1_000, clock = { now })
+
+    @Test
+    fun spellingAndPunctuationVariantsHit() {
+        cache.put("Düzlük hızı nasıl artırılır?", "Arka kanadı azalt.", generationMillis = 4_000)
+
+        listOf("düzlük hızı nasıl artırılır", "DUZLUK HIZI NASIL ARTIRILIR??", "Düzlük hızı nasil artırılr?").forEach {
+            val hit = cache.lookup(it)
+            assertNotNull(it, hit)
+            assertEquals("Arka kanadı azalt.", hit?.answer)
+            assertEquals(4_000, hit?.generationMillis)
+        }
+    }
+
+    @Test
+    fun differentQuestionsMiss() {
+        cache.put("Düzlük hızı nasıl artırılır?", "Arka kanadı azalt.", generationMillis = 4_000)
+
+        assertNull(cache.lookup("Düzlük hızı nasıl azaltılır?"))
+        assertNull(cache.lookup("Viraj çıkışında araba kayıyor"))
+        assertTrue(ChatAnswerCache.similarity("How to increase straight line speed", "How do I increase straight line speed?") >= 0.8)
+    }
+
+    @Test
+    fun entriesExpireAfterTtl() {
+        cache.put("Viraj çıkışında araba kayıyor", "Diferansiyeli aç.", generationMillis = 3_000)
+        now = 1_001
+
+        assertNull(cache.lookup("Viraj çıkışında araba kayıyor"))
+        assertEquals(0, cache.size)
+    }
+
+    @Test
+    fun leastRecentlyUsedEntryIsDropped() {
+        cache.put("Monza için kanat ayarı", "a", generationMillis = 1)
+        cache.put("Monaco için kanat ayarı", "b", generationMillis = 1)
+        cache.put("Spa için lastik basıncı", "c", generationMillis = 1)
+        cache.lookup("Monza için kanat ayarı")
+        cache.put("Suzuka için süspansiyon", "d", generationMillis = 1)
+
+        assertEquals(3, cache.size)
+        assertNotNull(cache.lookup("Monza için kanat ayarı"))
+        assertNull(cache.lookup("Monaco için kanat ayarı"))
+    }
+}
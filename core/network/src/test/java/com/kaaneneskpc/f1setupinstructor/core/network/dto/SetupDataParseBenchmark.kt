@@ -0,0 +1,122 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.dto
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.lang.management.ManagementFactory
+
+/**
+ * Compares the old reflective SetupData parse path with the generated SetupDataDto adapter.
+ * Cold = new Moshi instance, adapter lookup and first parse; warm = steady-state parse.
+ * Results are printed so they can be compared across runs: ./gradlew :core:network:testDebugUnitTest
+ */
+class SetupDataParseBenchmark {
+
+    private val json = """
+        {
+            "trackName": "Monza",
+            "carModel": "Ferrari SF-24",
+            "gameVersion": "F1 25",
+            "weatherCondition": "Dry / Dry",
+            "setupType": "Race",
+            "imageUrl": "",
+            "isFavorite": false,
+            "frontWingAero": 12,
+            "rearWingAero": 9,
+            "onThrottle": 60,
+            "offThrottle": 55,
+            "engineBraking": 40,
+            "frontCamber": -3.2,
+            "rearCamber": -1.8,
+            "frontToe": 0.05,
+            "rearToe": 0.2,
+            "frontSuspension": 6,
+            "rearSuspension": 4,
+            "frontAntiRollBar": 7,
+            "rearAntiRollBar": 5,
+            "frontRideHeight": 22,
+            "rearRideHeight": 48,
+            "brakePressure": 95,
+            "frontBrakeBias": 56,
+            "frontLeftTyrePsi": 22.5,
+            "frontRightTyrePsi": 22.5,
+            "rearLeftTyrePsi": 20.5,
+            "rearRightTyrePsi": 20.5,
+            "tyreStrategy": "Medium to Hard one-stop around lap 22.",
+            "keyPointers": "Late braking into Rettifilo, clean exit from Parabolica.",
+            "creatorNotes": "Low drag for the straights, watch rear stability in Lesmo.",
+            "trackLength": "5.793 km",
+            "trackCorners": "11",
+            "trackDrsZones": "2",
+            "trackIdealLaps": "53"
+        }
+    """.trimIndent()
+
+    @Test
+    fun generatedAdapterMatchesReflectivePath() {
+        val reflective = reflectiveParse()
+        val generated = generatedParse()
+        assertEquals(reflective, generated)
+    }
+
+    @Test
+    fun benchmarkColdAndWarmParse() {
+        val reflectiveCold = measure(1) { reflectiveParse() }
+        val generatedCold = measure(1) { generatedParse() }
+
+        val reflectiveMoshi = Moshi.Builder().add(KotlinJsonAdapterFactory()).build()
+        val reflectiveAdapter = reflectiveMoshi.adapter(SetupData::class.java).lenient()
+        val generatedAdapter = Moshi.Builder().build().adapter(SetupDataDto::class.java).lenient()
+
+        repeat(WARMUP_ITERATIONS) {
+            reflectiveAdapter.fromJson(json)
+            generatedAdapter.fromJson(json)?.toDomainModel()
+        }
+        val reflectiveWarm = measure(MEASURED_ITERATIONS) { reflectiveAdapter.fromJson(json) }
+        val generatedWarm = measure(MEASURED_ITERATIONS) { generatedAdapter.fromJson(json)?.toDomainModel() }
+
+        println("SetupData parse benchmark")
+        println("  cold  reflective: $reflectiveCold")
+        println("  cold  generated : $generatedCold")
+        println("  warm  reflective: $reflectiveWarm")
+        println("  warm  generated : $generatedWarm")
+    }
+
+    private fun reflectiveParse(): SetupData? {
+        val moshi = Moshi.Builder().add(KotlinJsonAdapterFactory()).build()
+        return moshi.adapter(SetupData::class.java).lenient().fromJson(json)
+    }
+
+    private fun generatedParse(): SetupData? {
+        val moshi = Moshi.Builder().build()
+        return moshi.adapter(SetupDataDto::class.java).lenient().fromJson(json)?.toDomainModel()
+    }
+
+    private fun measure(iterations: Int, block: () -> Any?): Measurement {
+        val allocatedBefore = allocatedBytes()
+        val startedAt = System.nanoTime()
+        repeat(iterations) { block() }
+        val elapsedNanos = System.nanoTime() - startedAt
+        val allocated = allocatedBytes() - allocatedBefore
+        return Measurement(
+            microsPerOp = elapsedNanos / 1_000.0 / iterations,
+            bytesPerOp = if (allocated < 0) -1 else allocated / iterations
+        )
+    }
+
+    private fun allocatedBytes(): Long {
+        val bean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean ?: return -1
+        return bean.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    private data class Measurement(val microsPerOp: Double, val bytesPerOp: Long) {
+        override fun toString(): String = "%.1f us/op, %d B/op".format(microsPerOp, bytesPerOp)
+    }
+
+    private companion object {
+        const val WARMUP_ITERATIONS = 2_000
+        const val MEASURED_ITERATIONS = 5_000
+    }
+}
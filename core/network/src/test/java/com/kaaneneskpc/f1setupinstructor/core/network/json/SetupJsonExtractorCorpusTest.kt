@@ -0,0 +1,81 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.json
+
+import com.kaaneneskpc.f1setupinstructor.core.network.dto.SetupDataDto
+import com.squareup.moshi.Moshi
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import kotlin.random.Random
+
+/**
+ * Runs SetupJsonExtractor over a corpus of malformed Gemini outputs (src/test/resources/gemini-corpus)
+ * plus randomly wrapped variants, and checks the result parses into SetupDataDto.
+ * Files prefixed with "truncated" are expected to fail parsing without crashing the extractor.
+ */
+class SetupJsonExtractorCorpusTest {
+
+    private val adapter = Moshi.Builder().build().adapter(SetupDataDto::class.java).lenient()
+
+    private val corpus: List<File> by lazy {
+        val dir = File(requireNotNull(javaClass.classLoader?.getResource("gemini-corpus")).toURI())
+        dir.listFiles().orEmpty().filter { it.extension == "txt" }.sortedBy { it.name }
+    }
+
+    @Test
+    fun corpusResponsesParse() {
+        assertTrue(corpus.isNotEmpty())
+        corpus.filterNot { it.name.startsWith("truncated") }.forEach { file ->
+            val json = SetupJsonExtractor.extract(file.readText())
+            val parsed = runCatching { adapter.fromJson(json) }.getOrNull()
+            assertNotNull("Failed to parse ${file.name}: $json", parsed)
+        }
+    }
+
+    @Test
+    fun truncatedResponsesFailInParserNotExtractor() {
+        corpus.filter { it.name.startsWith("truncated") }.forEach { file ->
+            val json = SetupJsonExtractor.extract(file.readText())
+            assertTrue(runCatching { adapter.fromJson(json) }.isFailure)
+        }
+    }
+
+    @Test
+    fun bracesAndCommasInsideStringsAreKept() {
+        val json = SetupJsonExtractor.extract("""x {"a": "{ b, }", "c": [1, 2,], } y""")
+        assertEquals("""{"a": "{ b, }", "c": [1, 2] }""", json)
+    }
+
+    @Test
+    fun fencedEpilogueAfterBareJsonIsIgnored() {
+        val file = corpus.single { it.name == "unfenced-json-fenced-epilogue.txt" }
+        val parsed = adapter.fromJson(SetupJsonExtractor.extract(file.readText()))
+        assertEquals("Monza", parsed?.trackName)
+    }
+
+    @Test
+    fun randomlyWrappedResponsesParse() {
+        val random = Random(seed = 25)
+        val prefixes = listOf("", "```json\n", "```\n", "Here is the setup:\n", "Sure! {see below}\n```json\n")
+        val suffixes = listOf("", "\n```", "\n```\nGood luck!", "\n\nLet me know {if} you need more.")
+        val valid = corpus.filterNot { it.name.startsWith("truncated") }.map { it.readText() }
+
+        repeat(FUZZ_ITERATIONS) {
+            val source = SetupJsonExtractor.extract(valid[random.nextInt(valid.size)])
+            val mutated = source
+                .let { if (random.nextBoolean()) it.replace("\n}", ",\n}") else it }
+                .let { if (random.nextBoolean()) it.replace(",\n", ",\n\n  ") else it }
+            val prefix = prefixes[random.nextInt(prefixes.size)]
+            val suffix = suffixes[random.nextInt(suffixes.size)]
+            val wrapped = prefix + mutated + suffix
+
+            val parsed = runCatching { adapter.fromJson(SetupJsonExtractor.extract(wrapped)) }.getOrNull()
+            assertNotNull("Failed to parse fuzzed input:\n$wrapped", parsed)
+        }
+    }
+
+    private companion object {
+        const val FUZZ_ITERATIONS = 500
+    }
+}
@@ -0,0 +1,59 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.scheduler
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+
+class AiRequestSchedulerTest {
+
+    private var now = 0L
+    private val scheduler = AiRequestScheduler(requestsPerMinute = 1, nanoTime = { now })
+
+    @Test
+    fun promotedPrefetchOvertakesQueuedChat() = runBlocking {
+        // Takes the only permit of the minute, so the next two callers queue
+        scheduler.acquire(RequestPriority.USER_SETUP)
+        val granted = Collections.synchronizedList(mutableListOf<RequestPriority>())
+        val promotion = PriorityPromotion(RequestPriority.PREFETCH)
+
+        val prefetch = launch(Dispatchers.Default + promotion) {
+            scheduler.acquire(RequestPriority.PREFETCH)
+            granted += RequestPriority.PREFETCH
+        }
+        val chat = launch(Dispatchers.Default) {
+            scheduler.acquire(RequestPriority.CHAT)
+            granted += RequestPriority.CHAT
+        }
+        waitUntil { scheduler.stats.value.queued == 2 }
+
+        now += 60_000_000_000L
+        assertTrue(promotion.promote(RequestPriority.USER_SETUP))
+        prefetch.join()
+
+        assertEquals(listOf(RequestPriority.PREFETCH), granted.toList())
+        assertEquals(1L, scheduler.stats.value.lanes[RequestPriority.USER_SETUP]?.delayed)
+        chat.cancel()
+    }
+
+    @Test
+    fun promotionNeverLowersPriority() {
+        val promotion = PriorityPromotion(RequestPriority.CHAT)
+
+        assertFalse(promotion.promote(RequestPriority.PREFETCH))
+        assertFalse(promotion.promote(RequestPriority.CHAT))
+        assertEquals(RequestPriority.CHAT, promotion.priority)
+    }
+
+    private suspend fun waitUntil(condition: () -> Boolean) {
+        withTimeout(2_000) {
+            while (!condition()) delay(5)
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.standin
+
+import android.util.Log
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import java.io.BufferedInputStream
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.io.OutputStream
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.net.Socket
+import java.net.SocketException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+/**
+ * Local HTTP stand-in for the Gemini generateContent / streamGenerateContent endpoints
+ * Answers follow a [StandInScenario]: scripted latency, chunk timing for SSE streams,
+ * injected 429/500 responses and malformed bodies. Binds to loopback only.
+ */
+class StandInGeminiServer(
+    private val scenario: StandInScenario = StandInScenario(),
+    private val port: Int = 0
+) {
+
+    companion object {
+        private const val TAG = "StandInGeminiServer"
+    }
+
+    data class Counters(
+        val requests: Long,
+        val rateLimited: Long,
+        val serverErrors: Long,
+        val malformed: Long,
+        val streams: Long
+    )
+
+    private val random = Random(scenario.seed)
+    private val mapAdapter = Moshi.Builder().build().adapter<Map<String, Any?>>(
+        Types.newParameterizedType(Map::class.java, String::class.java, Any::class.java)
+    )
+
+    private val requests = AtomicLong()
+    private val rateLimited = AtomicLong()
+    private val serverErrors = AtomicLong()
+    private val malformed = AtomicLong()
+    private val streams = AtomicLong()
+
+    private var serverSocket: ServerSocket? = null
+    private var executor: ExecutorService? = null
+
+    val counters: Counters
+        get() = Counters(requests.get(), rateLimited.get(), serverErrors.get(), malformed.get(), streams.get())
+
+    /**
+     * Starts accepting connections and returns the base URL to hand to RestTextGenerationClient
+     */
+    @Synchronized
+    fun start(): String {
+        serverSocket?.let { return baseUrl(it) }
+        val socket = ServerSocket(port, 50, InetAddress.getLoopbackAddress())
+        val pool = Executors.newCachedThreadPool { runnable ->
+            Thread(runnable, TAG).apply { isDaemon = true }
+        }
+        serverSocket = socket
+        executor = pool
+        pool.execute {
+            while (!socket.isClosed) {
+                val client = try {
+                    socket.accept()
+                } catch (e: SocketException) {
+                    break
+                }
+                pool.execute { handle(client) }
+            }
+        }
+        Log.d(TAG, "Listening on ${baseUrl(socket)}")
+        return baseUrl(socket)
+    }
+
+    @Synchronized
+    fun stop() {
+        serverSocket?.close()
+        executor?.shutdownNow()
+        serverSocket = null
+        executor = null
+    }
+
+    private fun baseUrl(socket: ServerSocket) = "http://127.0.0.1:${socket.localPort}"
+
+    private fun handle(client: Socket) {
+        client.use { socket ->
+            try {
+                val input = BufferedInputStream(socket.getInputStream())
+                val requestLine = readLine(input) ?: return
+                var contentLength = 0
+                while (true) {
+                    val header = readLine(input) ?: break
+                    if (header.isEmpty()) break
+                    if (header.startsWith("Content-Length:", ignoreCase = true)) {
+                        contentLength = header.substringAfter(':').trim().toIntOrNull() ?: 0
+                    }
+                }
+                val body = ByteArray(contentLength)
+                var read = 0
+                while (read < contentLength) {
+                    val count = input.read(body, read, contentLength - read)
+                    if (count < 0) break
+                    read += count
+                }
+                route(requestLine, String(body, 0, read, Charsets.UTF_8), socket.getOutputStream())
+            } catch (e: SocketException) {
+                // Client went away (cancelled call); nothing to answer
+            } catch (e: Exception) {
+                Log.w(TAG, "Stand-in request failed: ${e.message}")
+            }
+        }
+    }
+
+    private fun readLine(input: InputStream): String? {
+        val line = ByteArrayOutputStream()
+        while (true) {
+            val byte = input.read()
+            if (byte < 0) return if (line.size() == 0) null else line.toString("UTF-8")
+            if (byte == '\n'.code) return line.toString("UTF-8").trimEnd('\r')
+            line.write(byte)
+        }
+    }
+
+    private fun route(requestLine: String, body: String, output: OutputStream) {
+        val path = requestLine.split(' ').getOrNull(1).orEmpty()
+        val streaming = path.contains(":streamGenerateContent")
+        if (!streaming && !path.contains(":generateContent")) {
+            writeResponse(output, 404, errorBody(404, "NOT_FOUND", "Unknown path $path"))
+            return
+        }
+        requests.incrementAndGet()
+
+        val roll = synchronized(random) { random.nextDouble() }
+        when {
+            roll < scenario.rateLimitRate -> {
+                rateLimited.incrementAndGet()
+                writeResponse(output, 429, rateLimitBody())
+                return
+            }
+            roll < scenario.rateLimitRate + scenario.serverErrorRate -> {
+                serverErrors.incrementAndGet()
+                sleep(synchronized(random) { scenario.latency.sample(random) } / 4)
+                writeResponse(output, 500, errorBody(500, "INTERNAL", "An internal error has occurred."))
+                return
+            }
+        }
+
+        val text = answerFor(promptOf(body))
+        val latency = synchronized(random) { scenario.latency.sample(random) }
+        if (streaming) {
+            streams.incrementAndGet()
+            writeStream(output, text, latency)
+        } else {
+            sleep(latency + ((text.length + 3) / 4 * scenario.millisPerOutputToken).toLong())
+            writeResponse(output, 200, mapAdapter.toJson(candidateBody(text, final = true, promptChars = body.length)))
+        }
+    }
+
+    private fun answerFor(prompt: String): String {
+        val text = scenario.responder(prompt)
+        val corrupt = synchronized(random) {
+            if (scenario.malformedKinds.isNotEmpty() && random.nextDouble() < scenario.malformedRate) {
+                scenario.malformedKinds[random.nextInt(scenario.malformedKinds.size)]
+            } else {
+                null
+            }
+        } ?: return text
+        malformed.incrementAndGet()
+        return synchronized(random) { StandInResponses.corrupt(text, corrupt, random) }
+    }
+
+    /**
+     * Server-sent events: the first chunk after the sampled first-token latency,
+     * the rest spaced by the scenario chunk delay
+     */
+    private fun writeStream(output: OutputStream, text: String, firstTokenMillis: Long) {
+        output.write(
+            ("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream\r\nConnection: close\r\n\r\n").toByteArray()
+        )
+        output.flush()
+        val chunkSize = (text.length + scenario.streamChunks - 1) / scenario.streamChunks.coerceAtLeast(1)
+        val chunks = text.chunked(chunkSize.coerceAtLeast(1))
+        chunks.forEachIndexed { index, chunk ->
+            sleep(if (index == 0) firstTokenMillis else scenario.chunkDelayMillis)
+            val event = candidateBody(chunk, final = index == chunks.lastIndex, promptChars = 0)
+            output.write("data: ${mapAdapter.toJson(event)}\r\n\r\n".toByteArray(Charsets.UTF_8))
+            output.flush()
+        }
+    }
+
+    private fun writeResponse(output: OutputStream, code: Int, body: String) {
+        val bytes = body.toByteArray(Charsets.UTF_8)
+        val status = when (code) {
+            200 -> "OK"
+            404 -> "Not Found"
+            429 -> "Too Many Requests"
+            else -> "Internal Server Error"
+        }
+        val headers = buildString {
+            append("HTTP/1.1 $code $status\r\n")
+            append("Content-Type: application/json; charset=UTF-8\r\n")
+            append("Content-Length: ${bytes.size}\r\n")
+            if (code == 429) append("Retry-After: ${scenario.retryDelaySeconds}\r\n")
+            append("Connection: close\r\n\r\n")
+        }
+        output.write(headers.toByteArray())
+        output.write(bytes)
+        output.flush()
+    }
+
+    private fun candidateBody(text: String, final: Boolean, promptChars: Int): Map<String, Any?> = mapOf(
+        "candidates" to listOf(
+            mapOf(
+                "content" to mapOf("role" to "model", "parts" to listOf(mapOf("text" to text))),
+                "finishReason" to if (final) "STOP" else null,
+                "index" to 0
+            )
+        ),
+        "usageMetadata" to mapOf(
+            "promptTokenCount" to (promptChars + 3) / 4,
+            "candidatesTokenCount" to (text.length + 3) / 4
+        )
+    )
+
+    private fun rateLimitBody(): String = mapAdapter.toJson(
+        mapOf(
+            "error" to mapOf(
+                "code" to 429,
+                "status" to "RESOURCE_EXHAUSTED",
+                "message" to "Resource has been exhausted (e.g. check quota).",
+                "details" to listOf(
+                    mapOf(
+                        "@type" to "type.googleapis.com/google.rpc.RetryInfo",
+                        "retryDelay" to "${scenario.retryDelaySeconds}s"
+                    )
+                )
+            )
+        )
+    )
+
+    private fun errorBody(code: Int, status: String, message: String): String =
+        mapAdapter.toJson(mapOf("error" to mapOf("code" to code, "status" to status, "message" to message)))
+
+    private fun promptOf(body: String): String {
+        val json = runCatching { mapAdapter.fromJson(body) }.getOrNull() ?: return ""
+        val last = (json["contents"] as? List<*>)?.lastOrNull() as? Map<*, *> ?: return ""
+        return (last["parts"] as? List<*>).orEmpty()
+            .mapNotNull { (it as? Map<*, *>)?.get("text") as? String }
+            .joinToString("\n")
+    }
+
+    private fun sleep(millis: Long) {
+        if (millis > 0) Thread.sleep(millis)
+    }
+}
@@ -0,0 +1,253 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.standin
+
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.network.CoalescingResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.ResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.ResearchServiceImpl
+import com.kaaneneskpc.f1setupinstructor.core.network.ResilientResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormat
+import com.kaaneneskpc.f1setupinstructor.core.network.format.OutputFormatStats
+import com.kaaneneskpc.f1setupinstructor.core.network.generation.RestTextGenerationClient
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgePolicy
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgeStats
+import com.kaaneneskpc.f1setupinstructor.core.network.hedging.HedgedResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptStats
+import com.kaaneneskpc.f1setupinstructor.core.network.prompt.PromptVariant
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.CircuitBreaker
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryExecutor
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryPolicy
+import com.kaaneneskpc.f1setupinstructor.core.network.resilience.RetryStats
+import com.kaaneneskpc.f1setupinstructor.core.network.scheduler.AiRequestScheduler
+import com.kaaneneskpc.f1setupinstructor.core.network.tiering.TierStats
+import com.kaaneneskpc.f1setupinstructor.core.network.tiering.TieredResearchService
+import com.kaaneneskpc.f1setupinstructor.core.network.validation.SetupRepairStats
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import com.squareup.moshi.Moshi
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Drives the real parsing, validation, retry, hedging, tiering and coalescing layers against the local stand-in server.
+ * Latency and failure numbers are printed so scenarios can be compared across runs:
+ * ./gradlew :core:network:testDebugUnitTest --tests "*StandInLoadTest*"
+ */
+class StandInLoadTest {
+
+    private val servers = mutableListOf<StandInGeminiServer>()
+    private val retryStats = RetryStats()
+    private val hedgeStats = HedgeStats()
+    private val formatStats = OutputFormatStats()
+
+    @After
+    fun tearDown() {
+        servers.forEach { it.stop() }
+    }
+
+    @Test
+    fun fastScenarioReturnsParsedSetups() = runBlocking {
+        val (server, service) = stack(StandInScenario.FAST)
+
+        val results = TRACKS.map { track ->
+            async(Dispatchers.IO) { service.getSetupFromAi(track, "Race", "Dry", "Dry") }
+        }.awaitAll()
+
+        results.zip(TRACKS).forEach { (result, track) ->
+            assertEquals(track, result.getOrThrow().trackName)
+        }
+        assertEquals(TRACKS.size.toLong(), server.counters.requests)
+    }
+
+    @Test
+    fun flakyScenarioIsAbsorbedByRetries() = runBlocking {
+        val scenario = StandInScenario(
+            latency = LatencyProfile(medianMillis = 30, p95Millis = 150),
+            rateLimitRate = 0.20,
+            serverErrorRate = 0.10,
+            malformedRate = 0.15,
+            retryDelaySeconds = 0.05,
+            seed = 7
+        )
+        val (server, service) = stack(scenario)
+
+        val latencies = mutableListOf<Long>()
+        val results = (1..LOAD_REQUESTS).map { index ->
+            async(Dispatchers.IO) {
+                val startedAt = System.currentTimeMillis()
+                val track = TRACKS[index % TRACKS.size]
+                service.getSetupFromAi(track, if (index % 2 == 0) "Race" else "Qualifying", "Dry", "Wet")
+                    .also { synchronized(latencies) { latencies += System.currentTimeMillis() - startedAt } }
+            }
+        }.awaitAll()
+
+        val succeeded = results.count { it.isSuccess }
+        val sorted = latencies.sorted()
+        val retries = retryStats.snapshot.value
+        println(
+            "Stand-in load: $succeeded/$LOAD_REQUESTS ok, p50=${sorted[sorted.size / 2]}ms " +
+                "p95=${sorted[(sorted.size * 95) / 100]}ms, server=${server.counters}, " +
+                "attempts=${retries.totalAttempts} retried=${retries.retriedRequests} backoff=${retries.totalBackoffMillis}ms"
+        )
+        assertTrue("Only $succeeded/$LOAD_REQUESTS succeeded", succeeded >= LOAD_REQUESTS * 0.9)
+        assertTrue(retries.retriedRequests > 0)
+    }
+
+    @Test
+    fun streamingEmitsGroupsBeforeCompletion() = runBlocking {
+        val scenario = StandInScenario.FAST.copy(streamChunks = 12, chunkDelayMillis = 20)
+        val (_, service) = stack(scenario)
+
+        val events = service.streamSetupFromAi("Monza", "Qualifying", "Dry", "Dry").toList()
+
+        assertTrue(events.last() is SetupStreamEvent.Completed)
+        assertTrue(events.dropLast(1).any { it is SetupStreamEvent.GroupCompleted })
+    }
+
+    @Test
+    fun identicalConcurrentRequestsReachServerOnce() = runBlocking {
+        val scenario = StandInScenario.FAST.copy(latency = LatencyProfile(medianMillis = 300, p95Millis = 400))
+        val (server, service) = stack(scenario)
+
+        val results = (1..10).map {
+            async(Dispatchers.IO) { service.getSetupFromAi("Spa", "Race", "Wet", "Wet") }
+        }.awaitAll()
+
+        assertTrue(results.all { it.isSuccess })
+        assertEquals(1L, server.counters.requests)
+    }
+
+    @Test
+    fun hedgingCutsTailLatency() = runBlocking {
+        val scenario = StandInScenario(latency = LatencyProfile(medianMillis = 40, p95Millis = 800), seed = 11)
+        val hedgePolicy = HedgePolicy(
+            enabled = true,
+            percentile = 0.9,
+            minSamples = 10,
+            fallbackDelayMillis = 200,
+            minDelayMillis = 20,
+            budgetRatio = 0.2
+        )
+
+        val plain = tailLatencies(stack(scenario).second)
+        val hedged = tailLatencies(stack(scenario, hedgePolicy).second)
+
+        val snapshot = hedgeStats.snapshot.value
+        println(
+            "Hedging: p95 ${plain.first}ms -> ${hedged.first}ms, p99 ${plain.second}ms -> ${hedged.second}ms, " +
+                "hedged=${snapshot.hedged}/${snapshot.requests} wins=${snapshot.hedgeWins} " +
+                "budgetDenied=${snapshot.budgetDenied} delay=${snapshot.hedgeDelayMillis}ms"
+        )
+        assertTrue(snapshot.hedged > 0)
+        assertTrue(snapshot.hedged <= snapshot.requests * hedgePolicy.budgetRatio + hedgePolicy.maxBudget)
+        // Both runs draw from the same seeded latency stream; the plain p99 is a few seconds while hedges fire
+        // near the p90 (~400ms), so the hedged p99 is typically a third of it
+        assertTrue(
+            "Hedged p99 ${hedged.second}ms is not below plain p99 ${plain.second}ms",
+            hedged.second < plain.second
+        )
+    }
+
+    @Test
+    fun tieredStreamShowsDraftBeforeRefinement() = runBlocking {
+        val tierStats = TierStats()
+        val draft = stack(StandInScenario.FAST.copy(streamChunks = 6, chunkDelayMillis = 10)).second
+        val refine = stack(StandInScenario.FAST.copy(latency = LatencyProfile(medianMillis = 400, p95Millis = 500))).second
+        val service = TieredResearchService(draft, refine, tierStats)
+
+        val events = service.streamSetupFromAi("Suzuka", "Race", "Dry", "Dry").toList()
+
+        val draftIndex = events.indexOfFirst { it is SetupStreamEvent.Completed && it.isDraft }
+        assertTrue(draftIndex >= 0)
+        assertTrue(events.last() is SetupStreamEvent.Refined)
+        val snapshot = tierStats.snapshot.value
+        println(
+            "Tiers: draft p50=${snapshot.draftP50Millis}ms, refine p50=${snapshot.refineP50Millis}ms, " +
+                "changed=${(events.last() as SetupStreamEvent.Refined).changedFields}"
+        )
+        assertTrue(snapshot.draftP50Millis < snapshot.refineP50Millis)
+    }
+
+    @Test
+    fun positionalFormatCutsOutputTokens() = runBlocking {
+        val scenario = StandInScenario.FAST.copy(millisPerOutputToken = 2.0)
+        val json = stack(scenario).second
+        val positional = stack(scenario, outputFormat = OutputFormat.POSITIONAL).second
+
+        TRACKS.forEach { track ->
+            val fromJson = json.getSetupFromAi(track, "Race", "Dry", "Dry").getOrThrow()
+            val fromPositional = positional.getSetupFromAi(track, "Race", "Dry", "Dry").getOrThrow()
+            assertEquals(fromJson.frontWingAero, fromPositional.frontWingAero)
+            assertEquals(fromJson.rearRightTyrePsi, fromPositional.rearRightTyrePsi, 0.001f)
+            assertEquals(fromJson.trackCorners, fromPositional.trackCorners)
+        }
+
+        val usage = formatStats.snapshot()
+        val jsonUsage = usage.getValue(OutputFormat.JSON)
+        val positionalUsage = usage.getValue(OutputFormat.POSITIONAL)
+        println(
+            "Output format: JSON ${jsonUsage.averageOutputTokens} tokens/${jsonUsage.averageGenerationMillis}ms, " +
+                "positional ${positionalUsage.averageOutputTokens} tokens/${positionalUsage.averageGenerationMillis}ms"
+        )
+        assertEquals(0, positionalUsage.decodeFailures)
+        assertTrue(positionalUsage.averageOutputTokens * 2 < jsonUsage.averageOutputTokens)
+    }
+
+    /**
+     * Runs distinct requests a few at a time and returns their p95 and p99 latency
+     */
+    private suspend fun tailLatencies(service: ResearchService): Pair<Long, Long> = coroutineScope {
+        val latencies = (1..TAIL_REQUESTS).chunked(TAIL_CONCURRENCY).flatMap { batch ->
+            batch.map { index ->
+                async(Dispatchers.IO) {
+                    val startedAt = System.currentTimeMillis()
+                    service.getSetupFromAi("Track $index", "Race", "Dry", "Dry").getOrThrow()
+                    System.currentTimeMillis() - startedAt
+                }
+            }.awaitAll()
+        }.sorted()
+        latencies[(latencies.size * 95) / 100] to latencies[(latencies.size * 99) / 100]
+    }
+
+    private fun stack(
+        scenario: StandInScenario,
+        hedgePolicy: HedgePolicy = HedgePolicy(),
+        outputFormat: OutputFormat = OutputFormat.JSON
+    ): Pair<StandInGeminiServer, ResearchService> {
+        val server = StandInGeminiServer(scenario).also { servers += it }
+        val moshi = Moshi.Builder().build()
+        val client = RestTextGenerationClient(server.start(), "stand-in", "test-key", moshi)
+        val scheduler = AiRequestScheduler(requestsPerMinute = 600_000)
+        val impl = ResearchServiceImpl(
+            client,
+            moshi,
+            PromptStats(),
+            scheduler,
+            SetupRepairStats(),
+            PipelineTracer(),
+            PromptVariant.COMPACT,
+            outputFormat,
+            formatStats
+        )
+        val retryExecutor = RetryExecutor(
+            policy = RetryPolicy(maxAttempts = 5, baseDelayMillis = 20, maxDelayMillis = 200),
+            circuitBreaker = CircuitBreaker(name = "stand-in", failureThreshold = 1_000, openMillis = 1_000),
+            stats = retryStats
+        )
+        val hedged = HedgedResearchService(impl, scheduler, hedgePolicy, hedgeStats)
+        return server to CoalescingResearchService(ResilientResearchService(hedged, retryExecutor))
+    }
+
+    companion object {
+        private const val LOAD_REQUESTS = 40
+        private const val TAIL_REQUESTS = 120
+        private const val TAIL_CONCURRENCY = 6
+        private val TRACKS = listOf("Monza", "Silverstone", "Spa", "Suzuka", "Monaco", "Interlagos")
+    }
+}
@@ -0,0 +1,129 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.standin
+
+import com.kaaneneskpc.f1setupinstructor.core.network.format.PositionalSetupCodec
+import kotlin.random.Random
+
+/**
+ * Canned answers for the stand-in server, shaped after the prompts the app actually sends
+ */
+object StandInResponses {
+
+    private val trackLine = Regex("^Track: (.+)$", RegexOption.MULTILINE)
+    private val batchHeader = Regex("for EACH of these \\d+ tracks:")
+    private val reAskHeader = Regex("setup at (.+?) \\(qualifying")
+    private val reAskField = Regex("^- (\\w+): (integer|number|text)", RegexOption.MULTILINE)
+
+    /**
+     * Picks the answer shape from the prompt: a batch of setups, a field re-ask or a single setup,
+     * the latter as JSON or in the positional format
+     */
+    fun respond(prompt: String): String {
+        batchTracks(prompt)?.let { tracks ->
+            return tracks.joinToString(",\n", prefix = "{\"setups\": [\n", postfix = "\n]}") { setupJson(it) }
+        }
+        reAskHeader.find(prompt)?.let { return reAskJson(prompt) }
+        val track = trackLine.find(prompt)?.groupValues?.get(1)?.trim() ?: "Silverstone"
+        if (PositionalSetupCodec.FORMAT_MARKER in prompt) return setupPositional(track)
+        return setupJson(track)
+    }
+
+    fun corrupt(text: String, kind: MalformedKind, random: Random): String = when (kind) {
+        MalformedKind.TRUNCATED -> text.take((text.length * (0.3 + random.nextDouble() * 0.6)).toInt())
+        MalformedKind.WRAPPED -> "Here is the setup you asked for:\n```json\n" +
+            text.replace("\n}", ",\n}") + "\n```\nGood luck on track!"
+        MalformedKind.OUT_OF_RANGE -> text
+            .replace(Regex("\"frontWingAero\": \\d+"), "\"frontWingAero\": 120")
+            .replace(Regex("\"brakePressure\": \\d+"), "\"brakePressure\": 9")
+            .replace(Regex(",\\s*\"trackCorners\": \"[^\"]*\""), "")
+        MalformedKind.NOT_JSON -> "I'm sorry, I couldn't find a reliable F1 25 setup for this track right now."
+    }
+
+    private fun batchTracks(prompt: String): List<String>? {
+        val header = batchHeader.find(prompt) ?: return null
+        return prompt.substring(header.range.last + 1)
+            .lineSequence()
+            .drop(1)
+            .takeWhile { it.startsWith("- ") }
+            .map { it.removePrefix("- ").trim() }
+            .toList()
+    }
+
+    private fun reAskJson(prompt: String): String {
+        val fields = reAskField.findAll(prompt).map { it.groupValues[1] to it.groupValues[2] }
+        return fields.joinToString(", ", prefix = "{", postfix = "}") { (field, type) ->
+            when (type) {
+                "integer" -> "\"$field\": ${SAMPLE_INTEGERS[field] ?: 5}"
+                "number" -> "\"$field\": ${SAMPLE_DECIMALS[field] ?: 0.0}"
+                else -> "\"$field\": \"Stand-in value\""
+            }
+        }
+    }
+
+    private fun setupJson(track: String): String = """
+        {
+            "trackName": "$track",
+            "carModel": "Stand-in F1 25",
+            "gameVersion": "F1 25",
+            "weatherCondition": "Dry / Dry",
+            "setupType": "Race",
+            "imageUrl": "",
+            "isFavorite": false,
+            "frontWingAero": ${SAMPLE_INTEGERS["frontWingAero"]},
+            "rearWingAero": ${SAMPLE_INTEGERS["rearWingAero"]},
+            "onThrottle": ${SAMPLE_INTEGERS["onThrottle"]},
+            "offThrottle": ${SAMPLE_INTEGERS["offThrottle"]},
+            "engineBraking": ${SAMPLE_INTEGERS["engineBraking"]},
+            "frontCamber": ${SAMPLE_DECIMALS["frontCamber"]},
+            "rearCamber": ${SAMPLE_DECIMALS["rearCamber"]},
+            "frontToe": ${SAMPLE_DECIMALS["frontToe"]},
+            "rearToe": ${SAMPLE_DECIMALS["rearToe"]},
+            "frontSuspension": ${SAMPLE_INTEGERS["frontSuspension"]},
+            "rearSuspension": ${SAMPLE_INTEGERS["rearSuspension"]},
+            "frontAntiRollBar": ${SAMPLE_INTEGERS["frontAntiRollBar"]},
+            "rearAntiRollBar": ${SAMPLE_INTEGERS["rearAntiRollBar"]},
+            "frontRideHeight": ${SAMPLE_INTEGERS["frontRideHeight"]},
+            "rearRideHeight": ${SAMPLE_INTEGERS["rearRideHeight"]},
+            "brakePressure": ${SAMPLE_INTEGERS["brakePressure"]},
+            "frontBrakeBias": ${SAMPLE_INTEGERS["frontBrakeBias"]},
+            "frontLeftTyrePsi": ${SAMPLE_DECIMALS["frontLeftTyrePsi"]},
+            "frontRightTyrePsi": ${SAMPLE_DECIMALS["frontRightTyrePsi"]},
+            "rearLeftTyrePsi": ${SAMPLE_DECIMALS["rearLeftTyrePsi"]},
+            "rearRightTyrePsi": ${SAMPLE_DECIMALS["rearRightTyrePsi"]},
+            "tyreStrategy": "Medium -> Hard, pit around lap 20.",
+            "keyPointers": "Stand-in answer for $track, brake early and carry speed.",
+            "creatorNotes": "Generated by the local stand-in server.",
+            "trackLength": "5.000 km",
+            "trackCorners": "16",
+            "trackDrsZones": "2",
+            "trackIdealLaps": "50"
+        }
+        """.trimIndent()
+
+    private fun setupPositional(track: String): String = PositionalSetupCodec.encode(
+        SAMPLE_INTEGERS + SAMPLE_DECIMALS + mapOf(
+            "trackLength" to "5.000 km",
+            "trackCorners" to "16",
+            "trackDrsZones" to "2",
+            "trackIdealLaps" to "50",
+            "tyreStrategy" to "Medium -> Hard, pit around lap 20.",
+            "keyPointers" to "Stand-in answer for $track, brake early and carry speed.",
+            "creatorNotes" to "Generated by the local stand-in server."
+        )
+    )
+
+    private val SAMPLE_INTEGERS = mapOf(
+        "frontWingAero" to 28, "rearWingAero" to 25,
+        "onThrottle" to 55, "offThrottle" to 50, "engineBraking" to 45,
+        "frontSuspension" to 5, "rearSuspension" to 4,
+        "frontAntiRollBar" to 6, "rearAntiRollBar" to 5,
+        "frontRideHeight" to 25, "rearRideHeight" to 50,
+        "brakePressure" to 95, "frontBrakeBias" to 55
+    )
+
+    private val SAMPLE_DECIMALS = mapOf(
+        "frontCamber" to -3.0, "rearCamber" to -1.5,
+        "frontToe" to 0.05, "rearToe" to 0.15,
+        "frontLeftTyrePsi" to 23.0, "frontRightTyrePsi" to 23.0,
+        "rearLeftTyrePsi" to 21.0, "rearRightTyrePsi" to 21.0
+    )
+}
@@ -0,0 +1,90 @@
+package com.kaaneneskpc.f1setupinstructor.core.network.standin
+
+import kotlin.math.PI
+import kotlin.math.cos
+import kotlin.math.exp
+import kotlin.math.ln
+import kotlin.math.sqrt
+import kotlin.random.Random
+
+/**
+ * Script for the stand-in Gemini server: how long answers take, how they are chunked
+ * when streamed, and how often they fail or come back malformed
+ */
+data class StandInScenario(
+    val latency: LatencyProfile = LatencyProfile(),
+    val streamChunks: Int = 8,
+    val chunkDelayMillis: Long = 150,
+    /** Decode time per output token added to non-streamed answers, so longer answers take longer */
+    val millisPerOutputToken: Double = 0.0,
+    val rateLimitRate: Double = 0.0,
+    val serverErrorRate: Double = 0.0,
+    val malformedRate: Double = 0.0,
+    val malformedKinds: List<MalformedKind> = MalformedKind.entries,
+    val retryDelaySeconds: Double = 2.0,
+    val seed: Long = 42,
+    val responder: (prompt: String) -> String = StandInResponses::respond
+) {
+    companion object {
+        /** No failures and near-instant answers, for functional checks */
+        val FAST = StandInScenario(latency = LatencyProfile(medianMillis = 20, p95Millis = 60), chunkDelayMillis = 5)
+
+        /** Free-tier behaviour: slow tail, frequent 429s, occasional 500s and broken JSON */
+        val FLAKY_FREE_TIER = StandInScenario(
+            latency = LatencyProfile(medianMillis = 4_000, p95Millis = 15_000),
+            rateLimitRate = 0.15,
+            serverErrorRate = 0.05,
+            malformedRate = 0.10
+        )
+
+        /** Healthy but slow model, the 40s setup case */
+        val SLOW_MODEL = StandInScenario(
+            latency = LatencyProfile(medianMillis = 20_000, p95Millis = 40_000),
+            chunkDelayMillis = 1_500
+        )
+    }
+}
+
+/**
+ * Log-normal latency fitted to a median and a 95th percentile, capped at [maxMillis]
+ */
+data class LatencyProfile(
+    val medianMillis: Long = 1_500,
+    val p95Millis: Long = 6_000,
+    val maxMillis: Long = 60_000
+) {
+    fun sample(random: Random): Long {
+        if (medianMillis <= 0) return 0
+        val mu = ln(medianMillis.toDouble())
+        val sigma = ln(p95Millis.coerceAtLeast(medianMillis).toDouble() / medianMillis) / P95_Z
+        return exp(mu + sigma * random.nextGaussian()).toLong().coerceIn(0, maxMillis)
+    }
+
+    private fun Random.nextGaussian(): Double {
+        // Box-Muller; nextDouble() can return 0.0, which ln() cannot take
+        val u1 = 1.0 - nextDouble()
+        val u2 = nextDouble()
+        return sqrt(-2.0 * ln(u1)) * cos(2.0 * PI * u2)
+    }
+
+    private companion object {
+        const val P95_Z = 1.645
+    }
+}
+
+/**
+ * Ways the stand-in corrupts an otherwise valid answer, mirroring what the real model produces
+ */
+enum class MalformedKind {
+    /** Output cut off mid-object, as with MAX_TOKENS */
+    TRUNCATED,
+
+    /** Markdown fences, prose around the object and trailing commas */
+    WRAPPED,
+
+    /** Numbers far outside the game ranges and missing fields, for the validator */
+    OUT_OF_RANGE,
+
+    /** A refusal or chatty answer without any JSON */
+    NOT_JSON
+}
@@ -0,0 +1,151 @@
+package com.kaaneneskpc.f1setupinstructor.domain.baseline
+
+import com.kaaneneskpc.f1setupinstructor.domain.model.PartialSetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRanges
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import kotlin.math.roundToInt
+
+/**
+ * Rule-based setup built on the device from the track category and F1 25 range tables
+ * It is shown at once while the AI setup is researched, and is the final setup when the AI cannot be reached.
+ * Pure table lookups and arithmetic, so it runs well under a millisecond and needs no network.
+ */
+object BaselineSetupEngine {
+
+    private const val QUALIFYING = "Qualifying"
+    private const val UNKNOWN_TEXT = "-"
+
+    /** Extra wing added in the wet, on top of the category range midpoint */
+    private const val WET_WING = 4
+
+    fun baseline(request: SetupRequest): SetupData {
+        val profile = TrackProfiles.find(request.track)
+        val category = profile?.category ?: TrackCategory.BALANCED
+        val ranges = SetupRanges.forGame(request.gameVersion)
+        val q = request.sessionType == QUALIFYING
+        val wet = isWet(if (q) request.qualyWeather else request.raceWeather)
+
+        fun int(field: String, value: Int): Int {
+            val range = ranges.getValue(field)
+            return value.coerceIn(range.min.toInt(), range.max.toInt())
+        }
+
+        fun decimal(field: String, value: Double): Float {
+            val range = ranges.getValue(field)
+            return ((value.coerceIn(range.min, range.max) * 100).roundToInt() / 100.0).toFloat()
+        }
+
+        val wetWing = if (wet) WET_WING else 0
+        val wetSoftening = if (wet) -1 else 0
+        val wetRideHeight = if (wet) 3 else 0
+        val stiffness = category.stiffnessOffset + wetSoftening
+        val rideHeight = category.rideHeightOffset + wetRideHeight
+        val frontWing = if (q) category.qualifyingFrontWing else category.raceFrontWing
+        val rearWing = if (q) category.qualifyingRearWing else category.raceRearWing
+
+        return SetupData(
+            trackName = request.track,
+            carModel = SetupRequest.DEFAULT_CAR_MODEL,
+            gameVersion = request.gameVersion,
+            weatherCondition = request.weatherCondition,
+            setupType = request.sessionType,
+            imageUrl = "",
+            frontWingAero = int("frontWingAero", frontWing.midpoint() + wetWing),
+            rearWingAero = int("rearWingAero", rearWing.midpoint() + wetWing),
+            onThrottle = int("onThrottle", (if (q) 60 else 55) - if (wet) 15 else 0),
+            offThrottle = int("offThrottle", if (q) 50 else 55),
+            engineBraking = int("engineBraking", if (q) 50 else 55),
+            frontCamber = decimal("frontCamber", (if (q) -3.0 else -2.7) + if (category == TrackCategory.LOW_DOWNFORCE) 0.3 else 0.0),
+            rearCamber = decimal("rearCamber", if (q) -1.5 else -1.2),
+            frontToe = decimal("frontToe", 0.05),
+            rearToe = decimal("rearToe", if (q) 0.2 else 0.25),
+            frontSuspension = int("frontSuspension", (if (q) 5 else 6) + stiffness),
+            rearSuspension = int("rearSuspension", (if (q) 4 else 5) + stiffness),
+            frontAntiRollBar = int("frontAntiRollBar", (if (q) 6 else 7) + stiffness),
+            rearAntiRollBar = int("rearAntiRollBar", (if (q) 4 else 5) + stiffness),
+            frontRideHeight = int("frontRideHeight", (if (q) 27 else 30) + rideHeight),
+            rearRideHeight = int("rearRideHeight", (if (q) 48 else 52) + rideHeight),
+            brakePressure = int("brakePressure", (if (q) 100 else 95) - if (wet) 5 else 0),
+            frontBrakeBias = int("frontBrakeBias", (if (q) 57 else 56) - if (wet) 1 else 0),
+            frontLeftTyrePsi = decimal("frontLeftTyrePsi", if (q) 22.5 else 23.0),
+            frontRightTyrePsi = decimal("frontRightTyrePsi", if (q) 22.5 else 23.0),
+            rearLeftTyrePsi = decimal("rearLeftTyrePsi", if (q) 20.5 else 21.0),
+            rearRightTyrePsi = decimal("rearRightTyrePsi", if (q) 20.5 else 21.0),
+            tyreStrategy = tyreStrategy(q, wet, profile),
+            keyPointers = "${category.pointers}." + if (wet) " Brake earlier and stay off kerbs and painted lines in the wet." else "",
+            creatorNotes = "${category.strategy}. Rule-based baseline built on the device without AI research.",
+            trackLength = profile?.length ?: UNKNOWN_TEXT,
+            trackCorners = profile?.corners?.toString() ?: UNKNOWN_TEXT,
+            trackDrsZones = profile?.drsZones?.toString() ?: UNKNOWN_TEXT,
+            trackIdealLaps = profile?.raceLaps?.toString() ?: UNKNOWN_TEXT
+        )
+    }
+
+    /**
+     * Replaces baseline values with the AI values streamed so far, clamped to the F1 25 ranges
+     * since streamed groups have not been through the validator yet
+     */
+    fun withStreamedValues(baseline: SetupData, partial: PartialSetupData): SetupData {
+        val ranges = SetupRanges.forGame(baseline.gameVersion)
+
+        fun int(field: String, fallback: Int): Int {
+            val value = partial.int(field) ?: return fallback
+            val range = ranges.getValue(field)
+            return value.coerceIn(range.min.toInt(), range.max.toInt())
+        }
+
+        fun decimal(field: String, fallback: Float): Float {
+            val value = partial.float(field) ?: return fallback
+            val range = ranges.getValue(field)
+            return value.coerceIn(range.min.toFloat(), range.max.toFloat())
+        }
+
+        fun text(field: String, fallback: String): String =
+            partial.string(field)?.takeIf { it.isNotBlank() } ?: fallback
+
+        return baseline.copy(
+            frontWingAero = int("frontWingAero", baseline.frontWingAero),
+            rearWingAero = int("rearWingAero", baseline.rearWingAero),
+            onThrottle = int("onThrottle", baseline.onThrottle),
+            offThrottle = int("offThrottle", baseline.offThrottle),
+            engineBraking = int("engineBraking", baseline.engineBraking),
+            frontCamber = decimal("frontCamber", baseline.frontCamber),
+            rearCamber = decimal("rearCamber", baseline.rearCamber),
+            frontToe = decimal("frontToe", baseline.frontToe),
+            rearToe = decimal("rearToe", baseline.rearToe),
+            frontSuspension = int("frontSuspension", baseline.frontSuspension),
+            rearSuspension = int("rearSuspension", baseline.rearSuspension),
+            frontAntiRollBar = int("frontAntiRollBar", baseline.frontAntiRollBar),
+            rearAntiRollBar = int("rearAntiRollBar", baseline.rearAntiRollBar),
+            frontRideHeight = int("frontRideHeight", baseline.frontRideHeight),
+            rearRideHeight = int("rearRideHeight", baseline.rearRideHeight),
+            brakePressure = int("brakePressure", baseline.brakePressure),
+            frontBrakeBias = int("frontBrakeBias", baseline.frontBrakeBias),
+            frontLeftTyrePsi = decimal("frontLeftTyrePsi", baseline.frontLeftTyrePsi),
+            frontRightTyrePsi = decimal("frontRightTyrePsi", baseline.frontRightTyrePsi),
+            rearLeftTyrePsi = decimal("rearLeftTyrePsi", baseline.rearLeftTyrePsi),
+            rearRightTyrePsi = decimal("rearRightTyrePsi", baseline.rearRightTyrePsi),
+            tyreStrategy = text("tyreStrategy", baseline.tyreStrategy),
+            keyPointers = text("keyPointers", baseline.keyPointers),
+            creatorNotes = text("creatorNotes", baseline.creatorNotes),
+            trackLength = text("trackLength", baseline.trackLength),
+            trackCorners = text("trackCorners", baseline.trackCorners),
+            trackDrsZones = text("trackDrsZones", baseline.trackDrsZones),
+            trackIdealLaps = text("trackIdealLaps", baseline.trackIdealLaps)
+        )
+    }
+
+    private fun isWet(weather: String): Boolean =
+        weather.contains("Wet", ignoreCase = true) || weather.contains("Rain", ignoreCase = true)
+
+    private fun tyreStrategy(qualifying: Boolean, wet: Boolean, profile: TrackProfile?): String = when {
+        qualifying && wet -> "Intermediates for every run, full wets only if standing water appears."
+        qualifying -> "Fresh softs for each run with one out lap to bring them into the window."
+        wet -> "Start on intermediates and switch to slicks once a dry line forms."
+        profile != null -> "Medium -> Hard one stop, pit around lap ${profile.raceLaps * 45 / 100}."
+        else -> "Medium -> Hard one stop, pit before the mediums drop off."
+    }
+
+    private fun IntRange.midpoint(): Int = (first + last) / 2
+}
@@ -0,0 +1,114 @@
+package com.kaaneneskpc.f1setupinstructor.domain.baseline
+
+/**
+ * Downforce level of a circuit with the F1 25 wing ranges used for it
+ * The setup prompt's track guidelines are rendered from this table as well.
+ */
+enum class TrackCategory(
+    val label: String,
+    val examples: List<String>,
+    val qualifyingFrontWing: IntRange,
+    val qualifyingRearWing: IntRange,
+    val raceFrontWing: IntRange,
+    val raceRearWing: IntRange,
+    val strategy: String,
+    val pointers: String,
+    /** Added to the suspension and anti-roll bar values: stiffer for fast tracks, softer for bumpy slow ones */
+    val stiffnessOffset: Int,
+    /** Added to both ride heights: lower for drag, higher for kerbs and bumps */
+    val rideHeightOffset: Int
+) {
+    LOW_DOWNFORCE(
+        label = "LOW DOWNFORCE",
+        examples = listOf("Monza", "Spa", "Jeddah", "Baku"),
+        qualifyingFrontWing = 15..30,
+        qualifyingRearWing = 12..25,
+        raceFrontWing = 10..25,
+        raceRearWing = 8..20,
+        strategy = "Low drag setup for top speed on straights",
+        pointers = "Focus on straight-line speed, minimal wing angles",
+        stiffnessOffset = 1,
+        rideHeightOffset = -2
+    ),
+    HIGH_DOWNFORCE(
+        label = "HIGH DOWNFORCE",
+        examples = listOf("Monaco", "Singapore", "Hungary"),
+        qualifyingFrontWing = 40..50,
+        qualifyingRearWing = 40..50,
+        raceFrontWing = 35..45,
+        raceRearWing = 35..45,
+        strategy = "Maximum grip setup for tight corners",
+        pointers = "Prioritize cornering grip over top speed",
+        stiffnessOffset = -1,
+        rideHeightOffset = 3
+    ),
+    BALANCED(
+        label = "BALANCED",
+        examples = listOf("Silverstone", "Suzuka", "Barcelona"),
+        qualifyingFrontWing = 30..40,
+        qualifyingRearWing = 30..40,
+        raceFrontWing = 25..35,
+        raceRearWing = 25..35,
+        strategy = "Balanced setup for mixed corners",
+        pointers = "Compromise between speed and downforce",
+        stiffnessOffset = 0,
+        rideHeightOffset = 0
+    )
+}
+
+/**
+ * Circuit data of an F1 25 track; [aliases] are lower-case names users type for it
+ */
+data class TrackProfile(
+    val name: String,
+    val aliases: List<String>,
+    val category: TrackCategory,
+    val length: String,
+    val corners: Int,
+    val drsZones: Int,
+    val raceLaps: Int
+)
+
+object TrackProfiles {
+
+    val F1_25: List<TrackProfile> = listOf(
+        TrackProfile("Bahrain", listOf("bahrain", "sakhir"), TrackCategory.BALANCED, "5.412 km", 15, 3, 57),
+        TrackProfile("Jeddah", listOf("jeddah", "saudi"), TrackCategory.LOW_DOWNFORCE, "6.174 km", 27, 3, 50),
+        TrackProfile("Melbourne", listOf("melbourne", "albert park", "australia"), TrackCategory.BALANCED, "5.278 km", 14, 4, 58),
+        TrackProfile("Suzuka", listOf("suzuka", "japan"), TrackCategory.BALANCED, "5.807 km", 18, 1, 53),
+        TrackProfile("Shanghai", listOf("shanghai", "china"), TrackCategory.BALANCED, "5.451 km", 16, 2, 56),
+        TrackProfile("Miami", listOf("miami"), TrackCategory.BALANCED, "5.412 km", 19, 3, 57),
+        TrackProfile("Imola", listOf("imola", "emilia"), TrackCategory.BALANCED, "4.909 km", 19, 1, 63),
+        TrackProfile("Monaco", listOf("monaco", "monte carlo"), TrackCategory.HIGH_DOWNFORCE, "3.337 km", 19, 1, 78),
+        TrackProfile("Montreal", listOf("montreal", "canada", "villeneuve"), TrackCategory.LOW_DOWNFORCE, "4.361 km", 14, 3, 70),
+        TrackProfile("Barcelona", listOf("barcelona", "catalunya", "spain"), TrackCategory.BALANCED, "4.657 km", 14, 2, 66),
+        TrackProfile("Red Bull Ring", listOf("red bull ring", "spielberg", "austria"), TrackCategory.BALANCED, "4.318 km", 10, 3, 71),
+        TrackProfile("Silverstone", listOf("silverstone", "great britain", "british"), TrackCategory.BALANCED, "5.891 km", 18, 2, 52),
+        TrackProfile("Hungaroring", listOf("hungaroring", "hungary", "budapest"), TrackCategory.HIGH_DOWNFORCE, "4.381 km", 14, 2, 70),
+        TrackProfile("Spa", listOf("spa", "belgium"), TrackCategory.LOW_DOWNFORCE, "7.004 km", 19, 2, 44),
+        TrackProfile("Zandvoort", listOf("zandvoort", "netherlands", "dutch"), TrackCategory.HIGH_DOWNFORCE, "4.259 km", 14, 2, 72),
+        TrackProfile("Monza", listOf("monza", "italy"), TrackCategory.LOW_DOWNFORCE, "5.793 km", 11, 2, 53),
+        TrackProfile("Baku", listOf("baku", "azerbaijan"), TrackCategory.LOW_DOWNFORCE, "6.003 km", 20, 2, 51),
+        TrackProfile("Singapore", listOf("singapore", "marina bay"), TrackCategory.HIGH_DOWNFORCE, "4.940 km", 19, 3, 62),
+        TrackProfile("Austin", listOf("austin", "americas", "cota", "usa"), TrackCategory.BALANCED, "5.513 km", 20, 2, 56),
+        TrackProfile("Mexico City", listOf("mexico", "hermanos rodriguez"), TrackCategory.HIGH_DOWNFORCE, "4.304 km", 17, 3, 71),
+        TrackProfile("Interlagos", listOf("interlagos", "sao paulo", "são paulo", "brazil"), TrackCategory.BALANCED, "4.309 km", 15, 2, 71),
+        TrackProfile("Las Vegas", listOf("las vegas", "vegas"), TrackCategory.LOW_DOWNFORCE, "6.201 km", 17, 2, 50),
+        TrackProfile("Lusail", listOf("lusail", "qatar"), TrackCategory.BALANCED, "5.419 km", 16, 1, 57),
+        TrackProfile("Yas Marina", listOf("yas marina", "abu dhabi"), TrackCategory.BALANCED, "5.281 km", 16, 2, 58)
+    )
+
+    /** Whole-word alias patterns, so "Spain" is not read as Spa */
+    private val aliasPatterns: List<Pair<Regex, TrackProfile>> = F1_25.flatMap { profile ->
+        profile.aliases.map { alias -> Regex("\\b${Regex.escape(alias)}\\b") to profile }
+    }
+
+    /**
+     * Looks the track up by any of its aliases, e.g. "Monza Grand Prix" or "spa-francorchamps"
+     */
+    fun find(track: String): TrackProfile? {
+        val name = track.trim().lowercase()
+        if (name.isEmpty()) return null
+        return aliasPatterns.firstOrNull { (pattern, _) -> pattern.containsMatchIn(name) }?.second
+    }
+}
@@ -0,0 +1,32 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * SetupData fields received so far while the AI response is still streaming
+ * Values are keyed by their SetupData JSON name; numbers are kept as Double until read
+ */
+data class PartialSetupData(
+    val values: Map<String, Any?> = emptyMap()
+) {
+    val completedGroups: Set<SetupFieldGroup>
+        get() = SetupFieldGroup.values().filterTo(mutableSetOf()) { group ->
+            group.fields.all { values.containsKey(it) }
+        }
+
+    fun int(field: String): Int? = when (val value = values[field]) {
+        is Number -> value.toInt()
+        is String -> value.toDoubleOrNull()?.toInt()
+        else -> null
+    }
+
+    fun float(field: String): Float? = when (val value = values[field]) {
+        is Number -> value.toFloat()
+        is String -> value.toFloatOrNull()
+        else -> null
+    }
+
+    fun string(field: String): String? = when (val value = values[field]) {
+        null -> null
+        is Double -> if (value % 1.0 == 0.0) value.toLong().toString() else value.toString()
+        else -> value.toString()
+    }
+}
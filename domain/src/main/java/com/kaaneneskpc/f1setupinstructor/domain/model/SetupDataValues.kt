@@ -0,0 +1,37 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * Numeric setup values keyed by SetupData field name, in [SetupRanges.F1_25] order
+ */
+fun SetupData.numericValues(): Map<String, Number> = mapOf(
+    "frontWingAero" to frontWingAero,
+    "rearWingAero" to rearWingAero,
+    "onThrottle" to onThrottle,
+    "offThrottle" to offThrottle,
+    "engineBraking" to engineBraking,
+    "frontCamber" to frontCamber,
+    "rearCamber" to rearCamber,
+    "frontToe" to frontToe,
+    "rearToe" to rearToe,
+    "frontSuspension" to frontSuspension,
+    "rearSuspension" to rearSuspension,
+    "frontAntiRollBar" to frontAntiRollBar,
+    "rearAntiRollBar" to rearAntiRollBar,
+    "frontRideHeight" to frontRideHeight,
+    "rearRideHeight" to rearRideHeight,
+    "brakePressure" to brakePressure,
+    "frontBrakeBias" to frontBrakeBias,
+    "frontLeftTyrePsi" to frontLeftTyrePsi,
+    "frontRightTyrePsi" to frontRightTyrePsi,
+    "rearLeftTyrePsi" to rearLeftTyrePsi,
+    "rearRightTyrePsi" to rearRightTyrePsi
+)
+
+/**
+ * Numeric fields whose value differs from [before]
+ * The free-text fields are reworded on every generation, so they are not compared.
+ */
+fun SetupData.changedFieldsFrom(before: SetupData): Set<String> {
+    val previous = before.numericValues()
+    return numericValues().filterTo(linkedMapOf()) { (field, value) -> previous[field] != value }.keys
+}
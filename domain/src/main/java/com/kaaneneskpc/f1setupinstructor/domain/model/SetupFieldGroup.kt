@@ -0,0 +1,23 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * Groups of SetupData fields that are rendered together on the setup details screen
+ * A group is complete once every one of its JSON keys has been received
+ */
+enum class SetupFieldGroup(val fields: List<String>) {
+    OVERVIEW(listOf("trackName", "carModel", "gameVersion", "weatherCondition", "setupType")),
+    AERO(listOf("frontWingAero", "rearWingAero")),
+    TRANSMISSION(listOf("onThrottle", "offThrottle", "engineBraking")),
+    SUSPENSION_GEOMETRY(listOf("frontCamber", "rearCamber", "frontToe", "rearToe")),
+    SUSPENSION(
+        listOf(
+            "frontSuspension", "rearSuspension",
+            "frontAntiRollBar", "rearAntiRollBar",
+            "frontRideHeight", "rearRideHeight"
+        )
+    ),
+    BRAKES(listOf("brakePressure", "frontBrakeBias")),
+    TYRES(listOf("frontLeftTyrePsi", "frontRightTyrePsi", "rearLeftTyrePsi", "rearRightTyrePsi")),
+    STRATEGY(listOf("tyreStrategy", "keyPointers", "creatorNotes")),
+    TRACK_DETAILS(listOf("trackLength", "trackCorners", "trackDrsZones", "trackIdealLaps"))
+}
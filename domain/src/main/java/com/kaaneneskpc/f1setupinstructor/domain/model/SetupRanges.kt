@@ -0,0 +1,67 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * Valid range of a numeric setup field
+ * [default] is a neutral mid-range value used when the field cannot be recovered any other way
+ */
+data class FieldRange(
+    val min: Double,
+    val max: Double,
+    val default: Double,
+    val isInteger: Boolean
+) {
+    val span: Double
+        get() = max - min
+
+    operator fun contains(value: Double): Boolean = value in min..max
+}
+
+/**
+ * Per-game setup range tables, keyed by SetupData field name
+ */
+object SetupRanges {
+
+    private fun int(min: Int, max: Int, default: Int) =
+        FieldRange(min.toDouble(), max.toDouble(), default.toDouble(), isInteger = true)
+
+    private fun decimal(min: Double, max: Double, default: Double) =
+        FieldRange(min, max, default, isInteger = false)
+
+    val F1_25: Map<String, FieldRange> = mapOf(
+        "frontWingAero" to int(0, 50, 25),
+        "rearWingAero" to int(0, 50, 25),
+        "onThrottle" to int(10, 100, 50),
+        "offThrottle" to int(10, 100, 50),
+        "engineBraking" to int(0, 100, 50),
+        "frontCamber" to decimal(-3.5, -1.0, -2.5),
+        "rearCamber" to decimal(-3.5, -1.0, -1.5),
+        "frontToe" to decimal(-0.5, 0.5, 0.0),
+        "rearToe" to decimal(-0.5, 0.5, 0.1),
+        "frontSuspension" to int(1, 11, 6),
+        "rearSuspension" to int(1, 11, 6),
+        "frontAntiRollBar" to int(1, 11, 6),
+        "rearAntiRollBar" to int(1, 11, 6),
+        "frontRideHeight" to int(0, 100, 30),
+        "rearRideHeight" to int(0, 100, 50),
+        "brakePressure" to int(80, 100, 95),
+        "frontBrakeBias" to int(50, 70, 56),
+        "frontLeftTyrePsi" to decimal(19.0, 25.0, 22.5),
+        "frontRightTyrePsi" to decimal(19.0, 25.0, 22.5),
+        "rearLeftTyrePsi" to decimal(19.0, 25.0, 21.0),
+        "rearRightTyrePsi" to decimal(19.0, 25.0, 21.0)
+    )
+
+    /**
+     * Text fields the model has to write itself; everything else can be derived from the request
+     */
+    val GENERATED_TEXT_FIELDS: List<String> = listOf(
+        "tyreStrategy", "keyPointers", "creatorNotes",
+        "trackLength", "trackCorners", "trackDrsZones", "trackIdealLaps"
+    )
+
+    /**
+     * Older games share the F1 25 table until they get their own
+     */
+    @Suppress("UNUSED_PARAMETER")
+    fun forGame(gameVersion: String): Map<String, FieldRange> = F1_25
+}
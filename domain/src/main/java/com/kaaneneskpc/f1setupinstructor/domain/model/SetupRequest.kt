@@ -0,0 +1,31 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * Describes a single AI setup request
+ * Used as the identity of a request for caching and de-duplication
+ */
+data class SetupRequest(
+    val track: String,
+    val sessionType: String,
+    val qualyWeather: String,
+    val raceWeather: String,
+    val gameVersion: String = DEFAULT_GAME_VERSION
+) {
+    /**
+     * Stable key that ignores casing and surrounding whitespace of user input
+     */
+    val cacheKey: String
+        get() = listOf(track, sessionType, qualyWeather, raceWeather, gameVersion)
+            .joinToString(separator = "|") { it.trim().lowercase() }
+
+    /**
+     * Weather label of the setup; a qualifying setup only depends on the qualifying weather
+     */
+    val weatherCondition: String
+        get() = if (sessionType == "Qualifying") qualyWeather else "$qualyWeather / $raceWeather"
+
+    companion object {
+        const val DEFAULT_GAME_VERSION = "F1 25"
+        const val DEFAULT_CAR_MODEL = "Ferrari SF-24"
+    }
+}
@@ -0,0 +1,32 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * Progress of a streamed AI setup request
+ */
+sealed interface SetupStreamEvent {
+
+    /**
+     * A field group finished parsing; [partial] holds every field received so far
+     */
+    data class GroupCompleted(
+        val group: SetupFieldGroup,
+        val partial: PartialSetupData
+    ) : SetupStreamEvent
+
+    /**
+     * The full response was parsed into SetupData
+     * A [isDraft] setup came from the fast model and may still be followed by [Refined]
+     */
+    data class Completed(
+        val setupData: SetupData,
+        val isDraft: Boolean = false
+    ) : SetupStreamEvent
+
+    /**
+     * The stronger model's setup replacing the draft; [changedFields] lists the numeric values it changed
+     */
+    data class Refined(
+        val setupData: SetupData,
+        val changedFields: Set<String>
+    ) : SetupStreamEvent
+}
@@ -0,0 +1,15 @@
+package com.kaaneneskpc.f1setupinstructor.domain.model
+
+/**
+ * One session of a weekend pack
+ * A [isDraft] setup is the on-device baseline still waiting for its AI setup.
+ */
+data class WeekendSetup(
+    val setupData: SetupData,
+    val isDraft: Boolean
+) {
+    companion object {
+        /** Sessions of a weekend pack, in the order the details screen shows them */
+        val SESSIONS = listOf("Qualifying", "Race")
+    }
+}
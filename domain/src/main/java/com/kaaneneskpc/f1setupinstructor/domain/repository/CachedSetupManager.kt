@@ -1,20 +1,65 @@
 package com.kaaneneskpc.f1setupinstructor.domain.repository
 
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import com.kaaneneskpc.f1setupinstructor.domain.model.WeekendSetup
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
 import javax.inject.Inject
 import javax.inject.Singleton
 
 /**
  * Simple in-memory cache for the latest setup data
  * Used to pass data between HomeScreen and SetupDetailsScreen
+ * While a draft waits for the final setup, both are published through [setupUpdates]
+ * A weekend pack publishes one setup per session through [weekendPack] instead
  */
 @Singleton
 class CachedSetupManager @Inject constructor() {
     
     private var latestSetup: SetupData? = null
+
+    private val _setupUpdates = MutableStateFlow<SetupStreamEvent?>(null)
+    val setupUpdates: StateFlow<SetupStreamEvent?> = _setupUpdates.asStateFlow()
+
+    /** True while a draft is shown and waiting for its final setup */
+    val isStreaming: Boolean
+        get() = (_setupUpdates.value as? SetupStreamEvent.Completed)?.isDraft == true
+
+    private val _weekendPack = MutableStateFlow<Map<String, WeekendSetup>>(emptyMap())
+    /** Setups of the running weekend pack by session type; empty for a single setup */
+    val weekendPack: StateFlow<Map<String, WeekendSetup>> = _weekendPack.asStateFlow()
     
-    fun saveLatestSetup(setupData: SetupData) {
+    fun saveLatestSetup(setupData: SetupData, isDraft: Boolean = false) {
         latestSetup = setupData
+        _setupUpdates.value = SetupStreamEvent.Completed(setupData, isDraft)
+    }
+
+    /**
+     * Replaces the shown draft with the refined setup
+     */
+    fun publishRefinedSetup(setupData: SetupData, changedFields: Set<String>) {
+        latestSetup = setupData
+        _setupUpdates.value = SetupStreamEvent.Refined(setupData, changedFields)
+    }
+
+    /**
+     * Starts a weekend pack with a draft setup per session; the first one is also the latest setup
+     */
+    fun startWeekendPack(drafts: Map<String, SetupData>) {
+        latestSetup = drafts.values.firstOrNull()
+        _setupUpdates.value = null
+        _weekendPack.value = drafts.mapValues { (_, setupData) -> WeekendSetup(setupData, isDraft = true) }
+    }
+
+    fun publishWeekendSetup(sessionType: String, setupData: SetupData, isDraft: Boolean = false) {
+        _weekendPack.update { it + (sessionType to WeekendSetup(setupData, isDraft)) }
+    }
+
+    fun clearWeekendPack() {
+        _weekendPack.value = emptyMap()
     }
     
     fun getLatestSetup(): SetupData? {
@@ -23,6 +68,7 @@ class CachedSetupManager @Inject constructor() {
     
     fun clearLatestSetup() {
         latestSetup = null
+        _setupUpdates.value = null
+        _weekendPack.value = emptyMap()
     }
 }
-
@@ -3,6 +3,7 @@ package com.kaaneneskpc.f1setupinstructor.domain.repository
 import androidx.paging.PagingData
 import com.kaaneneskpc.f1setupinstructor.domain.model.Setup
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
 import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStyle
 import kotlinx.coroutines.flow.Flow
 
@@ -16,7 +17,28 @@ interface SetupRepository {
      * Get best setup from AI (used by HomeScreen)
      */
     suspend fun getBestSetup(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Result<SetupData>
+
+    /**
+     * Get best setups for several tracks of the same session, fetching the uncached ones in one batch
+     */
+    suspend fun getBestSetups(tracks: List<String>, sessionType: String, qualyWeather: String, raceWeather: String): Result<List<SetupData>>
+
+    /**
+     * Stream best setup from AI, emitting each field group as soon as it is parsed
+     */
+    fun streamBestSetup(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Flow<SetupStreamEvent>
     
+    /**
+     * Warm the setup cache in the background; does nothing when a fresh entry already exists
+     */
+    suspend fun prefetchSetup(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Result<Unit>
+
+    /**
+     * Low-priority fetch of the setup the user is about to ask for; [streamBestSetup] for the same setup
+     * joins it while it runs. Cancelling the caller cancels the request unless someone joined it.
+     */
+    suspend fun speculateSetup(track: String, sessionType: String, qualyWeather: String, raceWeather: String): Result<Unit>
+
     /**
      * Get setup detail by source URL
      */
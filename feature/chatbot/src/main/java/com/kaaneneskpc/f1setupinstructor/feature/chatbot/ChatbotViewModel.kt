@@ -1,27 +1,28 @@
 package com.kaaneneskpc.f1setupinstructor.feature.chatbot
 
-import android.content.Context
-import android.graphics.Bitmap
-import android.graphics.BitmapFactory
-import android.net.Uri
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import com.kaaneneskpc.f1setupinstructor.core.network.ChatService
+import com.kaaneneskpc.f1setupinstructor.feature.chatbot.image.ChatImagePreparer
 import com.kaaneneskpc.f1setupinstructor.domain.model.ChatMessage
 import com.kaaneneskpc.f1setupinstructor.domain.model.Role
 import dagger.hilt.android.lifecycle.HiltViewModel
-import dagger.hilt.android.qualifiers.ApplicationContext
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.catch
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.onCompletion
+import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
+import java.util.UUID
 import javax.inject.Inject
 
 @HiltViewModel
 class ChatbotViewModel @Inject constructor(
     private val chatService: ChatService,
-    @ApplicationContext private val context: Context
+    private val chatImagePreparer: ChatImagePreparer
 ) : ViewModel() {
 
     private val _uiState = MutableStateFlow(
@@ -33,6 +34,11 @@ class ChatbotViewModel @Inject constructor(
     )
     val uiState: StateFlow<ChatUiState> = _uiState.asStateFlow()
 
+    init {
+        // The screen starts with an empty conversation, so the model should too
+        chatService.resetSession()
+    }
+
     fun onEvent(event: ChatEvent) {
         when (event) {
             is ChatEvent.OnInputChange -> handleInputChange(event.text)
@@ -75,34 +81,63 @@ class ChatbotViewModel @Inject constructor(
         }
 
         viewModelScope.launch {
-            val result = if (imageUri != null) {
-                val bitmap = uriToBitmap(imageUri)
-                if (bitmap != null) {
-                    chatService.sendMessageWithImage(input, bitmap)
-                } else {
-                    Result.failure(Exception("Görsel yüklenemedi"))
+            val stream = if (imageUri != null) {
+                val image = chatImagePreparer.prepare(imageUri)
+                if (image == null) {
+                    appendFailure(Exception("Görsel yüklenemedi"))
+                    return@launch
                 }
+                chatService.sendMessageWithImageStream(input, image)
             } else {
-                chatService.sendMessage(input)
+                chatService.sendMessageStream(input)
             }
 
-            result.onSuccess { response ->
-                    _uiState.update { state ->
-                        state.copy(
-                            messages = state.messages + ChatMessage.ai(response),
-                            isTyping = false
-                        )
+            val aiMessageId = UUID.randomUUID().toString()
+            var hasStarted = false
+            stream
+                .onEach { chunk ->
+                    appendChunk(aiMessageId, chunk, isFirstChunk = !hasStarted)
+                    hasStarted = true
+                }
+                .catch { exception ->
+                    if (hasStarted) {
+                        appendChunk(aiMessageId, "\n\n⚠️ Yanıt yarıda kesildi: ${exception.message}", isFirstChunk = false)
+                    } else {
+                        appendFailure(exception)
                     }
-                }.onFailure { exception ->
-                val fallbackResponse =
-                    "Üzgünüm, şu anda bir sorun yaşıyorum. Lütfen tekrar deneyin.\n\nHata: ${exception.message}"
-                _uiState.update { state ->
-                    state.copy(
-                        messages = state.messages + ChatMessage.ai(fallbackResponse),
-                        isTyping = false
-                    )
+                }
+                .onCompletion {
+                    _uiState.update { it.copy(isTyping = false) }
+                }
+                .collect()
+        }
+    }
+
+    /**
+     * Adds the AI message on the first chunk and appends later chunks to it,
+     * so the typing indicator is replaced by text as soon as the first token arrives
+     */
+    private fun appendChunk(messageId: String, chunk: String, isFirstChunk: Boolean) {
+        _uiState.update { state ->
+            val messages = if (isFirstChunk) {
+                state.messages + ChatMessage(id = messageId, role = Role.AI, text = chunk)
+            } else {
+                state.messages.map { message ->
+                    if (message.id == messageId) message.copy(text = message.text + chunk) else message
                 }
             }
+            state.copy(messages = messages, isTyping = false)
+        }
+    }
+
+    private fun appendFailure(exception: Throwable) {
+        val fallbackResponse =
+            "Üzgünüm, şu anda bir sorun yaşıyorum. Lütfen tekrar deneyin.\n\nHata: ${exception.message}"
+        _uiState.update { state ->
+            state.copy(
+                messages = state.messages + ChatMessage.ai(fallbackResponse),
+                isTyping = false
+            )
         }
     }
 
@@ -122,6 +157,8 @@ class ChatbotViewModel @Inject constructor(
                 canSend = true
             )
         }
+        // Prepare while the user is still typing; sending then hits the cache
+        viewModelScope.launch { chatImagePreparer.prepare(uri) }
     }
 
     private fun handleClearImage() {
@@ -136,17 +173,6 @@ class ChatbotViewModel @Inject constructor(
     private fun handleMessageLongPress(id: String) {
         // TODO: Show dialog with Copy/Share/Report options
     }
-
-    private fun uriToBitmap(uriString: String): Bitmap? {
-        return try {
-            val uri = Uri.parse(uriString)
-            context.contentResolver.openInputStream(uri)?.use { inputStream ->
-                BitmapFactory.decodeStream(inputStream)
-            }
-        } catch (e: Exception) {
-            null
-        }
-    }
 }
 
 data class MessageGroup(val role: Role, val messages: List<ChatMessage>)
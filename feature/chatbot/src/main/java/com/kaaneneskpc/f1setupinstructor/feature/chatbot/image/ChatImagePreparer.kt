@@ -0,0 +1,125 @@
+package com.kaaneneskpc.f1setupinstructor.feature.chatbot.image
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.net.Uri
+import android.util.Log
+import android.util.LruCache
+import com.kaaneneskpc.f1setupinstructor.core.network.ChatImage
+import dagger.hilt.android.qualifiers.ApplicationContext
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.withContext
+import java.io.ByteArrayOutputStream
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.math.max
+import kotlin.math.roundToInt
+
+/**
+ * Turns a picked or captured image URI into a small JPEG payload for the model
+ * Decoding happens on the IO dispatcher: bounds first, then a subsampled decode, so the
+ * full-resolution bitmap is never allocated. Prepared payloads are cached by URI.
+ */
+@Singleton
+class ChatImagePreparer @Inject constructor(
+    @ApplicationContext private val context: Context,
+    private val ioDispatcher: CoroutineDispatcher
+) {
+
+    companion object {
+        private const val TAG = "ChatImagePreparer"
+        private const val MIME_TYPE_JPEG = "image/jpeg"
+
+        /** Longest edge sent to the model; larger images add upload time but no detail it uses */
+        private const val MAX_DIMENSION = 1024
+        private const val TARGET_BYTES = 300 * 1024
+        private const val INITIAL_QUALITY = 85
+        private const val MIN_QUALITY = 40
+        private const val QUALITY_STEP = 10
+        private const val CACHE_BYTES = 4 * 1024 * 1024
+    }
+
+    private val cache = object : LruCache<String, ChatImage>(CACHE_BYTES) {
+        override fun sizeOf(key: String, value: ChatImage): Int = value.sizeBytes
+    }
+
+    suspend fun prepare(uriString: String): ChatImage? {
+        cache.get(uriString)?.let { return it }
+
+        return withContext(ioDispatcher) {
+            try {
+                val startedAt = System.currentTimeMillis()
+                val prepared = decodeAndCompress(Uri.parse(uriString)) ?: return@withContext null
+                cache.put(uriString, prepared)
+                Log.d(TAG, "Prepared ${prepared.width}x${prepared.height} image, ${prepared.sizeBytes / 1024}KB in ${System.currentTimeMillis() - startedAt}ms")
+                prepared
+            } catch (e: Exception) {
+                Log.e(TAG, "Failed to prepare image $uriString", e)
+                null
+            } catch (e: OutOfMemoryError) {
+                Log.e(TAG, "Out of memory while preparing image $uriString", e)
+                null
+            }
+        }
+    }
+
+    private fun decodeAndCompress(uri: Uri): ChatImage? {
+        val bounds = BitmapFactory.Options().apply { inJustDecodeBounds = true }
+        context.contentResolver.openInputStream(uri)?.use { BitmapFactory.decodeStream(it, null, bounds) }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null
+
+        val options = BitmapFactory.Options().apply {
+            inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight)
+        }
+        val decoded = context.contentResolver.openInputStream(uri)?.use {
+            BitmapFactory.decodeStream(it, null, options)
+        } ?: return null
+
+        val scaled = scaleToFit(decoded)
+        if (scaled !== decoded) decoded.recycle()
+
+        val bytes = compress(scaled)
+        val image = ChatImage(bytes, MIME_TYPE_JPEG, scaled.width, scaled.height)
+        scaled.recycle()
+        return image
+    }
+
+    /**
+     * Largest power of two that keeps the longest edge at or above [MAX_DIMENSION]
+     */
+    private fun calculateInSampleSize(width: Int, height: Int): Int {
+        var sampleSize = 1
+        while (max(width, height) / (sampleSize * 2) >= MAX_DIMENSION) {
+            sampleSize *= 2
+        }
+        return sampleSize
+    }
+
+    private fun scaleToFit(bitmap: Bitmap): Bitmap {
+        val longestEdge = max(bitmap.width, bitmap.height)
+        if (longestEdge <= MAX_DIMENSION) return bitmap
+        val ratio = MAX_DIMENSION.toFloat() / longestEdge
+        return Bitmap.createScaledBitmap(
+            bitmap,
+            (bitmap.width * ratio).roundToInt(),
+            (bitmap.height * ratio).roundToInt(),
+            true
+        )
+    }
+
+    /**
+     * Lowers JPEG quality step by step until the payload fits [TARGET_BYTES]
+     */
+    private fun compress(bitmap: Bitmap): ByteArray {
+        val output = ByteArrayOutputStream(TARGET_BYTES)
+        var quality = INITIAL_QUALITY
+        while (true) {
+            output.reset()
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, output)
+            if (output.size() <= TARGET_BYTES || quality <= MIN_QUALITY) break
+            quality -= QUALITY_STEP
+        }
+        return output.toByteArray()
+    }
+}
@@ -23,7 +23,6 @@ import androidx.compose.material3.Button
 import androidx.compose.material3.ButtonDefaults
 import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
-import androidx.compose.material3.CircularProgressIndicator
 import androidx.compose.material3.ExperimentalMaterial3Api
 import androidx.compose.material3.Icon
 import androidx.compose.material3.OutlinedTextField
@@ -210,9 +209,7 @@ fun HomeScreen(
         }
 
         item {
-            val isButtonEnabled = uiState.track.isNotBlank() && 
-                                   uiState.sessionType.isNotBlank() && 
-                                   !uiState.isLoading
+            val isButtonEnabled = uiState.track.isNotBlank() && uiState.sessionType.isNotBlank()
             
             Button(
                 onClick = { viewModel.onEvent(HomeEvent.GetSetupClicked) },
@@ -226,59 +223,30 @@ fun HomeScreen(
                 shape = RoundedCornerShape(8.dp),
                 enabled = isButtonEnabled
             ) {
-                if (uiState.isLoading) {
-                    CircularProgressIndicator(
-                        modifier = Modifier.size(24.dp),
-                        color = Color.White
-                    )
-                } else {
-                    Text("Setup Önerisi Al", color = Color.White, fontSize = 16.sp)
-                }
+                Text("Setup Önerisi Al", color = Color.White, fontSize = 16.sp)
             }
         }
 
-        if (uiState.error != null) {
-            item {
-                Text(
-                    text = uiState.error,
-                    color = Color.Red,
-                    fontSize = 14.sp,
-                    modifier = Modifier.padding(horizontal = 16.dp)
-                )
+        item {
+            val isWeekendPackEnabled = uiState.track.isNotBlank()
+
+            Button(
+                onClick = { viewModel.onEvent(HomeEvent.GetWeekendPackClicked) },
+                modifier = Modifier
+                    .fillMaxWidth()
+                    .height(50.dp),
+                colors = ButtonDefaults.buttonColors(
+                    containerColor = Color.DarkGray.copy(alpha = 0.5f),
+                    disabledContainerColor = Color.Gray
+                ),
+                border = if (isWeekendPackEnabled) BorderStroke(2.dp, Color.Red.copy(alpha = 0.7f)) else null,
+                shape = RoundedCornerShape(8.dp),
+                enabled = isWeekendPackEnabled
+            ) {
+                Text("Hafta Sonu Paketi (Sıralama + Yarış)", color = Color.White, fontSize = 16.sp)
             }
         }
     }
-
-    if (uiState.error != null) {
-        androidx.compose.material3.AlertDialog(
-            onDismissRequest = { viewModel.onEvent(HomeEvent.DismissError) },
-            title = {
-                Text(
-                    text = "Hata",
-                    fontWeight = FontWeight.Bold,
-                    color = Color.White
-                )
-            },
-            text = {
-                Text(
-                    text = uiState.error,
-                    color = Color.White.copy(alpha = 0.9f)
-                )
-            },
-            confirmButton = {
-                Button(
-                    onClick = { viewModel.onEvent(HomeEvent.DismissError) },
-                    colors = ButtonDefaults.buttonColors(
-                        containerColor = Color.Red
-                    )
-                ) {
-                    Text("Tamam", color = Color.White)
-                }
-            },
-            containerColor = Color.DarkGray.copy(alpha = 0.95f),
-            shape = RoundedCornerShape(16.dp)
-        )
-    }
 }
 
 @Composable
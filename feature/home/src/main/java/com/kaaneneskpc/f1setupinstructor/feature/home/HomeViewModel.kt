@@ -5,12 +5,24 @@ import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.setValue
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
+import android.util.Log
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteStats
+import com.kaaneneskpc.f1setupinstructor.domain.baseline.BaselineSetupEngine
+import com.kaaneneskpc.f1setupinstructor.domain.baseline.TrackProfiles
 import com.kaaneneskpc.f1setupinstructor.domain.repository.SetupRepository
 import com.kaaneneskpc.f1setupinstructor.domain.repository.CachedSetupManager
 import com.kaaneneskpc.f1setupinstructor.domain.repository.HistoryRepository
 import com.kaaneneskpc.f1setupinstructor.domain.model.HistoryItem
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupData
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupRequest
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import com.kaaneneskpc.f1setupinstructor.domain.model.WeekendSetup
+import com.kaaneneskpc.f1setupinstructor.domain.model.changedFieldsFrom
 import dagger.hilt.android.lifecycle.HiltViewModel
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.receiveAsFlow
 import kotlinx.coroutines.launch
 import java.time.Instant
@@ -20,7 +32,8 @@ import javax.inject.Inject
 class HomeViewModel @Inject constructor(
     private val setupRepository: SetupRepository,
     private val cachedSetupManager: CachedSetupManager,
-    private val historyRepository: HistoryRepository
+    private val historyRepository: HistoryRepository,
+    private val wasteStats: RequestWasteStats
 ) : ViewModel() {
 
     var uiState by mutableStateOf(HomeUiState())
@@ -29,132 +42,242 @@ class HomeViewModel @Inject constructor(
     private val _navigationEvent = Channel<NavigationEvent>()
     val navigationEvent = _navigationEvent.receiveAsFlow()
 
+    companion object {
+        private const val TAG = "HomeViewModel"
+
+        /** How long the form has to stay unchanged before its setup is requested speculatively */
+        private const val SPECULATION_DEBOUNCE_MILLIS = 1_500L
+
+        /** Session type of a weekend pack request, so it is de-duplicated apart from its single setups */
+        private const val WEEKEND_PACK = "Weekend"
+    }
+
+    private var setupJob: Job? = null
+    private var setupRequest: SetupRequest? = null
+    private var speculationJob: Job? = null
+
     fun onEvent(event: HomeEvent) {
         when (event) {
             is HomeEvent.TrackChanged -> {
                 uiState = uiState.copy(track = event.track)
+                speculate()
             }
             is HomeEvent.SessionTypeChanged -> {
                 uiState = uiState.copy(sessionType = event.sessionType)
+                speculate()
             }
             is HomeEvent.QualyWeatherChanged -> {
                 uiState = uiState.copy(qualyWeather = event.weather)
+                speculate()
             }
             is HomeEvent.RaceWeatherChanged -> {
                 uiState = uiState.copy(raceWeather = event.weather)
+                speculate()
             }
             HomeEvent.GetSetupClicked -> {
                 getSetup()
             }
-            HomeEvent.DismissError -> {
-                uiState = uiState.copy(error = null)
+            HomeEvent.GetWeekendPackClicked -> {
+                getWeekendPack()
             }
         }
     }
 
+    /**
+     * Opens the details screen at once with the on-device baseline setup, then streams the AI setup over it:
+     * streamed field groups replace baseline values as they arrive and the final AI setup is published as
+     * a refinement. When the AI cannot be reached the baseline stays as the final setup.
+     * Repeated clicks for the same setup join the running request; a different setup supersedes it.
+     */
     private fun getSetup() {
-        viewModelScope.launch {
-            uiState = uiState.copy(isLoading = true, error = null)
-            
+        val request = SetupRequest(uiState.track, uiState.sessionType, uiState.qualyWeather, uiState.raceWeather)
+        if (!replaceRunningRequest(request)) return
+
+        setupJob = viewModelScope.launch {
+            val baseline = BaselineSetupEngine.baseline(request)
+            // Everything shown before the final AI setup; it is compared against to highlight what the AI changed
+            var shown = baseline
+            var pendingDraft: SetupData? = null
+
+            cachedSetupManager.clearWeekendPack()
+            cachedSetupManager.saveLatestSetup(baseline, isDraft = true)
+            _navigationEvent.send(NavigationEvent.NavigateToSetupDetails(request.track))
+            insertHistory(request)
+
             try {
-                val result = setupRepository.getBestSetup(
-                    track = uiState.track,
-                    sessionType = uiState.sessionType,
-                    qualyWeather = uiState.qualyWeather,
-                    raceWeather = uiState.raceWeather
-                )
-                
-                result.onSuccess { setupData ->
-                    cachedSetupManager.saveLatestSetup(setupData)
-
-                    val historyItem = HistoryItem(
-                        timestamp = Instant.now(),
-                        circuit = setupData.trackName,
-                        weatherQuali = uiState.qualyWeather,
-                        weatherRace = uiState.raceWeather,
-                        selectedSetupId = setupData.trackName,
-                        isFavorite = false
-                    )
-                    historyRepository.insertHistory(historyItem)
-                    
-                    uiState = uiState.copy(isLoading = false)
-                    _navigationEvent.send(NavigationEvent.NavigateToSetupDetails(setupData.trackName))
-                }.onFailure { exception ->
-                    val errorMessage = buildErrorMessage(exception)
-                    uiState = uiState.copy(isLoading = false, error = errorMessage)
+                setupRepository.streamBestSetup(
+                    track = request.track,
+                    sessionType = request.sessionType,
+                    qualyWeather = request.qualyWeather,
+                    raceWeather = request.raceWeather
+                ).collect { event ->
+                    when (event) {
+                        is SetupStreamEvent.GroupCompleted -> {
+                            shown = BaselineSetupEngine.withStreamedValues(baseline, event.partial)
+                            cachedSetupManager.saveLatestSetup(shown, isDraft = true)
+                        }
+                        is SetupStreamEvent.Completed -> {
+                            if (event.isDraft) {
+                                shown = event.setupData
+                                pendingDraft = event.setupData
+                                cachedSetupManager.saveLatestSetup(event.setupData, isDraft = true)
+                            } else {
+                                pendingDraft = null
+                                cachedSetupManager.publishRefinedSetup(
+                                    event.setupData,
+                                    event.setupData.changedFieldsFrom(shown)
+                                )
+                            }
+                        }
+                        is SetupStreamEvent.Refined -> {
+                            pendingDraft = null
+                            cachedSetupManager.publishRefinedSetup(event.setupData, event.changedFields)
+                        }
+                    }
                 }
+                // The refinement failed; the draft becomes the final setup
+                pendingDraft?.let { cachedSetupManager.saveLatestSetup(it) }
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
-                val errorMessage = buildErrorMessage(e)
-                uiState = uiState.copy(isLoading = false, error = errorMessage)
+                // Offline or the AI failed: the baseline is a complete setup, so what is shown becomes final
+                Log.w(TAG, "AI setup for ${request.track} failed, keeping the baseline: ${e.message}")
+                cachedSetupManager.saveLatestSetup(
+                    pendingDraft ?: shown.copy(creatorNotes = "${shown.creatorNotes} ${offlineNote(e)}")
+                )
             }
         }
     }
     
-    private fun buildErrorMessage(exception: Throwable): String {
-        return when {
-            exception.message?.contains("MAX_TOKENS") == true ||
-            exception.message?.contains("ResponseStopped") == true -> {
-                "⚠️ Token Limiti Aşıldı\n\n" +
-                "AI yanıtı çok uzun oldu ve yarıda kesildi.\n\n" +
-                "Çözüm:\n" +
-                "• Hemen tekrar deneyin (genelde 2. denemede düzelir)\n" +
-                "• AI artık daha kısa yanıt verecek şekilde ayarlandı\n\n" +
-                "Bu normal bir durum, endişelenmeyin!"
-            }
-            exception.message?.contains("API key") == true -> {
-                "❌ API Key Hatası\n\n" +
-                "Gemini API key yapılandırılmamış!\n\n" +
-                "Çözüm:\n" +
-                "1. https://makersuite.google.com/app/apikey adresine git\n" +
-                "2. API key oluştur\n" +
-                "3. local.properties dosyasına ekle:\n" +
-                "   GEMINI_API_KEY=your_key_here\n" +
-                "4. Gradle sync yap"
-            }
-            exception.message?.contains("UnknownHost") == true || 
-            exception.message?.contains("Unable to resolve") == true -> {
-                "🌐 İnternet Bağlantısı Hatası\n\n" +
-                "İnternet bağlantınızı kontrol edin.\n\n" +
-                "Detay: ${exception.message}"
-            }
-            exception.message?.contains("timeout") == true -> {
-                "⏱️ Zaman Aşımı\n\n" +
-                "AI yanıt vermesi çok uzun sürdü.\n\n" +
-                "Tekrar deneyin veya internet bağlantınızı kontrol edin."
-            }
-            exception.message?.contains("429") == true || 
-            exception.message?.contains("rate limit") == true -> {
-                "🚫 Rate Limit Aşıldı\n\n" +
-                "Çok fazla istek gönderdiniz.\n\n" +
-                "1 dakika bekleyip tekrar deneyin.\n\n" +
-                "Ücretsiz limit: 15 istek/dakika"
-            }
-            exception.message?.contains("JSON") == true || 
-            exception.message?.contains("parse") == true ||
-            exception.message?.contains("Serialization") == true ||
-            exception.message?.contains("deserialize") == true -> {
-                "📝 AI Yanıt Formatı Hatası\n\n" +
-                "AI, yanıtı doğru JSON formatında döndürmedi.\n\n" +
-                "Ne yapmalı:\n" +
-                "1. Tekrar deneyin (AI bazen hata yapabiliyor)\n" +
-                "2. Farklı bir pist adı deneyin\n" +
-                "3. Logcat'te 'ResearchServiceImpl' filtresi ile tam yanıtı görün\n\n" +
-                "Not: AI öğreniyor, birkaç deneme gerekebilir.\n\n" +
-                "Detay: ${exception.message?.take(100)}"
+    /**
+     * Qualifying and race setups for the weekend in one action, under a single history entry
+     * Both baselines are shown at once and both AI setups are requested concurrently as user requests,
+     * so the wait is close to one request; each session is replaced by its AI setup as soon as it arrives.
+     */
+    private fun getWeekendPack() {
+        val request = SetupRequest(uiState.track, WEEKEND_PACK, uiState.qualyWeather, uiState.raceWeather)
+        if (!replaceRunningRequest(request)) return
+
+        setupJob = viewModelScope.launch {
+            val baselines = WeekendSetup.SESSIONS.associateWith { session ->
+                BaselineSetupEngine.baseline(request.copy(sessionType = session))
             }
-            exception.message?.contains("401") == true || 
-            exception.message?.contains("403") == true -> {
-                "🔒 Yetkilendirme Hatası\n\n" +
-                "API key geçersiz veya izinler yetersiz.\n\n" +
-                "API key'inizi kontrol edin.\n\n" +
-                "Detay: ${exception.message}"
+
+            cachedSetupManager.startWeekendPack(baselines)
+            _navigationEvent.send(NavigationEvent.NavigateToSetupDetails(request.track))
+            insertHistory(request)
+
+            for ((session, baseline) in baselines) {
+                launch {
+                    try {
+                        val setupData = setupRepository.getBestSetup(
+                            track = request.track,
+                            sessionType = session,
+                            qualyWeather = request.qualyWeather,
+                            raceWeather = request.raceWeather
+                        ).getOrThrow()
+                        cachedSetupManager.publishWeekendSetup(session, setupData)
+                    } catch (e: CancellationException) {
+                        throw e
+                    } catch (e: Exception) {
+                        Log.w(TAG, "AI $session setup for ${request.track} failed, keeping the baseline: ${e.message}")
+                        cachedSetupManager.publishWeekendSetup(
+                            session,
+                            baseline.copy(creatorNotes = "${baseline.creatorNotes} ${offlineNote(e)}")
+                        )
+                    }
+                }
             }
-            else -> {
-                "❌ Setup Oluşturulamadı\n\n" +
-                "Hata: ${exception.message ?: "Bilinmeyen hata"}\n\n" +
-                "Detay: ${exception.javaClass.simpleName}\n\n" +
-                "Lütfen tekrar deneyin veya farklı bir pist deneyin."
+        }
+    }
+
+    /**
+     * Cancels a running request for a different setup; returns false when [request] itself is already running
+     */
+    private fun replaceRunningRequest(request: SetupRequest): Boolean {
+        val running = setupJob
+        if (running?.isActive == true) {
+            if (request.cacheKey == setupRequest?.cacheKey) {
+                wasteStats.recordDuplicateIgnored()
+                return false
             }
+            running.cancel()
+            wasteStats.recordSuperseded()
+        }
+        setupRequest = request
+        return true
+    }
+
+    private suspend fun insertHistory(request: SetupRequest) {
+        historyRepository.insertHistory(
+            HistoryItem(
+                timestamp = Instant.now(),
+                circuit = request.track,
+                weatherQuali = request.qualyWeather,
+                weatherRace = request.raceWeather,
+                selectedSetupId = request.track,
+                isFavorite = false
+            )
+        )
+    }
+
+    /**
+     * Requests the setup on the form at low priority once the form is complete and has not changed for
+     * [SPECULATION_DEBOUNCE_MILLIS], so a click finds it cached or already running
+     * Any change cancels the previous speculation; only known tracks count as complete, so a half-typed
+     * name is never requested.
+     */
+    private fun speculate() {
+        speculationJob?.cancel()
+        val request = SetupRequest(uiState.track, uiState.sessionType, uiState.qualyWeather, uiState.raceWeather)
+        if (request.sessionType.isBlank() || TrackProfiles.find(request.track) == null) return
+        if (isRunning(request)) return
+
+        speculationJob = viewModelScope.launch {
+            delay(SPECULATION_DEBOUNCE_MILLIS)
+            // A click during the debounce already requested this setup at full priority
+            if (isRunning(request)) return@launch
+            setupRepository.speculateSetup(
+                track = request.track,
+                sessionType = request.sessionType,
+                qualyWeather = request.qualyWeather,
+                raceWeather = request.raceWeather
+            ).onFailure { Log.d(TAG, "Speculative request for ${request.cacheKey} failed: ${it.message}") }
+        }
+    }
+
+    private fun isRunning(request: SetupRequest): Boolean =
+        setupJob?.isActive == true && request.cacheKey == setupRequest?.cacheKey
+
+    override fun onCleared() {
+        if (setupJob?.isActive == true) wasteStats.recordOwnerCancelled()
+        super.onCleared()
+    }
+
+    /**
+     * Why the baseline was not replaced, appended to its notes on the details screen
+     */
+    private fun offlineNote(exception: Throwable): String {
+        val message = exception.message.orEmpty()
+        return when {
+            message.contains("circuit open") ->
+                "AI araştırması art arda başarısız olan istekler yüzünden kısa bir süre durduruldu, yaklaşık 1 dakika sonra tekrar deneyin."
+            message.contains("MAX_TOKENS") || message.contains("ResponseStopped") ->
+                "AI yanıtı token limitine takılıp yarıda kesildi, hemen tekrar deneyin."
+            message.contains("API key") ->
+                "AI araştırması kapalı: local.properties dosyasında GEMINI_API_KEY tanımlı değil."
+            message.contains("401") || message.contains("403") ->
+                "AI araştırması kapalı: Gemini API key geçersiz veya izinleri yetersiz."
+            message.contains("UnknownHost") || message.contains("Unable to resolve") ->
+                "AI araştırması için internet bağlantısı gerekiyor."
+            message.contains("timeout", ignoreCase = true) ->
+                "AI yanıt vermesi çok uzun sürdü, tekrar deneyin veya internet bağlantınızı kontrol edin."
+            message.contains("429") || message.contains("rate limit") ->
+                "AI istek limiti aşıldı (ücretsiz limit: 15 istek/dakika), 1 dakika bekleyip tekrar deneyin."
+            message.contains("JSON") || message.contains("parse") ||
+                message.contains("Serialization") || message.contains("deserialize") ->
+                "AI yanıtı beklenen formatta değildi, tekrar deneyin."
+            else -> "AI araştırması tamamlanamadı (${exception.javaClass.simpleName}), lütfen tekrar deneyin."
         }
     }
 }
@@ -163,9 +286,7 @@ data class HomeUiState(
     val track: String = "",
     val sessionType: String = "",
     val qualyWeather: String = "Dry",
-    val raceWeather: String = "Dry",
-    val isLoading: Boolean = false,
-    val error: String? = null
+    val raceWeather: String = "Dry"
 )
 
 sealed interface HomeEvent {
@@ -174,7 +295,7 @@ sealed interface HomeEvent {
     data class QualyWeatherChanged(val weather: String) : HomeEvent
     data class RaceWeatherChanged(val weather: String) : HomeEvent
     object GetSetupClicked : HomeEvent
-    object DismissError : HomeEvent
+    object GetWeekendPackClicked : HomeEvent
 }
 
 sealed interface NavigationEvent {
@@ -0,0 +1,346 @@
+package com.kaaneneskpc.f1setupinstructor.feature.home.debug
+
+import android.content.Intent
+import androidx.compose.foundation.background
+import androidx.compose.foundation.layout.Arrangement
+import androidx.compose.foundation.layout.Box
+import androidx.compose.foundation.layout.Column
+import androidx.compose.foundation.layout.PaddingValues
+import androidx.compose.foundation.layout.Row
+import androidx.compose.foundation.layout.Spacer
+import androidx.compose.foundation.layout.fillMaxHeight
+import androidx.compose.foundation.layout.fillMaxSize
+import androidx.compose.foundation.layout.fillMaxWidth
+import androidx.compose.foundation.layout.height
+import androidx.compose.foundation.layout.padding
+import androidx.compose.foundation.lazy.LazyColumn
+import androidx.compose.foundation.lazy.items
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material3.Button
+import androidx.compose.material3.ButtonDefaults
+import androidx.compose.material3.Card
+import androidx.compose.material3.CardDefaults
+import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedButton
+import androidx.compose.material3.Text
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.getValue
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.draw.clip
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.text.font.FontFamily
+import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.tooling.preview.Preview
+import androidx.compose.ui.unit.dp
+import androidx.hilt.navigation.compose.hiltViewModel
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.SpeculationSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StageHistogram
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StartupSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.TraceRecord
+import com.kaaneneskpc.f1setupinstructor.core.ui.components.GradientBackground
+import com.kaaneneskpc.f1setupinstructor.feature.home.profile.components.ProfileTopBar
+import com.kaaneneskpc.f1setupinstructor.feature.home.profile.components.SectionHeader
+
+@Composable
+fun PipelineTraceRoute(
+    onBack: () -> Unit,
+    viewModel: PipelineTraceViewModel = hiltViewModel()
+) {
+    val uiState by viewModel.uiState.collectAsStateWithLifecycle()
+    val context = LocalContext.current
+
+    PipelineTraceScreen(
+        uiState = uiState,
+        onBack = onBack,
+        onExport = {
+            val intent = Intent(Intent.ACTION_SEND).apply {
+                type = "application/json"
+                putExtra(Intent.EXTRA_SUBJECT, "F1 Setup pipeline trace")
+                putExtra(Intent.EXTRA_TEXT, viewModel.exportJson())
+            }
+            context.startActivity(Intent.createChooser(intent, "JSON Dışa Aktar"))
+        },
+        onReset = viewModel::reset
+    )
+}
+
+@Composable
+fun PipelineTraceScreen(
+    uiState: PipelineTraceUiState,
+    onBack: () -> Unit,
+    onExport: () -> Unit,
+    onReset: () -> Unit
+) {
+    GradientBackground {
+        LazyColumn(
+            modifier = Modifier.fillMaxSize(),
+            contentPadding = PaddingValues(bottom = 24.dp)
+        ) {
+            item {
+                ProfileTopBar(title = "Pipeline İzleme", onBackClick = onBack)
+            }
+
+            item {
+                Row(
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .padding(horizontal = 16.dp),
+                    horizontalArrangement = Arrangement.spacedBy(12.dp)
+                ) {
+                    Button(
+                        onClick = onExport,
+                        modifier = Modifier.weight(1f),
+                        colors = ButtonDefaults.buttonColors(containerColor = Color(0xFF8B0000))
+                    ) {
+                        Text("JSON Dışa Aktar")
+                    }
+                    OutlinedButton(onClick = onReset, modifier = Modifier.weight(1f)) {
+                        Text("Sıfırla", color = Color.White)
+                    }
+                }
+            }
+
+            item {
+                SectionHeader("UYGULAMA AÇILIŞI")
+            }
+
+            item {
+                StartupCard(startup = uiState.startup)
+            }
+
+            item {
+                SectionHeader("AŞAMA SÜRELERİ")
+            }
+
+            if (uiState.stages.isEmpty()) {
+                item {
+                    Text(
+                        text = "Henüz kayıtlı istek yok",
+                        color = Color.Gray,
+                        modifier = Modifier.padding(horizontal = 16.dp)
+                    )
+                }
+            }
+
+            items(uiState.stages, key = { it.first }) { (stage, histogram) ->
+                StageCard(stage = stage, histogram = histogram)
+            }
+
+            item {
+                SectionHeader("İPTAL EDİLEN İŞLER")
+            }
+
+            item {
+                WasteCard(waste = uiState.waste)
+            }
+
+            item {
+                SectionHeader("SPEKÜLATİF İSTEKLER")
+            }
+
+            item {
+                SpeculationCard(speculation = uiState.speculation)
+            }
+
+            item {
+                SectionHeader("SON İSTEKLER")
+            }
+
+            items(uiState.recentTraces, key = { it.id }) { trace ->
+                TraceCard(trace = trace)
+            }
+        }
+    }
+}
+
+@Composable
+private fun StageCard(stage: String, histogram: StageHistogram) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 16.dp, vertical = 4.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(containerColor = Color.DarkGray.copy(alpha = 0.3f))
+    ) {
+        Column(modifier = Modifier.padding(12.dp)) {
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.SpaceBetween
+            ) {
+                Text(stage, color = Color.White, fontWeight = FontWeight.Medium)
+                Text("n=${histogram.count}", color = Color.Gray)
+            }
+            Text(
+                text = "p50 ${histogram.p50Millis}ms · p95 ${histogram.p95Millis}ms · max ${histogram.maxMillis}ms",
+                style = MaterialTheme.typography.bodySmall,
+                color = Color.Gray
+            )
+            Spacer(modifier = Modifier.height(8.dp))
+            HistogramBars(histogram)
+        }
+    }
+}
+
+@Composable
+private fun HistogramBars(histogram: StageHistogram) {
+    val peak = histogram.counts.maxOrNull()?.takeIf { it > 0 } ?: 1L
+    Row(
+        modifier = Modifier
+            .fillMaxWidth()
+            .height(32.dp),
+        horizontalArrangement = Arrangement.spacedBy(2.dp)
+    ) {
+        histogram.counts.forEach { bucketCount ->
+            Box(
+                modifier = Modifier
+                    .weight(1f)
+                    .fillMaxHeight(),
+                contentAlignment = Alignment.BottomCenter
+            ) {
+                Box(
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .fillMaxHeight(maxOf(bucketCount.toFloat() / peak, 0.04f))
+                        .clip(RoundedCornerShape(2.dp))
+                        .background(if (bucketCount > 0) Color(0xFFE10600) else Color.DarkGray)
+                )
+            }
+        }
+    }
+}
+
+@Composable
+private fun StartupCard(startup: StartupSnapshot) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 16.dp, vertical = 4.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(containerColor = Color.DarkGray.copy(alpha = 0.3f))
+    ) {
+        Column(modifier = Modifier.padding(12.dp)) {
+            Text(
+                text = if (startup.isColdStart) "Soğuk başlangıç" else "Arka planda başlatılan süreç",
+                color = Color.White,
+                fontWeight = FontWeight.Medium
+            )
+            Text(
+                text = "Application ${startup.applicationCreatedMillis}ms · ilk kare ${startup.firstFrameMillis}ms",
+                style = MaterialTheme.typography.bodySmall,
+                color = Color.Gray
+            )
+        }
+    }
+}
+
+@Composable
+private fun WasteCard(waste: RequestWasteSnapshot) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 16.dp, vertical = 4.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(containerColor = Color.DarkGray.copy(alpha = 0.3f))
+    ) {
+        Column(modifier = Modifier.padding(12.dp)) {
+            listOf(
+                "Yeni istekle değiştirilen" to waste.superseded,
+                "Yok sayılan tekrar tıklama" to waste.duplicatesIgnored,
+                "Ekrandan çıkınca iptal" to waste.ownerCancelled,
+                "Yarıda kesilen AI çağrısı" to waste.abandonedCalls,
+                "Bırakılan kayıt" to waste.abandonedWrites,
+                "Atlanan yenileme" to waste.refreshesSkipped
+            ).forEach { (label, count) ->
+                Row(
+                    modifier = Modifier.fillMaxWidth(),
+                    horizontalArrangement = Arrangement.SpaceBetween
+                ) {
+                    Text(label, style = MaterialTheme.typography.bodySmall, color = Color.Gray)
+                    Text("$count", style = MaterialTheme.typography.bodySmall, color = Color.White)
+                }
+            }
+        }
+    }
+}
+
+@Composable
+private fun SpeculationCard(speculation: SpeculationSnapshot) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 16.dp, vertical = 4.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(containerColor = Color.DarkGray.copy(alpha = 0.3f))
+    ) {
+        Column(modifier = Modifier.padding(12.dp)) {
+            listOf(
+                "Başlatılan" to "${speculation.started}",
+                "Form değişince iptal" to "${speculation.cancelled}",
+                "Tıklamayla öne alınan" to "${speculation.promoted}",
+                "Önbellekten açılan" to "${speculation.consumed}",
+                "Boşa giden oran" to "${(speculation.wastedRatio * 100).toInt()}%",
+                "Ortalama kazanılan süre" to "${speculation.averageSavedMillis}ms"
+            ).forEach { (label, value) ->
+                Row(
+                    modifier = Modifier.fillMaxWidth(),
+                    horizontalArrangement = Arrangement.SpaceBetween
+                ) {
+                    Text(label, style = MaterialTheme.typography.bodySmall, color = Color.Gray)
+                    Text(value, style = MaterialTheme.typography.bodySmall, color = Color.White)
+                }
+            }
+        }
+    }
+}
+
+@Composable
+private fun TraceCard(trace: TraceRecord) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 16.dp, vertical = 4.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(containerColor = Color.DarkGray.copy(alpha = 0.3f))
+    ) {
+        Column(modifier = Modifier.padding(12.dp)) {
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.SpaceBetween
+            ) {
+                Text("#${trace.id} ${trace.name}", color = Color.White, fontWeight = FontWeight.Medium)
+                Text(
+                    text = "${trace.totalMillis}ms",
+                    color = if (trace.success) Color(0xFF4CAF50) else Color(0xFFE10600)
+                )
+            }
+            trace.spans.forEach { span ->
+                Text(
+                    text = "+${span.startOffsetMillis}ms ${span.stage} ${span.durationMillis}ms",
+                    style = MaterialTheme.typography.bodySmall,
+                    fontFamily = FontFamily.Monospace,
+                    color = Color.Gray
+                )
+            }
+        }
+    }
+}
+
+@Preview(showBackground = true, backgroundColor = 0xFF000000)
+@Composable
+fun PipelineTraceScreenPreview() {
+    PipelineTraceScreen(
+        uiState = PipelineTraceUiState(
+            stages = listOf(
+                "model_call" to StageHistogram().plus(12_400).plus(18_900).plus(41_000),
+                "json_parse" to StageHistogram().plus(3).plus(4)
+            )
+        ),
+        onBack = {},
+        onExport = {},
+        onReset = {}
+    )
+}
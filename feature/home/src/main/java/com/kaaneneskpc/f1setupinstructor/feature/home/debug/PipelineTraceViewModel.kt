@@ -0,0 +1,78 @@
+package com.kaaneneskpc.f1setupinstructor.feature.home.debug
+
+import androidx.compose.runtime.Stable
+import androidx.lifecycle.ViewModel
+import androidx.lifecycle.viewModelScope
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineStage
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.PipelineTracer
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.RequestWasteStats
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.SpeculationSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.SpeculationStats
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StageHistogram
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StartupSnapshot
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.StartupTimer
+import com.kaaneneskpc.f1setupinstructor.core.common.tracing.TraceRecord
+import dagger.hilt.android.lifecycle.HiltViewModel
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.stateIn
+import javax.inject.Inject
+
+@Stable
+data class PipelineTraceUiState(
+    val stages: List<Pair<String, StageHistogram>> = emptyList(),
+    val recentTraces: List<TraceRecord> = emptyList(),
+    val waste: RequestWasteSnapshot = RequestWasteSnapshot(),
+    val startup: StartupSnapshot = StartupSnapshot(),
+    val speculation: SpeculationSnapshot = SpeculationSnapshot()
+)
+
+@HiltViewModel
+class PipelineTraceViewModel @Inject constructor(
+    private val tracer: PipelineTracer,
+    wasteStats: RequestWasteStats,
+    speculationStats: SpeculationStats
+) : ViewModel() {
+
+    companion object {
+        /** Stages in the order a request passes through them */
+        private val STAGE_ORDER = listOf(
+            PipelineStage.CACHE_LOOKUP,
+            PipelineStage.PROMPT_BUILD,
+            PipelineStage.QUEUE_WAIT,
+            PipelineStage.FIRST_TOKEN,
+            PipelineStage.MODEL_CALL,
+            PipelineStage.JSON_EXTRACT,
+            PipelineStage.JSON_PARSE,
+            PipelineStage.POSITIONAL_DECODE,
+            PipelineStage.VALIDATE_REPAIR,
+            PipelineStage.CACHE_STORE
+        )
+    }
+
+    val uiState: StateFlow<PipelineTraceUiState> = combine(
+        tracer.histograms,
+        tracer.recentTraces,
+        wasteStats.snapshot,
+        StartupTimer.snapshot,
+        speculationStats.snapshot
+    ) { histograms, traces, waste, startup, speculation ->
+        PipelineTraceUiState(
+            stages = histograms.entries
+                .sortedBy { (stage, _) -> STAGE_ORDER.indexOf(stage).let { if (it < 0) STAGE_ORDER.size else it } }
+                .map { it.key to it.value },
+            recentTraces = traces,
+            waste = waste,
+            startup = startup,
+            speculation = speculation
+        )
+    }.stateIn(viewModelScope, SharingStarted.WhileSubscribed(5_000), PipelineTraceUiState())
+
+    fun exportJson(): String = tracer.exportJson()
+
+    fun reset() {
+        tracer.reset()
+    }
+}
@@ -31,6 +31,7 @@ sealed interface ProfileEvent {
     data class OnDarkThemeToggle(val enabled: Boolean) : ProfileEvent
     data class OnTrackStarToggle(val name: String) : ProfileEvent
     data object OnAddTrackClick : ProfileEvent
+    data object OnPipelineTraceClick : ProfileEvent
     data class OnNameChanged(val value: String) : ProfileEvent
     data class OnEmailChanged(val value: String) : ProfileEvent
     data class OnHandleChanged(val value: String) : ProfileEvent
@@ -13,6 +13,7 @@ import androidx.compose.material.icons.filled.DarkMode
 import androidx.compose.material.icons.filled.Email
 import androidx.compose.material.icons.filled.Notifications
 import androidx.compose.material.icons.filled.Person
+import androidx.compose.material.icons.filled.Timeline
 import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
 import androidx.compose.runtime.Composable
@@ -40,15 +41,19 @@ import com.kaaneneskpc.f1setupinstructor.feature.home.profile.components.TrackRo
 @Composable
 fun ProfileRoute(
     onBack: () -> Unit,
+    /** Opens the pipeline trace screen; null hides the developer section, as in release builds */
+    onOpenPipelineTrace: (() -> Unit)? = null,
     viewModel: ProfileViewModel = hiltViewModel()
 ) {
     val uiState by viewModel.uiState.collectAsStateWithLifecycle()
     
     ProfileScreen(
         uiState = uiState,
+        showDeveloperTools = onOpenPipelineTrace != null,
         onEvent = { event ->
             when (event) {
                 ProfileEvent.OnBack -> onBack()
+                ProfileEvent.OnPipelineTraceClick -> onOpenPipelineTrace?.invoke()
                 else -> viewModel.onEvent(event)
             }
         }
@@ -58,7 +63,8 @@ fun ProfileRoute(
 @Composable
 fun ProfileScreen(
     uiState: ProfileUiState,
-    onEvent: (ProfileEvent) -> Unit
+    onEvent: (ProfileEvent) -> Unit,
+    showDeveloperTools: Boolean = false
 ) {
     GradientBackground {
         LazyColumn(
@@ -177,6 +183,32 @@ fun ProfileScreen(
                         )
                     }
                 }
+
+                if (showDeveloperTools) {
+                    item {
+                        Spacer(modifier = Modifier.height(8.dp))
+                        SectionHeader("GELİŞTİRİCİ")
+                    }
+
+                    item {
+                        Card(
+                            modifier = Modifier
+                                .fillMaxWidth()
+                                .padding(horizontal = 16.dp),
+                            shape = RoundedCornerShape(20.dp),
+                            colors = CardDefaults.cardColors(
+                                containerColor = Color.DarkGray.copy(alpha = 0.3f)
+                            )
+                        ) {
+                            SettingRow(
+                                icon = Icons.Default.Timeline,
+                                title = "Pipeline İzleme",
+                                subtitle = "Aşama süreleri ve JSON dışa aktarma",
+                                onClick = { onEvent(ProfileEvent.OnPipelineTraceClick) }
+                            )
+                        }
+                    }
+                }
             }
 
         if (uiState.showNameDialog) {
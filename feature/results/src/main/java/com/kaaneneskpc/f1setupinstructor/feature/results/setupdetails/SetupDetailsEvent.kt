@@ -2,6 +2,7 @@ package com.kaaneneskpc.f1setupinstructor.feature.results.setupdetails
 
 sealed interface SetupDetailsEvent {
     data class TabSelected(val index: Int) : SetupDetailsEvent
+    data class SessionSelected(val sessionType: String) : SetupDetailsEvent
     object ToggleFavorite : SetupDetailsEvent
     object BackClicked : SetupDetailsEvent
     object ShareClicked : SetupDetailsEvent
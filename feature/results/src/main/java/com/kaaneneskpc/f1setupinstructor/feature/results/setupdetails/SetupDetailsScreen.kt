@@ -107,10 +107,22 @@ fun SetupDetailsScreen(
                         badge = uiState.badge,
                         title = uiState.title,
                         subtitle = uiState.subtitle,
+                        isRefining = uiState.isRefining,
                         modifier = Modifier.padding(horizontal = 16.dp, vertical = 12.dp)
                     )
                 }
 
+                if (uiState.sessions.size > 1) {
+                    item {
+                        SessionSwitcher(
+                            sessions = uiState.sessions,
+                            selectedSession = uiState.selectedSession,
+                            onSessionSelected = { onEvent(SetupDetailsEvent.SessionSelected(it)) },
+                            modifier = Modifier.padding(horizontal = 16.dp)
+                        )
+                    }
+                }
+
                 item {
                     ScrollableTabRow(
                         selectedTabIndex = uiState.selectedTabIndex,
@@ -257,7 +269,8 @@ fun HeaderCard(
         badge: String,
         title: String,
         subtitle: String,
-        modifier: Modifier = Modifier
+        modifier: Modifier = Modifier,
+        isRefining: Boolean = false
     ) {
     Card(
             modifier = modifier.fillMaxWidth(),
@@ -331,6 +344,13 @@ fun HeaderCard(
                             style = MaterialTheme.typography.labelMedium,
                             color = Color.White.copy(alpha = 0.9f)
                         )
+                        if (isRefining) {
+                            Text(
+                                text = "Taslak · daha güçlü model setup'ı iyileştiriyor...",
+                                style = MaterialTheme.typography.labelSmall,
+                                color = Color.White.copy(alpha = 0.7f)
+                            )
+                        }
                     }
                 }
             }
@@ -571,6 +591,46 @@ fun TrackStatCard(
         }
     }
 
+/**
+ * Switches between the setups of a weekend pack
+ */
+@Composable
+fun SessionSwitcher(
+    sessions: List<String>,
+    selectedSession: String?,
+    onSessionSelected: (String) -> Unit,
+    modifier: Modifier = Modifier
+) {
+    Row(
+        modifier = modifier.fillMaxWidth(),
+        horizontalArrangement = Arrangement.spacedBy(12.dp)
+    ) {
+        sessions.forEach { session ->
+            val selected = session == selectedSession
+            Button(
+                onClick = { onSessionSelected(session) },
+                shape = RoundedCornerShape(8.dp),
+                colors = ButtonDefaults.buttonColors(
+                    containerColor = if (selected) Color.Red else Color.DarkGray.copy(alpha = 0.5f)
+                ),
+                modifier = Modifier
+                    .weight(1f)
+                    .height(44.dp)
+            ) {
+                Text(
+                    text = when (session) {
+                        "Qualifying" -> "Sıralama"
+                        "Race" -> "Yarış"
+                        else -> session
+                    },
+                    color = Color.White,
+                    fontWeight = if (selected) FontWeight.Bold else FontWeight.Normal
+                )
+            }
+        }
+    }
+}
+
 @Composable
 fun TextSectionCard(
         title: String,
@@ -25,6 +25,11 @@ data class SetupDetailsUiState(
     val keyPointers: String = "Monza is the Temple of Speed. Low downforce is critical for the long straights. A good exit from Parabolica is key for a fast lap.",
     val creatorNotes: String = "This setup is optimized for single-lap pace. Focus on hitting the apexes at Ascari and Parabolica. You might need to short-shift out of the chicanes to manage wheelspin. Good luck!",
     
+    /** A draft is shown and the refined setup will replace it */
+    val isRefining: Boolean = false,
+    /** Sessions of a weekend pack; empty for a single setup */
+    val sessions: List<String> = emptyList(),
+    val selectedSession: String? = null,
     val isLoading: Boolean = false,
     val error: String? = null
 )
@@ -6,9 +6,16 @@ import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import com.kaaneneskpc.f1setupinstructor.domain.repository.SetupRepository
 import com.kaaneneskpc.f1setupinstructor.domain.repository.CachedSetupManager
+import com.kaaneneskpc.f1setupinstructor.domain.model.SetupStreamEvent
+import com.kaaneneskpc.f1setupinstructor.domain.model.WeekendSetup
 import dagger.hilt.android.lifecycle.HiltViewModel
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.filterNotNull
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.takeWhile
 import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
 import javax.inject.Inject
@@ -29,13 +36,61 @@ class SetupDetailsViewModel @Inject constructor(
 
     init {
         val cachedSetup = cachedSetupManager.getLatestSetup()
-        if (cachedSetup != null) {
+        if (cachedSetupManager.weekendPack.value.isNotEmpty()) {
+            observeWeekendPack()
+        } else if (cachedSetupManager.isStreaming) {
+            observeSetupStream()
+        } else if (cachedSetup != null) {
             loadSetupData(cachedSetup)
         } else if (setupId != null) {
             loadSetupById(setupId)
         }
     }
 
+    /**
+     * Shows the draft setup, marked as refining, until the final setup replaces it
+     */
+    private fun observeSetupStream() {
+        viewModelScope.launch {
+            cachedSetupManager.setupUpdates
+                .filterNotNull()
+                .takeWhile { it is SetupStreamEvent.Completed && it.isDraft }
+                .collect { event ->
+                    if (event is SetupStreamEvent.Completed) {
+                        loadSetupData(event.setupData)
+                        _uiState.update { it.copy(isRefining = true) }
+                    }
+                }
+
+            when (val last = cachedSetupManager.setupUpdates.value) {
+                is SetupStreamEvent.Completed -> loadSetupData(last.setupData)
+                is SetupStreamEvent.Refined -> loadSetupData(last.setupData)
+                else -> Unit
+            }
+            _uiState.update { it.copy(isRefining = false) }
+        }
+    }
+
+    /**
+     * Shows the selected session of a weekend pack and follows it while the AI setups replace the baselines
+     */
+    private fun observeWeekendPack() {
+        val sessions = WeekendSetup.SESSIONS.filter { it in cachedSetupManager.weekendPack.value }
+        _uiState.update { it.copy(sessions = sessions, selectedSession = sessions.firstOrNull()) }
+        viewModelScope.launch {
+            combine(
+                cachedSetupManager.weekendPack,
+                _uiState.map { it.selectedSession }.distinctUntilChanged()
+            ) { pack, session -> pack[session] }
+                .filterNotNull()
+                .distinctUntilChanged()
+                .collect { weekendSetup ->
+                    loadSetupData(weekendSetup.setupData)
+                    _uiState.update { it.copy(isRefining = weekendSetup.isDraft) }
+                }
+        }
+    }
+
     /**
      * Load setup from SetupData (from AI response)
      */
@@ -120,6 +175,10 @@ class SetupDetailsViewModel @Inject constructor(
             is SetupDetailsEvent.TabSelected -> {
                 _uiState.update { it.copy(selectedTabIndex = event.index) }
             }
+
+            is SetupDetailsEvent.SessionSelected -> {
+                _uiState.update { it.copy(selectedSession = event.sessionType) }
+            }
             
             is SetupDetailsEvent.ToggleFavorite -> {
                 val newFavoriteState = !_uiState.value.isFavorite